@@ -0,0 +1,149 @@
+/*
+ * Copyright (c) 2026 Abex
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.pluginhub.apirecorder;
+
+import com.google.common.base.Joiner;
+import com.google.common.io.MoreFiles;
+import com.google.common.io.RecursiveDeleteOption;
+import com.sun.source.util.JavacTask;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.tools.JavaCompiler;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Compiles a set of plugin source trees with and without the recorder, to measure how much
+ * time it adds to every plugin's javac run. Each argument after the classpath is one plugin's
+ * source root, which is compiled on its own like the packager would
+ */
+@Slf4j
+public class RecorderBenchmark
+{
+	private static final int WARMUP_ROUNDS = Integer.getInteger("runelite.pluginhub.benchmark.warmup", 3);
+	private static final int ROUNDS = Integer.getInteger("runelite.pluginhub.benchmark.rounds", 10);
+
+	public static void main(String... args) throws IOException
+	{
+		if (args.length < 2)
+		{
+			System.err.println("usage: RecorderBenchmark <classpath> <plugin source root>...");
+			System.exit(1);
+		}
+
+		String classpath = args[0];
+		List<List<File>> plugins = new ArrayList<>();
+		for (String root : Arrays.asList(args).subList(1, args.length))
+		{
+			try (Stream<java.nio.file.Path> files = Files.walk(new File(root).toPath()))
+			{
+				plugins.add(files
+					.filter(f -> f.toString().endsWith(".java"))
+					.map(java.nio.file.Path::toFile)
+					.collect(Collectors.toList()));
+			}
+		}
+
+		File tmp = Files.createTempDirectory("recorder-benchmark").toFile();
+		try
+		{
+			JavaCompiler javac = ToolProvider.getSystemJavaCompiler();
+			for (int i = 0; i < WARMUP_ROUNDS; i++)
+			{
+				compileAll(javac, classpath, plugins, tmp, false);
+				compileAll(javac, classpath, plugins, tmp, true);
+			}
+
+			// alternate so drift in the jvm or machine affects both sides equally
+			long[] plain = new long[ROUNDS];
+			long[] recorded = new long[ROUNDS];
+			for (int i = 0; i < ROUNDS; i++)
+			{
+				plain[i] = compileAll(javac, classpath, plugins, tmp, false);
+				recorded[i] = compileAll(javac, classpath, plugins, tmp, true);
+			}
+
+			long plainMs = median(plain) / 1_000_000;
+			long recordedMs = median(recorded) / 1_000_000;
+			log.info("{} plugins: {}ms without the recorder, {}ms with it, {} overhead",
+				plugins.size(), plainMs, recordedMs,
+				String.format("%.1f%%", plainMs == 0 ? 0 : (recordedMs - plainMs) * 100.0 / plainMs));
+		}
+		finally
+		{
+			MoreFiles.deleteRecursively(tmp.toPath(), RecursiveDeleteOption.ALLOW_INSECURE);
+		}
+	}
+
+	private static long compileAll(JavaCompiler javac, String classpath, List<List<File>> plugins, File tmp, boolean record) throws IOException
+	{
+		long total = 0;
+		for (List<File> sources : plugins)
+		{
+			File out = Files.createTempDirectory(tmp.toPath(), "classes").toFile();
+			try (StandardJavaFileManager fm = javac.getStandardFileManager(null, null, StandardCharsets.UTF_8))
+			{
+				JavacTask task = (JavacTask) javac.getTask(null, fm, d -> {}, Arrays.asList(
+					"-classpath", classpath,
+					"-processorpath", classpath,
+					"-d", out.getAbsolutePath(),
+					"--release", "11",
+					"-nowarn"), null, fm.getJavaFileObjectsFromFiles(sources));
+				if (record)
+				{
+					// the packager only keeps fragments when asked to
+					RecorderPlugin.install(task, new File(out, "api"), null);
+				}
+
+				long start = System.nanoTime();
+				if (!task.call())
+				{
+					throw new IllegalStateException("failed to compile " + Joiner.on(' ').join(sources));
+				}
+				total += System.nanoTime() - start;
+			}
+			finally
+			{
+				MoreFiles.deleteRecursively(out.toPath(), RecursiveDeleteOption.ALLOW_INSECURE);
+			}
+		}
+		return total;
+	}
+
+	private static long median(long[] times)
+	{
+		long[] sorted = times.clone();
+		Arrays.sort(sorted);
+		return sorted[sorted.length / 2];
+	}
+}
@@ -25,7 +25,10 @@
 package net.runelite.pluginhub.apirecorder;
 
 import com.google.common.collect.ImmutableSet;
+import java.io.BufferedInputStream;
 import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
@@ -33,7 +36,11 @@ import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.Writer;
 import java.lang.reflect.Modifier;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -80,9 +87,51 @@ public class API
 		w.write('\n');
 	}
 
+	/**
+	 * Writes the api in the compact format, which is larger on disk than the deflated text
+	 * format, but can be memory mapped and probed without decoding it
+	 */
+	public static void encodeCompact(OutputStream os, Stream<String> stream) throws IOException
+	{
+		CompactAPI.encode(os, stream);
+	}
+
+	/**
+	 * Reads an api in either the deflated text format or the compact format
+	 */
+	@SneakyThrows
 	public static API decode(InputStream is)
 	{
-		return decodePlain(new InflaterInputStream(is));
+		BufferedInputStream bis = new BufferedInputStream(is);
+		bis.mark(4);
+		byte[] header = bis.readNBytes(4);
+		bis.reset();
+		if (CompactAPI.isCompact(header))
+		{
+			return new API(new CompactAPI(ByteBuffer.wrap(bis.readAllBytes())));
+		}
+		return decodePlain(new InflaterInputStream(bis));
+	}
+
+	/**
+	 * Reads an api file. Compact files are memory mapped, so only the parts that are probed get paged in
+	 */
+	public static API map(File file) throws IOException
+	{
+		try (FileChannel fc = FileChannel.open(file.toPath(), StandardOpenOption.READ))
+		{
+			ByteBuffer header = ByteBuffer.allocate(4);
+			fc.read(header, 0);
+			if (CompactAPI.isCompact(header.array()))
+			{
+				return new API(new CompactAPI(fc.map(FileChannel.MapMode.READ_ONLY, 0, fc.size())));
+			}
+		}
+
+		try (InputStream is = new FileInputStream(file))
+		{
+			return decode(is);
+		}
 	}
 
 	public static API decodePlain(InputStream is)
@@ -95,7 +144,22 @@ public class API
 
 	public Map<String, String> parseCommented(InputStream is, boolean checked) throws IOException
 	{
-		Map<String, String> out = new HashMap<>();
+		class Rule
+		{
+			final String line;
+			final String comment;
+			final Pattern pattern;
+			List<String> keys;
+
+			Rule(String line, String comment, Pattern pattern)
+			{
+				this.line = line;
+				this.comment = comment;
+				this.pattern = pattern;
+			}
+		}
+
+		List<Rule> rules = new ArrayList<>();
 		String comment = "";
 		boolean clearComment = true;
 		BufferedReader br = new BufferedReader(new InputStreamReader(is, StandardCharsets.UTF_8));
@@ -126,40 +190,63 @@ public class API
 			if (line.startsWith("/"))
 			{
 				String re = line.trim();
-				Pattern p = Pattern.compile(re.substring(1, re.length() - 1));
-				List<String> keys = apis.stream().filter(p.asPredicate()).collect(Collectors.toList());
-				if (keys.isEmpty())
+				rules.add(new Rule(line, comment, Pattern.compile(re.substring(1, re.length() - 1))));
+			}
+			else
+			{
+				rules.add(new Rule(line, comment, null));
+			}
+		}
+
+		// expand every regex together, so this doesn't scale with rules * apis
+		List<Rule> regexRules = rules.stream()
+			.filter(r -> r.pattern != null)
+			.collect(Collectors.toList());
+		List<List<String>> expanded = PatternExpander.expand(apis, regexRules.stream()
+			.map(r -> r.pattern)
+			.collect(Collectors.toList()));
+		for (int i = 0; i < regexRules.size(); i++)
+		{
+			regexRules.get(i).keys = expanded.get(i);
+		}
+
+		Map<String, String> out = new HashMap<>();
+		for (Rule rule : rules)
+		{
+			if (rule.pattern != null)
+			{
+				if (rule.keys.isEmpty())
 				{
 					if (checked)
 					{
-						throw new RuntimeException("no apis match regex \"" + line + "\"");
+						throw new RuntimeException("no apis match regex \"" + rule.line + "\"");
 					}
 					else
 					{
-						log.warn("no apis match regex \"{}\"", line);
+						log.warn("no apis match regex \"{}\"", rule.line);
 					}
 				}
 
-				for (String k : keys)
+				for (String k : rule.keys)
 				{
-					out.put(k, comment.isEmpty() ? k : comment);
+					out.put(k, rule.comment.isEmpty() ? k : rule.comment);
 				}
 			}
 			else
 			{
-				if (!apis.contains(line))
+				if (!apis.contains(rule.line))
 				{
 					if (checked)
 					{
-						throw new RuntimeException("no apis match \"" + line + "\"");
+						throw new RuntimeException("no apis match \"" + rule.line + "\"");
 					}
 					else
 					{
-						log.warn("no apis match \"{}\"", line);
+						log.warn("no apis match \"{}\"", rule.line);
 					}
 				}
 
-				out.put(line, comment.isEmpty() ? line : comment);
+				out.put(rule.line, rule.comment.isEmpty() ? rule.line : rule.comment);
 			}
 		}
 
@@ -171,14 +258,42 @@ public class API
 		encode(os, apis.stream());
 	}
 
+	public void encodeCompact(OutputStream os) throws IOException
+	{
+		encodeCompact(os, apis.stream());
+	}
+
+	/**
+	 * @return this api, with its descriptors interned in {@link SymbolTable#GLOBAL}, so comparisons
+	 * with other interned apis are done on ids instead of strings
+	 */
+	public API interned()
+	{
+		if (apis instanceof SymbolSet)
+		{
+			return this;
+		}
+		return new API(SymbolSet.of(SymbolTable.GLOBAL, apis));
+	}
+
 	public Stream<String> missingFrom(API other)
 	{
+		if (apis instanceof SymbolSet && other.getApis() instanceof SymbolSet)
+		{
+			return ((SymbolSet) apis).andNot((SymbolSet) other.getApis()).stream();
+		}
+
 		return apis.stream()
 			.filter(a -> !other.getApis().contains(a));
 	}
 
 	public Stream<String> in(API other)
 	{
+		if (apis instanceof SymbolSet && other.getApis() instanceof SymbolSet)
+		{
+			return ((SymbolSet) apis).and((SymbolSet) other.getApis()).stream();
+		}
+
 		return apis.stream()
 			.filter(a -> other.getApis().contains(a));
 	}
@@ -191,7 +306,32 @@ public class API
 			.collect(Collectors.toSet());
 	}
 
+	// every modifier bit modifiersToString looks at
+	private static final int MODIFIER_MASK = Modifier.ABSTRACT | Modifier.INTERFACE | Modifier.PUBLIC
+		| Modifier.PROTECTED | Modifier.PRIVATE | Modifier.STATIC | Modifier.FINAL;
+
+	// the recorder asks for these for every symbol it records, so they are built once up front
+	private static final String[] CLASS_MODIFIERS = new String[MODIFIER_MASK + 1];
+	private static final String[] MEMBER_MODIFIERS = new String[MODIFIER_MASK + 1];
+
+	static
+	{
+		for (int m = 0; m <= MODIFIER_MASK; m++)
+		{
+			if ((m & ~MODIFIER_MASK) == 0)
+			{
+				CLASS_MODIFIERS[m] = buildModifiers(m, false);
+				MEMBER_MODIFIERS[m] = buildModifiers(m, true);
+			}
+		}
+	}
+
 	public static String modifiersToString(int modifiers, boolean member)
+	{
+		return (member ? MEMBER_MODIFIERS : CLASS_MODIFIERS)[modifiers & MODIFIER_MASK];
+	}
+
+	private static String buildModifiers(int modifiers, boolean member)
 	{
 		String s = "";
 		if (Modifier.isAbstract(modifiers))
@@ -246,12 +386,14 @@ public class API
 	{
 		if (classDescriptor != null & descriptor != null)
 		{
-			String mod = modifiersToString(modifiers, true);
+			StringBuilder sb = new StringBuilder(classDescriptor.length() + name.length() + descriptor.length() + 8)
+				.append(classDescriptor).append('.').append(name).append(descriptor).append(':')
+				.append(modifiersToString(modifiers, true));
 			if ((modifiers & Opcodes.ACC_VARARGS) != 0)
 			{
-				mod += "v";
+				sb.append('v');
 			}
-			apis.add(classDescriptor + "." + name + descriptor + ":" + mod);
+			apis.add(sb.toString());
 		}
 	}
 
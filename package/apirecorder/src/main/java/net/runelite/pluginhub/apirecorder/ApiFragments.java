@@ -0,0 +1,311 @@
+/*
+ * Copyright (c) 2026 Abex
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.pluginhub.apirecorder;
+
+import com.google.common.hash.Hashing;
+import com.google.common.io.Files;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import javax.annotation.Nullable;
+import javax.tools.JavaFileObject;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * The api recorded from each compilation unit, kept between compilations so an incremental
+ * compile only has to scan the units javac recompiles, and units whose source hasn't changed
+ * don't have to be scanned again. A unit's fragment is keyed by the hash of its source, and
+ * every fragment is only valid for the classpath it was recorded against
+ */
+@Slf4j
+class ApiFragments
+{
+	// bump this if the scanner records anything differently, so old fragments are not reused
+	private static final int VERSION = 1;
+
+	private static final String INDEX = "index.properties";
+	private static final String KEY_CLASSPATH = "classpath";
+	private static final String PREFIX_SOURCE = "source.";
+	private static final String PARTIAL = "partial";
+	private static final String SUFFIX_API = ".api";
+
+	@Nullable
+	private final File dir;
+
+	@Nullable
+	private final String classpathKey;
+
+	// if fragments from previous compilations were recorded against the same classpath
+	private final boolean reusable;
+
+	// source uri -> fragment hash (or PARTIAL) from previous compilations
+	private final Map<String, String> previous = new HashMap<>();
+
+	// source uri -> the unit in this compilation
+	private final Map<String, Unit> units = new LinkedHashMap<>();
+
+	/**
+	 * @param dir where fragments are kept between compilations, or null to keep nothing
+	 * @param classpathKey identifies the classpath of this compilation, or null if it is unknown,
+	 *                     in which case nothing from previous compilations is reused
+	 */
+	ApiFragments(@Nullable File dir, @Nullable String classpathKey)
+	{
+		this.dir = dir;
+		this.classpathKey = classpathKey == null ? null : VERSION + "-" + classpathKey;
+
+		Properties index = new Properties();
+		File indexFile = dir == null ? null : new File(dir, INDEX);
+		if (indexFile != null && indexFile.exists())
+		{
+			try (InputStream is = new FileInputStream(indexFile))
+			{
+				index.load(is);
+			}
+			catch (IOException e)
+			{
+				log.warn("unable to read api fragment index", e);
+				index.clear();
+			}
+		}
+
+		this.reusable = this.classpathKey != null && this.classpathKey.equals(index.getProperty(KEY_CLASSPATH));
+		for (String key : index.stringPropertyNames())
+		{
+			if (key.startsWith(PREFIX_SOURCE))
+			{
+				previous.put(key.substring(PREFIX_SOURCE.length()), index.getProperty(key));
+			}
+		}
+	}
+
+	/**
+	 * @return the api to record the unit into, or null if it is unchanged since a previous compilation
+	 */
+	@Nullable
+	API begin(JavaFileObject source) throws IOException
+	{
+		String uri = source.toUri().toString();
+		Unit unit = units.get(uri);
+		if (unit == null)
+		{
+			unit = new Unit(dir == null ? uri : hash(source));
+			unit.reused = reusable
+				&& unit.hash.equals(previous.get(uri))
+				&& fragmentFile(unit.hash).exists();
+			units.put(uri, unit);
+		}
+		return unit.reused ? null : unit.api;
+	}
+
+	void markPartial(JavaFileObject source)
+	{
+		Unit unit = units.get(source.toUri().toString());
+		if (unit != null)
+		{
+			unit.partial = true;
+		}
+	}
+
+	/**
+	 * Saves the fragments of this compilation, and merges them with the units of previous
+	 * compilations javac didn't recompile this time
+	 *
+	 * @return the api of every unit, or null if any unit's api could not be recorded completely
+	 */
+	@Nullable
+	API finish() throws IOException
+	{
+		if (dir == null)
+		{
+			Set<String> apis = new HashSet<>();
+			for (Unit unit : units.values())
+			{
+				if (unit.partial)
+				{
+					return null;
+				}
+				apis.addAll(unit.api.getApis());
+			}
+			return new API(apis);
+		}
+
+		dir.mkdirs();
+
+		Properties index = new Properties();
+		if (classpathKey != null)
+		{
+			index.setProperty(KEY_CLASSPATH, classpathKey);
+		}
+
+		Set<String> apis = new HashSet<>();
+		boolean complete = true;
+		for (Map.Entry<String, Unit> e : units.entrySet())
+		{
+			Unit unit = e.getValue();
+			if (unit.partial)
+			{
+				complete = false;
+				index.setProperty(PREFIX_SOURCE + e.getKey(), PARTIAL);
+				continue;
+			}
+
+			File fragment = fragmentFile(unit.hash);
+			if (unit.reused)
+			{
+				apis.addAll(API.map(fragment).getApis());
+			}
+			else
+			{
+				writeFragment(fragment, unit.api);
+				apis.addAll(unit.api.getApis());
+			}
+			index.setProperty(PREFIX_SOURCE + e.getKey(), unit.hash);
+		}
+
+		for (Map.Entry<String, String> e : previous.entrySet())
+		{
+			String uri = e.getKey();
+			if (units.containsKey(uri))
+			{
+				continue;
+			}
+
+			// javac didn't compile this unit, either because it was deleted, or because it hasn't changed
+			File source = sourceFile(uri);
+			if (source == null || !source.exists())
+			{
+				continue;
+			}
+
+			String hash = e.getValue();
+			if (!reusable || PARTIAL.equals(hash) || !hash.equals(hash(source)) || !fragmentFile(hash).exists())
+			{
+				complete = false;
+				index.setProperty(PREFIX_SOURCE + uri, PARTIAL);
+				continue;
+			}
+
+			apis.addAll(API.map(fragmentFile(hash)).getApis());
+			index.setProperty(PREFIX_SOURCE + uri, hash);
+		}
+
+		File tmp = new File(dir, INDEX + ".tmp");
+		try (OutputStream os = new FileOutputStream(tmp))
+		{
+			index.store(os, null);
+		}
+		java.nio.file.Files.move(tmp.toPath(), new File(dir, INDEX).toPath(), StandardCopyOption.REPLACE_EXISTING);
+
+		removeUnused(new HashSet<>(index.values()));
+
+		return complete ? new API(apis) : null;
+	}
+
+	private void writeFragment(File fragment, API api) throws IOException
+	{
+		if (fragment.exists())
+		{
+			return;
+		}
+
+		File tmp = new File(fragment.getPath() + ".tmp");
+		try (OutputStream os = new FileOutputStream(tmp))
+		{
+			api.encodeCompact(os);
+		}
+		java.nio.file.Files.move(tmp.toPath(), fragment.toPath(), StandardCopyOption.REPLACE_EXISTING);
+	}
+
+	private void removeUnused(Set<Object> used)
+	{
+		File[] files = dir.listFiles((d, name) -> name.endsWith(SUFFIX_API));
+		if (files == null)
+		{
+			return;
+		}
+
+		for (File file : files)
+		{
+			String name = file.getName();
+			if (!used.contains(name.substring(0, name.length() - SUFFIX_API.length())))
+			{
+				file.delete();
+			}
+		}
+	}
+
+	private File fragmentFile(String hash)
+	{
+		return new File(dir, hash + SUFFIX_API);
+	}
+
+	@Nullable
+	private static File sourceFile(String uri)
+	{
+		URI u = URI.create(uri);
+		return "file".equals(u.getScheme()) ? new File(u) : null;
+	}
+
+	private static String hash(JavaFileObject source) throws IOException
+	{
+		File file = sourceFile(source.toUri().toString());
+		if (file != null)
+		{
+			return hash(file);
+		}
+		return Hashing.sha256().hashString(source.getCharContent(true), StandardCharsets.UTF_8).toString();
+	}
+
+	private static String hash(File source) throws IOException
+	{
+		return Files.asByteSource(source).hash(Hashing.sha256()).toString();
+	}
+
+	private static class Unit
+	{
+		final String hash;
+		final API api = new API();
+		boolean reused;
+		boolean partial;
+
+		Unit(String hash)
+		{
+			this.hash = hash;
+		}
+	}
+}
@@ -0,0 +1,672 @@
+/*
+ * Copyright (c) 2026 Abex
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.pluginhub.apirecorder;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.jar.JarEntry;
+import java.util.jar.JarInputStream;
+import javax.annotation.Nullable;
+import org.objectweb.asm.AnnotationVisitor;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.FieldVisitor;
+import org.objectweb.asm.Handle;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+
+/**
+ * Records the api a jar uses from its bytecode, for when the javac recorder could not record
+ * it completely. Bytecode doesn't say what modifiers a referenced member has or which supertype
+ * declares it, so references are resolved against the api of the classpath the jar was built
+ * against, and references to anything outside of it, such as the jdk, are not recorded.
+ * <p>
+ * javac inlines constants, so bytecode has no reference to the constant fields it uses, which
+ * the javac recorder records with their value so a changed value causes a rebuild. Instead,
+ * every constant of each referenced class is recorded, as well as every constant that has the
+ * same value as a literal in the bytecode. This over-approximates, but never misses a constant
+ * that was inlined as-is
+ */
+public class BytecodeRecorder
+{
+	private static final String OBJECT = "Ljava/lang/Object;";
+
+	// an api entry without its modifiers -> the entry
+	private final Map<String, String> entries = new HashMap<>();
+
+	// class descriptor -> its direct supertypes' descriptors
+	private final Map<String, List<String>> supertypes = new HashMap<>();
+
+	// class descriptor -> the entries of its constant fields
+	private final Map<String, List<String>> constants = new HashMap<>();
+
+	// a constant's value, boxed the way asm reports it in bytecode -> the entries of the constants with that value
+	private final Map<Object, List<String>> constantsByValue = new HashMap<>();
+
+	// class descriptor + "." + name -> the entry of its method with no arguments, which is how annotation elements are named
+	private final Map<String, String> elements = new HashMap<>();
+
+	public BytecodeRecorder(API classpath)
+	{
+		for (String entry : classpath.getApis())
+		{
+			int classEnd = entry.indexOf(';') + 1;
+			if (classEnd <= 0 || classEnd >= entry.length())
+			{
+				continue;
+			}
+
+			char c = entry.charAt(classEnd);
+			if (c == '>')
+			{
+				supertypes.computeIfAbsent(entry.substring(0, classEnd), k -> new ArrayList<>())
+					.add(entry.substring(classEnd + 1));
+			}
+			else if (c == '.')
+			{
+				int colon = entry.indexOf(':', classEnd);
+				if (colon < 0)
+				{
+					continue;
+				}
+				if (entry.indexOf('(', classEnd) < 0 || entry.indexOf('(', classEnd) > colon)
+				{
+					// field, whose descriptor follows the name
+					int nameEnd = colon;
+					colon = entry.indexOf(':', colon + 1);
+					if (colon < 0)
+					{
+						continue;
+					}
+
+					// followed by its modifiers and its value, if it is a constant
+					int modsEnd = entry.indexOf(':', colon + 1);
+					if (modsEnd > 0 && modsEnd + 1 < entry.length())
+					{
+						constants.computeIfAbsent(entry.substring(0, classEnd), k -> new ArrayList<>()).add(entry);
+						Object value = inlinedValue(entry.substring(nameEnd + 1, colon), entry.substring(modsEnd + 1));
+						if (value != null)
+						{
+							constantsByValue.computeIfAbsent(value, k -> new ArrayList<>()).add(entry);
+						}
+					}
+				}
+				else
+				{
+					colon = entry.lastIndexOf(':');
+					int args = entry.indexOf('(', classEnd);
+					if (entry.startsWith("()", args))
+					{
+						elements.put(entry.substring(0, args), entry);
+					}
+				}
+				entries.put(entry.substring(0, colon), entry);
+			}
+			else
+			{
+				entries.put(entry.substring(0, classEnd), entry);
+			}
+		}
+	}
+
+	/**
+	 * @return the value of a constant the way it appears in bytecode that inlines it, or null if it
+	 * can't be inlined
+	 */
+	private static Object inlinedValue(String descriptor, String value)
+	{
+		try
+		{
+			switch (descriptor)
+			{
+				case "Z":
+					if ("true".equals(value) || "false".equals(value))
+					{
+						return "true".equals(value) ? 1 : 0;
+					}
+					return Integer.valueOf(value);
+				case "C":
+					if (value.length() == 1 && !Character.isDigit(value.charAt(0)))
+					{
+						return (int) value.charAt(0);
+					}
+					return Integer.valueOf(value);
+				case "B":
+				case "S":
+				case "I":
+					return Integer.valueOf(value);
+				case "J":
+					return Long.valueOf(value);
+				case "F":
+					return Float.valueOf(value);
+				case "D":
+					return Double.valueOf(value);
+				case "Ljava/lang/String;":
+					return value;
+				default:
+					return null;
+			}
+		}
+		catch (NumberFormatException e)
+		{
+			return null;
+		}
+	}
+
+	/**
+	 * The api a jar was recorded to use
+	 */
+	public static class Recording
+	{
+		// what the bytecode names
+		private final Set<String> referenced = new HashSet<>();
+
+		// constants that may have been inlined, and the classes they are read through
+		private final Set<String> inferred = new HashSet<>();
+
+		/**
+		 * @return everything the jar may use, which is what decides if it has to be rebuilt
+		 */
+		public API getApi()
+		{
+			Set<String> apis = new HashSet<>(referenced);
+			apis.addAll(inferred);
+			return new API(apis);
+		}
+
+		/**
+		 * @return only what the bytecode names, without any constant that was matched by its
+		 * value. A plugin can't be blamed for a constant that merely has the same value as one
+		 * of its literals, so this is what is checked for disallowed apis
+		 */
+		public API getReferencedApi()
+		{
+			return new API(new HashSet<>(referenced));
+		}
+	}
+
+	/**
+	 * @return the api the jar's classes use from the classpath, including the jar's own
+	 * classes if they are on it, which should be stripped the same as a javac recording
+	 */
+	public Recording record(File jar) throws IOException
+	{
+		List<ClassReader> classes = new ArrayList<>();
+		try (JarInputStream jis = new JarInputStream(new FileInputStream(jar)))
+		{
+			for (JarEntry je; (je = jis.getNextJarEntry()) != null; )
+			{
+				if (je.getName().endsWith(".class") && !je.getName().startsWith("META-INF/versions"))
+				{
+					classes.add(new ClassReader(jis));
+				}
+			}
+		}
+
+		// members inherited from the classpath are referenced through the jar's own classes
+		Map<String, List<String>> jarSupertypes = new HashMap<>();
+		for (ClassReader cr : classes)
+		{
+			List<String> supers = new ArrayList<>();
+			if (cr.getSuperName() != null)
+			{
+				supers.add("L" + cr.getSuperName() + ";");
+			}
+			for (String iface : cr.getInterfaces())
+			{
+				supers.add("L" + iface + ";");
+			}
+			jarSupertypes.put("L" + cr.getClassName() + ";", supers);
+		}
+
+		Recording apis = new Recording();
+		for (ClassReader cr : classes)
+		{
+			cr.accept(new Visitor(apis, jarSupertypes), ClassReader.SKIP_FRAMES | ClassReader.SKIP_DEBUG);
+		}
+		return apis;
+	}
+
+	private void recordType(Recording apis, Type type)
+	{
+		while (type.getSort() == Type.ARRAY)
+		{
+			type = type.getElementType();
+		}
+		if (type.getSort() == Type.OBJECT)
+		{
+			String entry = entries.get(type.getDescriptor());
+			if (entry != null && apis.referenced.add(entry))
+			{
+				apis.inferred.addAll(constants.getOrDefault(type.getDescriptor(), Collections.emptyList()));
+			}
+		}
+		else if (type.getSort() == Type.METHOD)
+		{
+			for (Type arg : type.getArgumentTypes())
+			{
+				recordType(apis, arg);
+			}
+			recordType(apis, type.getReturnType());
+		}
+	}
+
+	private void recordInternalName(Recording apis, String internalName)
+	{
+		recordType(apis, internalName.startsWith("[") ? Type.getType(internalName) : Type.getObjectType(internalName));
+	}
+
+	/**
+	 * Records the member and the path from owner to the supertype that declares it, like the
+	 * javac recorder does for a member accessed through a subtype
+	 */
+	private boolean recordMember(Recording apis, Map<String, List<String>> jarSupertypes, String owner, String member)
+	{
+		String entry = entries.get(owner + member);
+		if (entry != null)
+		{
+			apis.referenced.add(entry);
+			return true;
+		}
+
+		List<String> supers = supertypes.get(owner);
+		if (supers == null)
+		{
+			supers = jarSupertypes.getOrDefault(owner, Collections.emptyList());
+		}
+		for (String supertype : supers)
+		{
+			if (recordMember(apis, jarSupertypes, supertype, member))
+			{
+				apis.referenced.add(owner + ">" + supertype);
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private void recordMethod(Recording apis, Map<String, List<String>> jarSupertypes, String owner, String name, String descriptor)
+	{
+		if (!owner.startsWith("["))
+		{
+			// the javac recorder sees the class named at the call site as well as the member
+			recordInternalName(apis, owner);
+			recordMember(apis, jarSupertypes, "L" + owner + ";", "." + name + descriptor);
+		}
+	}
+
+	private void recordField(Recording apis, Map<String, List<String>> jarSupertypes, String owner, String name, String descriptor)
+	{
+		recordInternalName(apis, owner);
+		recordMember(apis, jarSupertypes, "L" + owner + ";", "." + name + ":" + descriptor);
+	}
+
+	private void recordFullHierarchy(Recording apis, String descriptor)
+	{
+		for (String supertype : supertypes.getOrDefault(descriptor, Collections.emptyList()))
+		{
+			if (!OBJECT.equals(supertype) && apis.referenced.add(descriptor + ">" + supertype))
+			{
+				recordFullHierarchy(apis, supertype);
+			}
+		}
+	}
+
+	private void recordLiteral(Recording apis, Object value)
+	{
+		for (String constant : constantsByValue.getOrDefault(value, Collections.emptyList()))
+		{
+			// the javac recorder also sees the class the constant was read through
+			apis.inferred.add(constant);
+			String owner = entries.get(constant.substring(0, constant.indexOf(';') + 1));
+			if (owner != null)
+			{
+				apis.inferred.add(owner);
+			}
+		}
+	}
+
+	private void recordConstant(Recording apis, Map<String, List<String>> jarSupertypes, Object value)
+	{
+		if (value instanceof Type)
+		{
+			recordType(apis, (Type) value);
+		}
+		else if (value instanceof Handle)
+		{
+			Handle h = (Handle) value;
+			if (h.getTag() <= Opcodes.H_PUTSTATIC)
+			{
+				recordField(apis, jarSupertypes, h.getOwner(), h.getName(), h.getDesc());
+			}
+			else
+			{
+				recordMethod(apis, jarSupertypes, h.getOwner(), h.getName(), h.getDesc());
+			}
+		}
+		else
+		{
+			recordLiteral(apis, value);
+		}
+	}
+
+	private class Visitor extends ClassVisitor
+	{
+		private final Recording apis;
+		private final Map<String, List<String>> jarSupertypes;
+
+		Visitor(Recording apis, Map<String, List<String>> jarSupertypes)
+		{
+			super(Opcodes.ASM7);
+			this.apis = apis;
+			this.jarSupertypes = jarSupertypes;
+		}
+
+		@Override
+		public void visit(int version, int access, String name, String signature, String superName, String[] interfaces)
+		{
+			// the javac recorder records the whole hierarchy of every extends and implements clause
+			List<String> supers = new ArrayList<>();
+			if (superName != null)
+			{
+				supers.add(superName);
+			}
+			if (interfaces != null)
+			{
+				Collections.addAll(supers, interfaces);
+			}
+			for (String s : supers)
+			{
+				recordInternalName(apis, s);
+				recordFullHierarchy(apis, "L" + s + ";");
+			}
+		}
+
+		@Override
+		public AnnotationVisitor visitAnnotation(String descriptor, boolean visible)
+		{
+			// only runtime annotations are recorded, the same as the javac recorder,
+			// but constants can be inlined into either
+			if (visible)
+			{
+				recordType(apis, Type.getType(descriptor));
+			}
+			return new AnnotationRecorder(apis, visible ? descriptor : null);
+		}
+
+		@Override
+		public FieldVisitor visitField(int access, String name, String descriptor, String signature, Object value)
+		{
+			recordType(apis, Type.getType(descriptor));
+			if (value != null)
+			{
+				recordLiteral(apis, value);
+			}
+			return new FieldVisitor(Opcodes.ASM7)
+			{
+				@Override
+				public AnnotationVisitor visitAnnotation(String descriptor, boolean visible)
+				{
+					return Visitor.this.visitAnnotation(descriptor, visible);
+				}
+			};
+		}
+
+		@Override
+		public MethodVisitor visitMethod(int access, String name, String descriptor, String signature, String[] exceptions)
+		{
+			recordType(apis, Type.getMethodType(descriptor));
+			if (exceptions != null)
+			{
+				for (String exception : exceptions)
+				{
+					recordInternalName(apis, exception);
+				}
+			}
+
+			return new MethodVisitor(Opcodes.ASM7)
+			{
+				@Override
+				public AnnotationVisitor visitAnnotation(String descriptor, boolean visible)
+				{
+					return Visitor.this.visitAnnotation(descriptor, visible);
+				}
+
+				@Override
+				public void visitInsn(int opcode)
+				{
+					if (opcode >= Opcodes.ICONST_M1 && opcode <= Opcodes.ICONST_5)
+					{
+						recordLiteral(apis, opcode - Opcodes.ICONST_0);
+					}
+					else if (opcode == Opcodes.LCONST_0 || opcode == Opcodes.LCONST_1)
+					{
+						recordLiteral(apis, (long) (opcode - Opcodes.LCONST_0));
+					}
+					else if (opcode >= Opcodes.FCONST_0 && opcode <= Opcodes.FCONST_2)
+					{
+						recordLiteral(apis, (float) (opcode - Opcodes.FCONST_0));
+					}
+					else if (opcode == Opcodes.DCONST_0 || opcode == Opcodes.DCONST_1)
+					{
+						recordLiteral(apis, (double) (opcode - Opcodes.DCONST_0));
+					}
+				}
+
+				@Override
+				public void visitIntInsn(int opcode, int operand)
+				{
+					if (opcode == Opcodes.BIPUSH || opcode == Opcodes.SIPUSH)
+					{
+						recordLiteral(apis, operand);
+					}
+				}
+
+				@Override
+				public void visitTableSwitchInsn(int min, int max, Label dflt, Label... labels)
+				{
+					for (int i = 0; i < labels.length; i++)
+					{
+						if (labels[i] != dflt)
+						{
+							recordLiteral(apis, min + i);
+						}
+					}
+				}
+
+				@Override
+				public void visitLookupSwitchInsn(Label dflt, int[] keys, Label[] labels)
+				{
+					for (int key : keys)
+					{
+						recordLiteral(apis, key);
+					}
+				}
+
+				@Override
+				public void visitTypeInsn(int opcode, String type)
+				{
+					recordInternalName(apis, type);
+				}
+
+				@Override
+				public void visitFieldInsn(int opcode, String owner, String name, String descriptor)
+				{
+					recordField(apis, jarSupertypes, owner, name, descriptor);
+				}
+
+				@Override
+				public void visitMethodInsn(int opcode, String owner, String name, String descriptor, boolean isInterface)
+				{
+					recordMethod(apis, jarSupertypes, owner, name, descriptor);
+				}
+
+				@Override
+				public void visitInvokeDynamicInsn(String name, String descriptor, Handle bootstrapMethodHandle, Object... bootstrapMethodArguments)
+				{
+					recordType(apis, Type.getMethodType(descriptor));
+					for (Object arg : bootstrapMethodArguments)
+					{
+						recordConstant(apis, jarSupertypes, arg);
+					}
+				}
+
+				@Override
+				public void visitLdcInsn(Object value)
+				{
+					recordConstant(apis, jarSupertypes, value);
+				}
+
+				@Override
+				public void visitMultiANewArrayInsn(String descriptor, int numDimensions)
+				{
+					recordType(apis, Type.getType(descriptor));
+				}
+
+				@Override
+				public void visitTryCatchBlock(Label start, Label end, Label handler, String type)
+				{
+					if (type != null)
+					{
+						recordInternalName(apis, type);
+					}
+				}
+			};
+		}
+	}
+
+	private class AnnotationRecorder extends AnnotationVisitor
+	{
+		private final Recording apis;
+
+		// the annotation whose elements are being visited, or null if they aren't recorded
+		@Nullable
+		private final String descriptor;
+
+		AnnotationRecorder(Recording apis, @Nullable String descriptor)
+		{
+			super(Opcodes.ASM7);
+			this.apis = apis;
+			this.descriptor = descriptor;
+		}
+
+		private void recordElement(@Nullable String name)
+		{
+			// array values have no name, their element was recorded by visitArray
+			if (descriptor != null && name != null)
+			{
+				String entry = elements.get(descriptor + "." + name);
+				if (entry != null)
+				{
+					apis.referenced.add(entry);
+				}
+			}
+		}
+
+		@Override
+		public void visit(String name, Object value)
+		{
+			recordElement(name);
+			if (value instanceof Type)
+			{
+				recordType(apis, (Type) value);
+			}
+			else if (value.getClass().isArray())
+			{
+				for (int i = 0; i < Array.getLength(value); i++)
+				{
+					recordValue(Array.get(value, i));
+				}
+			}
+			else
+			{
+				recordValue(value);
+			}
+		}
+
+		private void recordValue(Object value)
+		{
+			// annotations keep the declared type of their values, while code widens them to int
+			if (value instanceof Byte || value instanceof Short)
+			{
+				value = ((Number) value).intValue();
+			}
+			else if (value instanceof Character)
+			{
+				value = (int) (Character) value;
+			}
+			else if (value instanceof Boolean)
+			{
+				value = (Boolean) value ? 1 : 0;
+			}
+			recordLiteral(apis, value);
+		}
+
+		@Override
+		public void visitEnum(String name, String descriptor, String value)
+		{
+			recordElement(name);
+			if (this.descriptor != null)
+			{
+				recordType(apis, Type.getType(descriptor));
+				String entry = entries.get(descriptor + "." + value + ":" + descriptor);
+				if (entry != null)
+				{
+					apis.referenced.add(entry);
+				}
+			}
+		}
+
+		@Override
+		public AnnotationVisitor visitAnnotation(String name, String descriptor)
+		{
+			recordElement(name);
+			if (this.descriptor != null)
+			{
+				recordType(apis, Type.getType(descriptor));
+				return new AnnotationRecorder(apis, descriptor);
+			}
+			return this;
+		}
+
+		@Override
+		public AnnotationVisitor visitArray(String name)
+		{
+			recordElement(name);
+			return this;
+		}
+	}
+}
@@ -24,17 +24,29 @@
  */
 package net.runelite.pluginhub.apirecorder;
 
+import com.google.common.base.Throwables;
+import com.google.common.hash.Hashing;
+import com.google.common.io.Files;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.lang.reflect.Modifier;
-import java.util.Iterator;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.jar.JarEntry;
 import java.util.jar.JarInputStream;
+import javax.annotation.Nullable;
 import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
 import org.objectweb.asm.ClassReader;
 import org.objectweb.asm.ClassVisitor;
 import org.objectweb.asm.FieldVisitor;
@@ -44,8 +56,12 @@ import org.objectweb.asm.Opcodes;
 /**
  * Records the API provided by any classes passed through it
  */
+@Slf4j
 public class ClassRecorder extends ClassVisitor
 {
+	// bump this if what gets recorded changes, so cached jar and client apis are rescanned
+	public static final int CACHE_VERSION = 1;
+
 	@Getter
 	private final API api = new API();
 
@@ -107,19 +123,127 @@ public class ClassRecorder extends ClassVisitor
 		}
 	}
 
-	public static void main(String... classes) throws IOException
+	/**
+	 * Records the api of a set of jars, one jar per thread
+	 *
+	 * @param cacheDir where to keep each jar's api, keyed by the jar's hash, so unchanged
+	 *                 jars aren't rescanned, or null to always scan
+	 */
+	public static API recordJars(List<File> jars, @Nullable File cacheDir) throws IOException
+	{
+		ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(jars.size(), Runtime.getRuntime().availableProcessors())));
+		try
+		{
+			List<Future<Set<String>>> partials = new ArrayList<>();
+			for (File jar : jars)
+			{
+				partials.add(executor.submit(() -> recordJar(jar, cacheDir)));
+			}
+
+			Set<String> apis = new HashSet<>();
+			for (Future<Set<String>> partial : partials)
+			{
+				apis.addAll(partial.get());
+			}
+			return new API(apis);
+		}
+		catch (InterruptedException e)
+		{
+			throw new RuntimeException(e);
+		}
+		catch (ExecutionException e)
+		{
+			Throwables.propagateIfPossible(e.getCause(), IOException.class);
+			throw new RuntimeException(e.getCause());
+		}
+		finally
+		{
+			executor.shutdown();
+		}
+	}
+
+	private static Set<String> recordJar(File jar, @Nullable File cacheDir) throws IOException
+	{
+		File cached = null;
+		if (cacheDir != null)
+		{
+			String hash = Files.asByteSource(jar).hash(Hashing.sha256()).toString();
+			cached = new File(cacheDir, hash + "-" + CACHE_VERSION + ".api");
+			if (cached.exists())
+			{
+				try
+				{
+					Set<String> apis = API.map(cached).getApis();
+					// so evictJarCache only drops apis for jars that stopped being used
+					cached.setLastModified(System.currentTimeMillis());
+					return apis;
+				}
+				catch (IOException e)
+				{
+					log.warn("unable to read cached api for {}, rescanning it", jar, e);
+				}
+			}
+		}
+
+		ClassRecorder cr = new ClassRecorder();
+		cr.recordClass(jar);
+
+		if (cached != null)
+		{
+			cacheDir.mkdirs();
+			// thread ids are only unique within one packager, so let the filesystem pick the name
+			File tmp = File.createTempFile(cached.getName() + ".tmp-", null, cacheDir);
+			try
+			{
+				try (OutputStream os = new FileOutputStream(tmp))
+				{
+					cr.getApi().encodeCompact(os);
+				}
+				java.nio.file.Files.move(tmp.toPath(), cached.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			}
+			finally
+			{
+				tmp.delete();
+			}
+		}
+		return cr.getApi().getApis();
+	}
+
+	/**
+	 * Removes apis from a {@link #recordJars} cache that haven't been used within the max age,
+	 * and any that were recorded by another {@link #CACHE_VERSION}
+	 */
+	public static void evictJarCache(File cacheDir, long maxAgeMS)
 	{
-		var cr = new ClassRecorder();
-		Iterator<String> args = List.of(classes).iterator();
-		File out = new File(args.next());
-		for (String fi; args.hasNext(); )
+		File[] entries = cacheDir.listFiles();
+		if (entries == null)
+		{
+			return;
+		}
+
+		String suffix = "-" + CACHE_VERSION + ".api";
+		long now = System.currentTimeMillis();
+		int evicted = 0;
+		for (File entry : entries)
 		{
-			fi = args.next();
-			cr.recordClass(new File(fi));
+			// this also keeps temporary files that are still being written
+			if (entry.getName().contains(suffix) && now - entry.lastModified() <= maxAgeMS)
+			{
+				continue;
+			}
+
+			if (entry.delete())
+			{
+				evicted++;
+			}
+			else
+			{
+				log.warn("unable to evict {}", entry);
+			}
 		}
-		try (OutputStream os = new FileOutputStream(out))
+		if (evicted > 0)
 		{
-			cr.getApi().encode(os);
+			log.info("evicted {} of {} cached jar apis", evicted, entries.length);
 		}
 	}
 }
@@ -0,0 +1,399 @@
+/*
+ * Copyright (c) 2026 Abex
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.pluginhub.apirecorder;
+
+import com.google.common.primitives.UnsignedBytes;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+/**
+ * A read only set of api descriptors, stored so it can be memory mapped and probed without
+ * decoding every descriptor.
+ * <p>
+ * Descriptors are split into the class they start with, which goes in a shared class table,
+ * and the rest, which is sorted and front coded in blocks of {@link #BLOCK_SIZE}. Each class
+ * owns a range of blocks, and a lookup binary searches the class table, then the first entry
+ * of each of the class's blocks, then decodes at most one block.
+ * <pre>
+ * int magic, version, classCount, entryCount, blockCount
+ * int[classCount + 1] classNameOffsets
+ * int[classCount + 1] classFirstBlock
+ * int[classCount + 1] classFirstEntry
+ * int[blockCount + 1] blockOffsets
+ * class names
+ * blocks
+ * </pre>
+ * All strings are utf-8 and sorted by unsigned byte order.
+ */
+class CompactAPI extends AbstractSet<String>
+{
+	static final int MAGIC = 0x524C4150; // RLAP
+	private static final int VERSION = 1;
+	private static final int HEADER_SIZE = 20;
+	private static final int BLOCK_SIZE = 16;
+
+	private static final Comparator<byte[]> ORDER = UnsignedBytes.lexicographicalComparator();
+
+	private final ByteBuffer buf;
+	private final int entryCount;
+	private final int blockCount;
+
+	private final String[] classNames;
+	private final byte[][] classNameBytes;
+	private final int classFirstBlock;
+	private final int classFirstEntry;
+	private final int blockOffsets;
+	private final int blocks;
+
+	CompactAPI(ByteBuffer buffer) throws IOException
+	{
+		this.buf = buffer.duplicate();
+		if (buf.remaining() < HEADER_SIZE || buf.getInt(0) != MAGIC)
+		{
+			throw new IOException("not a compact api file");
+		}
+		if (buf.getInt(4) != VERSION)
+		{
+			throw new IOException("unsupported compact api version " + buf.getInt(4));
+		}
+
+		int classCount = buf.getInt(8);
+		entryCount = buf.getInt(12);
+		blockCount = buf.getInt(16);
+
+		int classNameOffsets = HEADER_SIZE;
+		classFirstBlock = classNameOffsets + (classCount + 1) * 4;
+		classFirstEntry = classFirstBlock + (classCount + 1) * 4;
+		blockOffsets = classFirstEntry + (classCount + 1) * 4;
+		int names = blockOffsets + (blockCount + 1) * 4;
+		blocks = names + buf.getInt(classNameOffsets + classCount * 4);
+		if (classCount < 0 || blockCount < 0 || blocks < 0 || blocks + buf.getInt(blockOffsets + blockCount * 4) > buf.limit())
+		{
+			throw new IOException("truncated compact api file");
+		}
+
+		// the class table is small, and every lookup searches it, so keep it decoded
+		classNames = new String[classCount];
+		classNameBytes = new byte[classCount][];
+		for (int i = 0; i < classCount; i++)
+		{
+			int start = buf.getInt(classNameOffsets + i * 4);
+			byte[] name = new byte[buf.getInt(classNameOffsets + (i + 1) * 4) - start];
+			get(names + start, name);
+			classNameBytes[i] = name;
+			classNames[i] = new String(name, StandardCharsets.UTF_8);
+		}
+	}
+
+	static boolean isCompact(byte[] header)
+	{
+		return header.length >= 4 && ByteBuffer.wrap(header).getInt() == MAGIC;
+	}
+
+	static void encode(OutputStream os, Stream<String> apis) throws IOException
+	{
+		Map<byte[], List<byte[]>> byClass = new TreeMap<>(ORDER);
+		apis.distinct().forEach(api ->
+		{
+			int split = api.indexOf(';') + 1;
+			if (split == 0)
+			{
+				split = api.length();
+			}
+			byClass.computeIfAbsent(api.substring(0, split).getBytes(StandardCharsets.UTF_8), k -> new ArrayList<>())
+				.add(api.substring(split).getBytes(StandardCharsets.UTF_8));
+		});
+
+		int classCount = byClass.size();
+		int[] classNameOffsets = new int[classCount + 1];
+		int[] classFirstBlock = new int[classCount + 1];
+		int[] classFirstEntry = new int[classCount + 1];
+		List<Integer> blockOffsets = new ArrayList<>();
+		ByteArrayOutputStream names = new ByteArrayOutputStream();
+		ByteArrayOutputStream blocks = new ByteArrayOutputStream();
+
+		int cls = 0;
+		int entries = 0;
+		for (Map.Entry<byte[], List<byte[]>> e : byClass.entrySet())
+		{
+			classNameOffsets[cls] = names.size();
+			classFirstBlock[cls] = blockOffsets.size();
+			classFirstEntry[cls] = entries;
+			names.write(e.getKey(), 0, e.getKey().length);
+
+			List<byte[]> suffixes = e.getValue();
+			suffixes.sort(ORDER);
+			byte[] prev = null;
+			for (int i = 0; i < suffixes.size(); i++)
+			{
+				byte[] suffix = suffixes.get(i);
+				if (i % BLOCK_SIZE == 0)
+				{
+					// the first entry of each block is whole, so lookups can start at any block
+					blockOffsets.add(blocks.size());
+					writeVarInt(blocks, suffix.length);
+					blocks.write(suffix, 0, suffix.length);
+				}
+				else
+				{
+					int shared = sharedPrefix(prev, suffix);
+					writeVarInt(blocks, shared);
+					writeVarInt(blocks, suffix.length - shared);
+					blocks.write(suffix, shared, suffix.length - shared);
+				}
+				prev = suffix;
+			}
+			entries += suffixes.size();
+			cls++;
+		}
+		classNameOffsets[classCount] = names.size();
+		classFirstBlock[classCount] = blockOffsets.size();
+		classFirstEntry[classCount] = entries;
+		blockOffsets.add(blocks.size());
+
+		DataOutputStream out = new DataOutputStream(os);
+		out.writeInt(MAGIC);
+		out.writeInt(VERSION);
+		out.writeInt(classCount);
+		out.writeInt(entries);
+		out.writeInt(blockOffsets.size() - 1);
+		for (int[] table : new int[][]{classNameOffsets, classFirstBlock, classFirstEntry})
+		{
+			for (int v : table)
+			{
+				out.writeInt(v);
+			}
+		}
+		for (int v : blockOffsets)
+		{
+			out.writeInt(v);
+		}
+		names.writeTo(out);
+		blocks.writeTo(out);
+		out.flush();
+	}
+
+	private static int sharedPrefix(byte[] a, byte[] b)
+	{
+		int len = Math.min(a.length, b.length);
+		int i = 0;
+		for (; i < len && a[i] == b[i]; i++)
+		{
+		}
+		return i;
+	}
+
+	private static void writeVarInt(ByteArrayOutputStream out, int v)
+	{
+		for (; (v & ~0x7F) != 0; v >>>= 7)
+		{
+			out.write((v & 0x7F) | 0x80);
+		}
+		out.write(v);
+	}
+
+	@Override
+	public int size()
+	{
+		return entryCount;
+	}
+
+	@Override
+	public boolean contains(Object o)
+	{
+		if (!(o instanceof String))
+		{
+			return false;
+		}
+
+		String api = (String) o;
+		int split = api.indexOf(';') + 1;
+		if (split == 0)
+		{
+			split = api.length();
+		}
+
+		int cls = Arrays.binarySearch(classNameBytes, api.substring(0, split).getBytes(StandardCharsets.UTF_8), ORDER);
+		if (cls < 0)
+		{
+			return false;
+		}
+		byte[] suffix = api.substring(split).getBytes(StandardCharsets.UTF_8);
+
+		// find the last block whose first entry is <= suffix
+		int lo = buf.getInt(classFirstBlock + cls * 4);
+		int hi = buf.getInt(classFirstBlock + (cls + 1) * 4) - 1;
+		int block = -1;
+		while (lo <= hi)
+		{
+			int mid = (lo + hi) >>> 1;
+			int cmp = ORDER.compare(new BlockReader(mid).next(), suffix);
+			if (cmp == 0)
+			{
+				return true;
+			}
+			if (cmp < 0)
+			{
+				block = mid;
+				lo = mid + 1;
+			}
+			else
+			{
+				hi = mid - 1;
+			}
+		}
+		if (block == -1)
+		{
+			return false;
+		}
+
+		for (BlockReader r = new BlockReader(block); r.hasNext(); )
+		{
+			int cmp = ORDER.compare(r.next(), suffix);
+			if (cmp == 0)
+			{
+				return true;
+			}
+			if (cmp > 0)
+			{
+				return false;
+			}
+		}
+		return false;
+	}
+
+	@Override
+	public Iterator<String> iterator()
+	{
+		return new Iterator<String>()
+		{
+			int cls = -1;
+			int block = 0;
+			BlockReader reader;
+
+			@Override
+			public boolean hasNext()
+			{
+				for (; ; )
+				{
+					if (reader != null && reader.hasNext())
+					{
+						return true;
+					}
+					if (block >= blockCount)
+					{
+						return false;
+					}
+					reader = new BlockReader(block++);
+				}
+			}
+
+			@Override
+			public String next()
+			{
+				if (!hasNext())
+				{
+					throw new NoSuchElementException();
+				}
+				// blocks are in class order, so advance the class whenever we pass its last block
+				while (buf.getInt(classFirstBlock + (cls + 1) * 4) <= block - 1)
+				{
+					cls++;
+				}
+				return classNames[cls] + new String(reader.next(), StandardCharsets.UTF_8);
+			}
+		};
+	}
+
+	private void get(int offset, byte[] dst)
+	{
+		ByteBuffer b = buf.duplicate();
+		b.position(offset);
+		b.get(dst);
+	}
+
+	private class BlockReader
+	{
+		private final int end;
+		private int pos;
+		private byte[] prev;
+
+		BlockReader(int block)
+		{
+			pos = blocks + buf.getInt(blockOffsets + block * 4);
+			end = blocks + buf.getInt(blockOffsets + (block + 1) * 4);
+		}
+
+		boolean hasNext()
+		{
+			return pos < end;
+		}
+
+		byte[] next()
+		{
+			int shared = prev == null ? 0 : readVarInt();
+			int length = readVarInt();
+			byte[] value = new byte[shared + length];
+			if (shared > 0)
+			{
+				System.arraycopy(prev, 0, value, 0, shared);
+			}
+			ByteBuffer b = buf.duplicate();
+			b.position(pos);
+			b.get(value, shared, length);
+			pos += length;
+			prev = value;
+			return value;
+		}
+
+		private int readVarInt()
+		{
+			int v = 0;
+			for (int shift = 0; ; shift += 7)
+			{
+				byte b = buf.get(pos++);
+				v |= (b & 0x7F) << shift;
+				if ((b & 0x80) == 0)
+				{
+					return v;
+				}
+			}
+		}
+	}
+}
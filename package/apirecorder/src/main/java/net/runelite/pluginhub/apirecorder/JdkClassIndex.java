@@ -0,0 +1,136 @@
+/*
+ * Copyright (c) 2026 Abex
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.pluginhub.apirecorder;
+
+import com.google.common.hash.Hashing;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.module.ModuleReader;
+import java.lang.module.ResolvedModule;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * The binary names of every class the platform class loader can see, so checking if a class
+ * comes from the jdk doesn't have to probe the module image for each one. It is built from
+ * the boot layer's modules once per jdk, and kept on disk so later compilations can skip that
+ */
+@Slf4j
+class JdkClassIndex
+{
+	private static final String SUFFIX_CLASS = ".class";
+
+	private static volatile Set<String> classes;
+
+	static boolean contains(String binaryName)
+	{
+		return get().contains(binaryName);
+	}
+
+	private static Set<String> get()
+	{
+		Set<String> c = classes;
+		if (c == null)
+		{
+			synchronized (JdkClassIndex.class)
+			{
+				c = classes;
+				if (c == null)
+				{
+					classes = c = load();
+				}
+			}
+		}
+		return c;
+	}
+
+	private static Set<String> load()
+	{
+		File cacheFile = new File(System.getProperty("java.io.tmpdir"), "runelite-pluginhub-jdk-classes-" + Hashing.sha256()
+			.hashString(Runtime.version() + "\0" + System.getProperty("java.home"), StandardCharsets.UTF_8)
+			.toString()
+			.substring(0, 16));
+		if (cacheFile.exists())
+		{
+			try
+			{
+				return new HashSet<>(Files.readAllLines(cacheFile.toPath(), StandardCharsets.UTF_8));
+			}
+			catch (IOException e)
+			{
+				log.warn("unable to read jdk class index {}", cacheFile, e);
+			}
+		}
+
+		Set<String> classes = build();
+
+		try
+		{
+			File tmp = File.createTempFile(cacheFile.getName(), ".tmp", cacheFile.getParentFile());
+			Files.write(tmp.toPath(), classes, StandardCharsets.UTF_8);
+			Files.move(tmp.toPath(), cacheFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		}
+		catch (IOException e)
+		{
+			log.warn("unable to write jdk class index {}", cacheFile, e);
+		}
+		return classes;
+	}
+
+	private static Set<String> build()
+	{
+		ClassLoader platform = ClassLoader.getPlatformClassLoader();
+		List<ResolvedModule> modules = ModuleLayer.boot().modules().stream()
+			.filter(m -> m.getClassLoader() == null || m.getClassLoader() == platform)
+			.map(m -> ModuleLayer.boot().configuration().findModule(m.getName()).get())
+			.collect(Collectors.toList());
+
+		Set<String> classes = new HashSet<>();
+		for (ResolvedModule module : modules)
+		{
+			try (ModuleReader reader = module.reference().open();
+				Stream<String> resources = reader.list())
+			{
+				resources
+					.filter(name -> name.endsWith(SUFFIX_CLASS) && !name.endsWith("module-info" + SUFFIX_CLASS))
+					.map(name -> name.substring(0, name.length() - SUFFIX_CLASS.length()).replace('/', '.'))
+					.forEach(classes::add);
+			}
+			catch (IOException e)
+			{
+				throw new UncheckedIOException(e);
+			}
+		}
+		return classes;
+	}
+}
@@ -0,0 +1,208 @@
+/*
+ * Copyright (c) 2026 Abex
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.pluginhub.apirecorder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Finds the descriptors matching each of a list of regexes without running every regex over
+ * every descriptor. Regexes anchored to a literal prefix only look at the sorted range of
+ * descriptors with that prefix, and the rest are combined into one alternation so each
+ * descriptor is scanned once, and only the hits are attributed to their regexes.
+ */
+class PatternExpander
+{
+	private static final String META = "\\.[]{}()*+?^$|";
+
+	private PatternExpander()
+	{
+	}
+
+	/**
+	 * @return the descriptors each pattern finds a match in, in the same order as patterns
+	 */
+	static List<List<String>> expand(Collection<String> apis, List<Pattern> patterns)
+	{
+		List<List<String>> matches = new ArrayList<>();
+		List<Integer> unanchored = new ArrayList<>();
+		String[] sorted = null;
+		for (int i = 0; i < patterns.size(); i++)
+		{
+			Pattern p = patterns.get(i);
+			String prefix = literalPrefix(p.pattern());
+			if (prefix == null || prefix.isEmpty())
+			{
+				matches.add(new ArrayList<>());
+				unanchored.add(i);
+				continue;
+			}
+
+			if (sorted == null)
+			{
+				sorted = apis.stream().sorted().toArray(String[]::new);
+			}
+
+			List<String> out = new ArrayList<>();
+			for (int j = lowerBound(sorted, prefix); j < sorted.length && sorted[j].startsWith(prefix); j++)
+			{
+				if (p.matcher(sorted[j]).find())
+				{
+					out.add(sorted[j]);
+				}
+			}
+			matches.add(out);
+		}
+
+		if (!unanchored.isEmpty())
+		{
+			// backreferences would point at the wrong group once combined
+			Pattern combined = unanchored.size() == 1 || unanchored.stream().anyMatch(i -> hasBackreference(patterns.get(i).pattern()))
+				? null
+				: Pattern.compile(unanchored.stream()
+				.map(i -> "(?:" + patterns.get(i).pattern() + ")")
+				.collect(Collectors.joining("|")));
+
+			for (String api : apis)
+			{
+				if (combined != null && !combined.matcher(api).find())
+				{
+					continue;
+				}
+
+				for (int i : unanchored)
+				{
+					if (patterns.get(i).matcher(api).find())
+					{
+						matches.get(i).add(api);
+					}
+				}
+			}
+		}
+
+		return matches;
+	}
+
+	/**
+	 * @return the literal text every match must start with, or null if the regex isn't anchored to the start
+	 */
+	static String literalPrefix(String regex)
+	{
+		// a top level alternation can match without the anchor
+		if (!regex.startsWith("^") || hasTopLevelAlternation(regex))
+		{
+			return null;
+		}
+
+		StringBuilder prefix = new StringBuilder();
+		for (int i = 1; i < regex.length(); i++)
+		{
+			char c = regex.charAt(i);
+			if (c == '\\')
+			{
+				if (i + 1 >= regex.length() || Character.isLetterOrDigit(regex.charAt(i + 1)))
+				{
+					// a character class or similar, which isn't a single literal
+					break;
+				}
+				c = regex.charAt(++i);
+			}
+			else if (META.indexOf(c) != -1)
+			{
+				break;
+			}
+
+			// a quantified character might not be there at all
+			if (i + 1 < regex.length() && "*?{".indexOf(regex.charAt(i + 1)) != -1)
+			{
+				break;
+			}
+			prefix.append(c);
+		}
+		return prefix.toString();
+	}
+
+	private static boolean hasTopLevelAlternation(String regex)
+	{
+		int depth = 0;
+		boolean inClass = false;
+		for (int i = 0; i < regex.length(); i++)
+		{
+			char c = regex.charAt(i);
+			if (c == '\\')
+			{
+				i++;
+			}
+			else if (inClass)
+			{
+				inClass = c != ']';
+			}
+			else if (c == '[')
+			{
+				inClass = true;
+			}
+			else if (c == '(')
+			{
+				depth++;
+			}
+			else if (c == ')')
+			{
+				depth--;
+			}
+			else if (c == '|' && depth == 0)
+			{
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static boolean hasBackreference(String regex)
+	{
+		for (int i = 0; i + 1 < regex.length(); i++)
+		{
+			if (regex.charAt(i) == '\\')
+			{
+				char next = regex.charAt(i + 1);
+				if (Character.isDigit(next) || next == 'k')
+				{
+					return true;
+				}
+				i++;
+			}
+		}
+		return false;
+	}
+
+	private static int lowerBound(String[] sorted, String key)
+	{
+		int i = Arrays.binarySearch(sorted, key);
+		return i < 0 ? -i - 1 : i;
+	}
+}
@@ -25,13 +25,28 @@
 package net.runelite.pluginhub.apirecorder;
 
 import com.google.common.base.Strings;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
 import com.sun.source.util.JavacTask;
 import com.sun.source.util.Plugin;
 import com.sun.source.util.TaskEvent;
 import com.sun.source.util.TaskListener;
+import com.sun.tools.javac.api.BasicJavacTask;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.stream.Stream;
+import javax.annotation.Nullable;
+import javax.tools.JavaFileManager;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.StandardLocation;
 import lombok.extern.slf4j.Slf4j;
 
 @Slf4j
@@ -52,7 +67,23 @@ public class RecorderPlugin implements Plugin
 			return;
 		}
 
+		// fragments only pay off when the same sources are compiled again, which a packaged
+		// build from a fresh clone never does, so they are only kept when asked for
+		String fragmentsDir = System.getenv("runelite.pluginhub.package.apiFragments");
+		install(task, new File(buildDir, "api"), Strings.isNullOrEmpty(fragmentsDir) ? null : new File(fragmentsDir));
+	}
+
+	/**
+	 * Records the api used by the task's sources into apiFile once it has compiled
+	 *
+	 * @param fragmentsDir where each compilation unit's api is kept, so later compilations
+	 *                     of the same sources only scan units that have changed, or null
+	 *                     to record every unit from scratch without keeping anything
+	 */
+	static void install(JavacTask task, File apiFile, @Nullable File fragmentsDir)
+	{
 		RecordingTreeScanner scanner = new RecordingTreeScanner(task);
+		ApiFragments fragments = new ApiFragments(fragmentsDir, fragmentsDir == null ? null : classpathKey(task));
 
 		task.addTaskListener(new TaskListener()
 		{
@@ -62,35 +93,117 @@ public class RecorderPlugin implements Plugin
 				switch (e.getKind())
 				{
 					case ANALYZE:
-						if (log.isDebugEnabled())
-						{
-							log.info("{}", PrintingScanner.print(e.getCompilationUnit()));
-						}
+						JavaFileObject source = e.getCompilationUnit().getSourceFile();
 						try
 						{
+							API unitApi = fragments.begin(source);
+							if (unitApi == null)
+							{
+								break;
+							}
+
+							if (log.isDebugEnabled())
+							{
+								log.info("{}", PrintingScanner.print(e.getCompilationUnit()));
+							}
+							scanner.recordInto(unitApi);
 							scanner.scan(e.getCompilationUnit(), null);
+							if (scanner.isPartial())
+							{
+								fragments.markPartial(source);
+							}
 						}
 						catch (Exception ex)
 						{
 							log.warn("failed to scan", ex);
-							scanner.setPartial(true);
+							fragments.markPartial(source);
 						}
 						break;
 					case COMPILATION:
-						if (!scanner.isPartial())
+						try
 						{
-							try (FileOutputStream fos = new FileOutputStream(new File(buildDir, "api")))
+							API api = fragments.finish();
+							if (api != null)
 							{
-								scanner.getApi().encode(fos);
-							}
-							catch (IOException ex)
-							{
-								throw new RuntimeException(ex);
+								try (FileOutputStream fos = new FileOutputStream(apiFile))
+								{
+									api.encode(fos);
+								}
 							}
 						}
+						catch (IOException ex)
+						{
+							throw new RuntimeException(ex);
+						}
 						break;
 				}
 			}
 		});
 	}
+
+	/**
+	 * Identifies the classpath the task compiles against, since the api recorded
+	 * from a unit depends on it as well as on the unit's source
+	 */
+	@Nullable
+	private static String classpathKey(JavacTask task)
+	{
+		JavaFileManager fm = ((BasicJavacTask) task).getContext().get(JavaFileManager.class);
+		if (!(fm instanceof StandardJavaFileManager))
+		{
+			return null;
+		}
+
+		// incremental compiles put the previous output on the classpath, which is rewritten every time
+		StandardJavaFileManager sfm = (StandardJavaFileManager) fm;
+		Set<File> output = new HashSet<>();
+		Iterable<? extends File> outputLocation = sfm.getLocation(StandardLocation.CLASS_OUTPUT);
+		if (outputLocation != null)
+		{
+			outputLocation.forEach(f -> output.add(f.getAbsoluteFile()));
+		}
+
+		Hasher hasher = Hashing.sha256().newHasher()
+			.putUnencodedChars(Runtime.version().toString());
+		Iterable<? extends File> classpath = sfm.getLocation(StandardLocation.CLASS_PATH);
+		if (classpath != null)
+		{
+			for (File entry : classpath)
+			{
+				if (output.contains(entry.getAbsoluteFile()))
+				{
+					continue;
+				}
+
+				if (!entry.isDirectory())
+				{
+					hasher.putUnencodedChars(entry.getAbsolutePath())
+						.putLong(entry.length())
+						.putLong(entry.lastModified());
+					continue;
+				}
+
+				try (Stream<Path> files = Files.walk(entry.toPath()))
+				{
+					for (Path file : (Iterable<Path>) files::iterator)
+					{
+						BasicFileAttributes attrs = Files.readAttributes(file, BasicFileAttributes.class);
+						if (attrs.isRegularFile())
+						{
+							hasher.putUnencodedChars(file.toString())
+								.putLong(attrs.size())
+								.putLong(attrs.lastModifiedTime().toMillis());
+						}
+					}
+				}
+				catch (IOException | UncheckedIOException e)
+				{
+					// without a key nothing is reused, which is always correct
+					log.warn("unable to read classpath entry {}", entry, e);
+					return null;
+				}
+			}
+		}
+		return hasher.hash().toString();
+	}
 }
@@ -42,8 +42,13 @@ import com.sun.tools.javac.api.BasicJavacTask;
 import com.sun.tools.javac.code.Attribute;
 import com.sun.tools.javac.code.Flags;
 import com.sun.tools.javac.code.Symbol;
-import java.util.HashMap;
+import com.sun.tools.javac.code.Type;
+import com.sun.tools.javac.tree.JCTree;
+import com.sun.tools.javac.tree.TreeInfo;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.Map;
+import java.util.Set;
 import javax.lang.model.element.Element;
 import javax.lang.model.element.ExecutableElement;
 import javax.lang.model.element.PackageElement;
@@ -72,9 +77,16 @@ import org.objectweb.asm.Opcodes;
 class RecordingTreeScanner extends TreePathScanner<Void, Void>
 {
 	@Getter
-	private final API api = new API();
+	private API api = new API();
 
-	private final Map<String, Boolean> jvmClassCache = new HashMap<>();
+	// symbols are unique within a compilation, so this never has to build the class's name again
+	private final Map<Symbol.ClassSymbol, Boolean> jvmClassCache = new IdentityHashMap<>();
+
+	// a symbol records the same api every time it is used, so each one only needs describing once
+	private final Set<Element> recordedElements = Collections.newSetFromMap(new IdentityHashMap<>());
+	private final Map<Symbol, Set<Symbol>> recordedReceivers = new IdentityHashMap<>();
+	private final Map<Symbol, String> classDescriptors = new IdentityHashMap<>();
+	private final StringBuilder methodDescriptor = new StringBuilder();
 
 	private final Trees trees;
 	private final Elements elements;
@@ -94,6 +106,18 @@ class RecordingTreeScanner extends TreePathScanner<Void, Void>
 		this.internalTypes = com.sun.tools.javac.code.Types.instance(internalTask.getContext());
 	}
 
+	/**
+	 * Records into a different api from here on, such as one per compilation unit.
+	 * Anything already recorded into the previous api will be recorded again
+	 */
+	void recordInto(API api)
+	{
+		this.api = api;
+		this.partial = false;
+		recordedElements.clear();
+		recordedReceivers.clear();
+	}
+
 	@Override
 	public Void visitImport(ImportTree node, Void unused)
 	{
@@ -117,8 +141,7 @@ class RecordingTreeScanner extends TreePathScanner<Void, Void>
 	@Override
 	public Void visitMemberSelect(MemberSelectTree node, Void unused)
 	{
-		TypeMirror receiver = trees.getTypeMirror(new TreePath(getCurrentPath(), node.getExpression()));
-		recordElement(trees.getElement(getCurrentPath()), receiver);
+		recordElement(trees.getElement(getCurrentPath()), typeOf(node.getExpression()));
 		return super.visitMemberSelect(node, unused);
 	}
 
@@ -132,8 +155,7 @@ class RecordingTreeScanner extends TreePathScanner<Void, Void>
 	@Override
 	public Void visitMemberReference(MemberReferenceTree node, Void unused)
 	{
-		TypeMirror receiver = trees.getTypeMirror(new TreePath(getCurrentPath(), node.getQualifierExpression()));
-		recordElement(trees.getElement(getCurrentPath()), receiver);
+		recordElement(trees.getElement(getCurrentPath()), typeOf(node.getQualifierExpression()));
 		return super.visitMemberReference(node, unused);
 	}
 
@@ -144,11 +166,11 @@ class RecordingTreeScanner extends TreePathScanner<Void, Void>
 		// so record the whole hierarchy for all extends/implements clauses
 		if (node.getExtendsClause() != null)
 		{
-			recordFullHierarchy(trees.getElement(new TreePath(getCurrentPath(), node.getExtendsClause())).asType());
+			recordFullHierarchy(elementOf(node.getExtendsClause()).asType());
 		}
 		for (Tree iface : node.getImplementsClause())
 		{
-			recordFullHierarchy(trees.getElement(new TreePath(getCurrentPath(), iface)).asType());
+			recordFullHierarchy(elementOf(iface).asType());
 		}
 		return super.visitClass(node, unused);
 	}
@@ -163,7 +185,7 @@ class RecordingTreeScanner extends TreePathScanner<Void, Void>
 	@Override
 	public Void visitAnnotation(AnnotationTree node, Void unused)
 	{
-		Element typ = trees.getElement(new TreePath(getCurrentPath(), node.getAnnotationType()));
+		Element typ = elementOf(node.getAnnotationType());
 		if (typ instanceof Symbol.TypeSymbol)
 		{
 			Symbol.TypeSymbol cs = (Symbol.TypeSymbol) typ;
@@ -182,24 +204,45 @@ class RecordingTreeScanner extends TreePathScanner<Void, Void>
 		return null;
 	}
 
+	/**
+	 * The same as {@link Trees#getElement} for a child of the current path, without building a path to it.
+	 * The tree has been attributed by the time it is scanned, so the symbol is always already there
+	 */
+	private static Element elementOf(Tree tree)
+	{
+		return TreeInfo.symbolFor((JCTree) tree);
+	}
+
+	/**
+	 * The same as {@link Trees#getTypeMirror} for a child of the current path, without building a path to it
+	 */
+	private static TypeMirror typeOf(Tree tree)
+	{
+		Type type = ((JCTree) tree).type;
+		return type == null ? null : type.stripMetadataIfNeeded();
+	}
+
 	@SneakyThrows
 	private boolean shouldRecord(TypeMirror tm)
 	{
 		if (tm instanceof DeclaredType)
 		{
-			Element e = ((DeclaredType) tm).asElement();
+			Symbol.ClassSymbol e = (Symbol.ClassSymbol) ((DeclaredType) tm).asElement();
 
 			// there isn't a particularly nice way to find where a symbol is resolved from in the public api
-			JavaFileObject classfile = ((Symbol.ClassSymbol) e).classfile;
+			JavaFileObject classfile = e.classfile;
 			if (classfile == null || classfile.getKind() == JavaFileObject.Kind.SOURCE)
 			{
 				return false;
 			}
 
-			String fqn = elements.getBinaryName((TypeElement) e).toString();
-			return jvmClassCache.computeIfAbsent(fqn, name ->
-				ClassLoader.getPlatformClassLoader()
-					.getResource(fqn.replace('.', '/') + ".class") == null);
+			Boolean record = jvmClassCache.get(e);
+			if (record == null)
+			{
+				record = !JdkClassIndex.contains(elements.getBinaryName(e).toString());
+				jvmClassCache.put(e, record);
+			}
+			return record;
 		}
 		else if (tm instanceof TypeVariable)
 		{
@@ -254,7 +297,7 @@ class RecordingTreeScanner extends TreePathScanner<Void, Void>
 			unexpected(element);
 		}
 
-		if (receiverType != null && shouldRecord(receiverType))
+		if (receiverType != null && shouldRecord(receiverType) && firstUseFrom(receiverType, element))
 		{
 			if (element instanceof ExecutableElement)
 			{
@@ -306,15 +349,17 @@ class RecordingTreeScanner extends TreePathScanner<Void, Void>
 			}
 		}
 
-		if (!shouldRecord(element))
+		if (recordedElements.contains(element) || !shouldRecord(element))
 		{
 			return;
 		}
+		recordedElements.add(element);
 
 		if (element instanceof ExecutableElement)
 		{
 			ExecutableElement et = (ExecutableElement) element;
-			StringBuilder desc = new StringBuilder();
+			StringBuilder desc = methodDescriptor;
+			desc.setLength(0);
 			boolean ok = true;
 			String n;
 			desc.append('(');
@@ -377,6 +422,22 @@ class RecordingTreeScanner extends TreePathScanner<Void, Void>
 		}
 	}
 
+	/**
+	 * @return if the element hasn't been used through this receiver's type yet
+	 */
+	private boolean firstUseFrom(TypeMirror receiverType, Element element)
+	{
+		if (!(receiverType instanceof Type) || !(element.getEnclosingElement() instanceof Symbol))
+		{
+			return true;
+		}
+
+		// the hierarchy recorded only depends on the erased types, so the type's symbol is enough
+		Symbol receiver = ((Type) receiverType).tsym;
+		return recordedReceivers.computeIfAbsent(receiver, k -> Collections.newSetFromMap(new IdentityHashMap<>()))
+			.add((Symbol) element.getEnclosingElement());
+	}
+
 	private boolean recordClassHierarchy(TypeMirror from, TypeMirror target)
 	{
 		// no public api for superclass, without getting a TypeElement
@@ -476,9 +537,15 @@ class RecordingTreeScanner extends TreePathScanner<Void, Void>
 		else if (type instanceof DeclaredType)
 		{
 			Element e = ((DeclaredType) type).asElement();
-			// returns the fqn, not binary name
-			String fqn = elements.getBinaryName((TypeElement) e).toString();
-			return "L" + fqn.replace('.', '/') + ";";
+			String desc = classDescriptors.get(e);
+			if (desc == null)
+			{
+				// returns the fqn, not binary name
+				String fqn = elements.getBinaryName((TypeElement) e).toString();
+				desc = "L" + fqn.replace('.', '/') + ";";
+				classDescriptors.put((Symbol) e, desc);
+			}
+			return desc;
 		}
 		else if (type instanceof TypeVariable)
 		{
@@ -0,0 +1,216 @@
+/*
+ * Copyright (c) 2026 Abex
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.pluginhub.apirecorder;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import lombok.Getter;
+
+/**
+ * A read only set of descriptors stored as their {@link SymbolTable} ids. Large sets, like the
+ * client's api, are bitmaps and small ones, like a plugin's, are sorted id arrays, so
+ * comparing a plugin against the client is a probe per plugin symbol, and comparing two
+ * large sets is a word at a time.
+ */
+public class SymbolSet extends AbstractSet<String>
+{
+	@Getter
+	private final SymbolTable table;
+
+	// exactly one of these is set
+	private final BitSet bits;
+	private final int[] ids;
+
+	private final int size;
+
+	private SymbolSet(SymbolTable table, BitSet bits, int[] ids)
+	{
+		this.table = table;
+		this.bits = bits;
+		this.ids = ids;
+		this.size = bits != null ? bits.cardinality() : ids.length;
+	}
+
+	public static SymbolSet of(SymbolTable table, Collection<String> symbols)
+	{
+		int[] ids = new int[symbols.size()];
+		int i = 0;
+		for (String symbol : symbols)
+		{
+			ids[i++] = table.intern(symbol);
+		}
+		return ofIds(table, ids, i);
+	}
+
+	private static SymbolSet ofIds(SymbolTable table, int[] ids, int count)
+	{
+		Arrays.sort(ids, 0, count);
+		int unique = 0;
+		for (int i = 0; i < count; i++)
+		{
+			if (unique == 0 || ids[unique - 1] != ids[i])
+			{
+				ids[unique++] = ids[i];
+			}
+		}
+
+		int max = unique == 0 ? 0 : ids[unique - 1];
+		if ((long) unique * Integer.SIZE > max)
+		{
+			// a bitmap is smaller than the array once more than 1 in 32 ids are present
+			BitSet bits = new BitSet(max + 1);
+			for (int j = 0; j < unique; j++)
+			{
+				bits.set(ids[j]);
+			}
+			return new SymbolSet(table, bits, null);
+		}
+		return new SymbolSet(table, null, Arrays.copyOf(ids, unique));
+	}
+
+	public boolean containsId(int id)
+	{
+		if (id < 0)
+		{
+			return false;
+		}
+		if (bits != null)
+		{
+			return bits.get(id);
+		}
+		return Arrays.binarySearch(ids, id) >= 0;
+	}
+
+	@Override
+	public boolean contains(Object o)
+	{
+		return o instanceof String && containsId(table.lookup((String) o));
+	}
+
+	@Override
+	public int size()
+	{
+		return size;
+	}
+
+	/**
+	 * @return the symbols in this set that are not in other
+	 */
+	public SymbolSet andNot(SymbolSet other)
+	{
+		return filter(other, false);
+	}
+
+	/**
+	 * @return the symbols in both this set and other
+	 */
+	public SymbolSet and(SymbolSet other)
+	{
+		return filter(other, true);
+	}
+
+	private SymbolSet filter(SymbolSet other, boolean keepShared)
+	{
+		if (table != other.table)
+		{
+			throw new IllegalArgumentException("sets are from different symbol tables");
+		}
+
+		if (bits != null && other.bits != null)
+		{
+			BitSet out = (BitSet) bits.clone();
+			if (keepShared)
+			{
+				out.and(other.bits);
+			}
+			else
+			{
+				out.andNot(other.bits);
+			}
+			return new SymbolSet(table, out, null);
+		}
+
+		int[] out = new int[size];
+		int count = 0;
+		for (PrimitiveIterator it = new PrimitiveIterator(); it.hasNext(); )
+		{
+			int id = it.nextId();
+			if (other.containsId(id) == keepShared)
+			{
+				out[count++] = id;
+			}
+		}
+		return ofIds(table, out, count);
+	}
+
+	@Override
+	public Iterator<String> iterator()
+	{
+		PrimitiveIterator it = new PrimitiveIterator();
+		return new Iterator<String>()
+		{
+			@Override
+			public boolean hasNext()
+			{
+				return it.hasNext();
+			}
+
+			@Override
+			public String next()
+			{
+				return table.symbol(it.nextId());
+			}
+		};
+	}
+
+	private class PrimitiveIterator
+	{
+		private int next = bits != null ? bits.nextSetBit(0) : 0;
+
+		boolean hasNext()
+		{
+			return bits != null ? next >= 0 : next < ids.length;
+		}
+
+		int nextId()
+		{
+			if (!hasNext())
+			{
+				throw new NoSuchElementException();
+			}
+			if (bits != null)
+			{
+				int id = next;
+				next = bits.nextSetBit(id + 1);
+				return id;
+			}
+			return ids[next++];
+		}
+	}
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2026 Abex
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.pluginhub.apirecorder;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Assigns every api descriptor a small int, so sets of descriptors can be stored and
+ * compared as sets of ints. Ids are never reused, and a descriptor always has the same id.
+ */
+public class SymbolTable
+{
+	public static final SymbolTable GLOBAL = new SymbolTable();
+
+	private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+
+	// only grown while holding the lock. ids are published through the map after their
+	// symbol is written, so readers never need the lock
+	private volatile String[] symbols = new String[1024];
+	private int size;
+
+	/**
+	 * @return the descriptor's id, assigning it one if it doesn't have one yet
+	 */
+	public int intern(String symbol)
+	{
+		Integer id = ids.get(symbol);
+		if (id != null)
+		{
+			return id;
+		}
+
+		synchronized (this)
+		{
+			return ids.computeIfAbsent(symbol, k ->
+			{
+				if (size == symbols.length)
+				{
+					symbols = Arrays.copyOf(symbols, size * 2);
+				}
+				symbols[size] = k;
+				return size++;
+			});
+		}
+	}
+
+	/**
+	 * @return the descriptor's id, or -1 if it has never been interned
+	 */
+	public int lookup(String symbol)
+	{
+		Integer id = ids.get(symbol);
+		return id == null ? -1 : id;
+	}
+
+	public String symbol(int id)
+	{
+		return symbols[id];
+	}
+
+	public int size()
+	{
+		return ids.size();
+	}
+}
@@ -0,0 +1,176 @@
+/*
+ * Copyright (c) 2026 Abex
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.pluginhub.apirecorder;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.io.Files;
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class ApiFragmentsTest
+{
+	@Rule
+	public TemporaryFolder tmp = new TemporaryFolder();
+
+	private File dir;
+	private File alpha;
+	private File beta;
+
+	@Before
+	public void before() throws IOException
+	{
+		dir = new File(tmp.getRoot(), "fragments");
+		alpha = write("Alpha.java", "class Alpha {}");
+		beta = write("Beta.java", "class Beta {}");
+	}
+
+	@Test
+	public void testReusesUnchangedUnits() throws IOException
+	{
+		compile("cp", alpha, beta);
+
+		ApiFragments fragments = new ApiFragments(dir, "cp");
+		Assert.assertNull(fragments.begin(source(alpha)));
+		Assert.assertNull(fragments.begin(source(beta)));
+		Assert.assertEquals(ImmutableSet.of("LAlpha;b", "LBeta;b"), fragments.finish().getApis());
+	}
+
+	@Test
+	public void testMergesUnitsJavacDidNotRecompile() throws IOException
+	{
+		compile("cp", alpha, beta);
+
+		// an incremental compile only passes javac the units that changed
+		write("Beta.java", "class Beta { int changed; }");
+		Assert.assertEquals(ImmutableSet.of("LAlpha;b", "LBeta;b"), compile("cp", beta).getApis());
+	}
+
+	@Test
+	public void testRescansChangedSource() throws IOException
+	{
+		compile("cp", alpha, beta);
+		write("Alpha.java", "class Alpha { int changed; }");
+
+		ApiFragments fragments = new ApiFragments(dir, "cp");
+		Assert.assertNotNull(fragments.begin(source(alpha)));
+		Assert.assertNull(fragments.begin(source(beta)));
+	}
+
+	@Test
+	public void testRescansOnClasspathChange() throws IOException
+	{
+		compile("cp", alpha, beta);
+
+		ApiFragments fragments = new ApiFragments(dir, "other cp");
+		Assert.assertNotNull(fragments.begin(source(alpha)));
+		Assert.assertNotNull(fragments.begin(source(beta)));
+	}
+
+	@Test
+	public void testPartialUnits() throws IOException
+	{
+		ApiFragments fragments = new ApiFragments(dir, "cp");
+		record(fragments, alpha);
+		record(fragments, beta);
+		fragments.markPartial(source(alpha));
+		Assert.assertNull(fragments.finish());
+
+		// a partial unit stays partial until javac compiles it again
+		Assert.assertNull(compile("cp", beta));
+		Assert.assertEquals(ImmutableSet.of("LAlpha;b", "LBeta;b"), compile("cp", alpha).getApis());
+	}
+
+	@Test
+	public void testRemovedSource() throws IOException
+	{
+		compile("cp", alpha, beta);
+		File[] before = dir.listFiles((d, name) -> name.endsWith(".api"));
+		Assert.assertEquals(2, before.length);
+
+		Assert.assertTrue(alpha.delete());
+		Assert.assertEquals(ImmutableSet.of("LBeta;b"), compile("cp", beta).getApis());
+		Assert.assertEquals(1, dir.listFiles((d, name) -> name.endsWith(".api")).length);
+	}
+
+	@Test
+	public void testInMemory() throws IOException
+	{
+		ApiFragments fragments = new ApiFragments(null, null);
+		record(fragments, alpha);
+		record(fragments, beta);
+		Assert.assertEquals(ImmutableSet.of("LAlpha;b", "LBeta;b"), fragments.finish().getApis());
+		Assert.assertFalse(dir.exists());
+
+		fragments = new ApiFragments(null, null);
+		record(fragments, alpha);
+		fragments.markPartial(source(alpha));
+		Assert.assertNull(fragments.finish());
+	}
+
+	private API compile(String classpathKey, File... sources) throws IOException
+	{
+		ApiFragments fragments = new ApiFragments(dir, classpathKey);
+		for (File source : sources)
+		{
+			record(fragments, source);
+		}
+		return fragments.finish();
+	}
+
+	/**
+	 * Records the unit the way the scanner would, a class named after its file
+	 */
+	private static void record(ApiFragments fragments, File source) throws IOException
+	{
+		API api = fragments.begin(source(source));
+		if (api != null)
+		{
+			api.recordClass(Modifier.PUBLIC, "L" + Files.getNameWithoutExtension(source.getName()) + ";");
+		}
+	}
+
+	private static JavaFileObject source(File file)
+	{
+		return new SimpleJavaFileObject(file.toURI(), JavaFileObject.Kind.SOURCE)
+		{
+		};
+	}
+
+	private File write(String name, String content) throws IOException
+	{
+		File file = new File(tmp.getRoot(), name);
+		Files.asCharSink(file, StandardCharsets.UTF_8).write(content);
+		return file;
+	}
+}
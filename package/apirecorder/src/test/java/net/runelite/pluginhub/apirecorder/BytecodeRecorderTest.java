@@ -0,0 +1,245 @@
+/*
+ * Copyright (c) 2026 Abex
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.pluginhub.apirecorder;
+
+import com.sun.source.util.JavacTask;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.tools.JavaCompiler;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class BytecodeRecorderTest
+{
+	private static final Map<String, String> CLIENT = Map.of(
+		"fixture/client/Named.java", "package fixture.client;\n" +
+			"public interface Named {\n" +
+			"	String NAME = \"named\";\n" +
+			"	String getName();\n" +
+			"}\n",
+		"fixture/client/Base.java", "package fixture.client;\n" +
+			"public class Base implements Named {\n" +
+			"	public static final int BASE_ID = 1234;\n" +
+			"	public int count;\n" +
+			"	public String getName() { return NAME; }\n" +
+			"	public void tick() {}\n" +
+			"}\n",
+		"fixture/client/Widget.java", "package fixture.client;\n" +
+			"public class Widget extends Base {\n" +
+			"	public static final String LABEL = \"whip\";\n" +
+			"	public static final long BIG = 1234567890123L;\n" +
+			"	public void draw(int id) {}\n" +
+			"}\n",
+		"fixture/client/ItemID.java", "package fixture.client;\n" +
+			"public final class ItemID {\n" +
+			"	public static final int ABYSSAL_WHIP = 4151;\n" +
+			"	public static final int DRAGON_SCIMITAR = 4587;\n" +
+			"	public static final int COINS = 995;\n" +
+			"	public static final int RUNE_SCIMITAR = 1333;\n" +
+			"	private ItemID() {}\n" +
+			"}\n",
+		"fixture/client/Config.java", "package fixture.client;\n" +
+			"import java.lang.annotation.*;\n" +
+			"@Retention(RetentionPolicy.RUNTIME)\n" +
+			"public @interface Config {\n" +
+			"	int position();\n" +
+			"	String name() default \"\";\n" +
+			"}\n"
+	);
+
+	private static final Map<String, String> PLUGIN = Map.of(
+		// members used through a subclass have to be walked up to where they are declared
+		"fixture/plugin/MyWidget.java", "package fixture.plugin;\n" +
+			"import fixture.client.*;\n" +
+			"public class MyWidget extends Widget {\n" +
+			"	@Override public void tick() { draw(ItemID.ABYSSAL_WHIP); count++; }\n" +
+			"	static final long CACHED = Widget.BIG;\n" +
+			"}\n",
+		// constants are inlined, so the only trace of them is their value
+		"fixture/plugin/Consumer.java", "package fixture.plugin;\n" +
+			"import fixture.client.*;\n" +
+			"public class Consumer {\n" +
+			"	static final int WHIP = ItemID.COINS;\n" +
+			"	@Config(position = ItemID.DRAGON_SCIMITAR, name = Named.NAME)\n" +
+			"	int pick(int id, Widget w) {\n" +
+			"		w.tick();\n" +
+			"		w.getName();\n" +
+			"		switch (id) {\n" +
+			"			case ItemID.RUNE_SCIMITAR: return Base.BASE_ID;\n" +
+			"			default: return w.count;\n" +
+			"		}\n" +
+			"	}\n" +
+			"}\n"
+	);
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void testMatchesJavacRecorder() throws IOException
+	{
+		File clientJar = compileJar("client", CLIENT, null, null);
+		API clientApi = ClassRecorder.recordJars(Collections.singletonList(clientJar), null);
+
+		File javacApiFile = folder.newFile("javac.api");
+		File pluginJar = compileJar("plugin", PLUGIN, clientJar, javacApiFile);
+		Set<String> javacApi = clientEntries(API.map(javacApiFile).getApis().stream());
+		Set<String> bytecodeApi = clientEntries(new BytecodeRecorder(clientApi).record(pluginJar).getApi().getApis().stream());
+
+		Assert.assertTrue("javac recorded nothing from the fixture", javacApi.size() > 5);
+
+		Set<String> missing = new TreeSet<>(javacApi);
+		missing.removeAll(bytecodeApi);
+		Assert.assertEquals("bytecode recorder missed entries the javac recorder has", Collections.emptySet(), missing);
+
+		// everything extra has to be a constant, which are over-approximated on purpose
+		Set<String> extra = new TreeSet<>(bytecodeApi);
+		extra.removeAll(javacApi);
+		for (String entry : extra)
+		{
+			Assert.assertTrue("unexpected extra entry " + entry, isConstant(entry));
+		}
+	}
+
+	@Test
+	public void testUnusedConstantsNotRecorded() throws IOException
+	{
+		File clientJar = compileJar("client", CLIENT, null, null);
+		API clientApi = ClassRecorder.recordJars(Collections.singletonList(clientJar), null);
+
+		File pluginJar = compileJar("plugin", Map.of(
+			"fixture/plugin/Empty.java", "package fixture.plugin;\n" +
+				"public class Empty { int id() { return 1; } }\n"
+		), clientJar, null);
+
+		Set<String> bytecodeApi = clientEntries(new BytecodeRecorder(clientApi).record(pluginJar).getApi().getApis().stream());
+		Assert.assertEquals(Collections.emptySet(), bytecodeApi);
+	}
+
+	@Test
+	public void testLiteralsAreNotDisallowed() throws IOException
+	{
+		File clientJar = compileJar("client", Map.of(
+			"fixture/client/WidgetID.java", "package fixture.client;\n" +
+				"public final class WidgetID {\n" +
+				"	public static final int INVENTORY_GROUP_ID = 149;\n" +
+				"}\n"
+		), null, null);
+		API clientApi = ClassRecorder.recordJars(Collections.singletonList(clientJar), null);
+		Map<String, String> disallowed = clientApi.parseCommented(new ByteArrayInputStream(
+			"# use something else\n/^Lfixture/client/WidgetID/\n".getBytes(StandardCharsets.UTF_8)), false);
+
+		File pluginJar = compileJar("plugin", Map.of(
+			"fixture/plugin/Slot.java", "package fixture.plugin;\n" +
+				"public class Slot { int slots() { return 149; } }\n"
+		), clientJar, null);
+		BytecodeRecorder.Recording recording = new BytecodeRecorder(clientApi).record(pluginJar);
+
+		// the literal could be the constant, so it still causes a rebuild if the constant changes
+		Assert.assertFalse(recording.getApi().disallowed(disallowed).isEmpty());
+		// but the plugin doesn't name it, so it can't be using a disallowed api
+		Assert.assertEquals(Collections.emptySet(), recording.getReferencedApi().disallowed(disallowed));
+	}
+
+	private static Set<String> clientEntries(Stream<String> apis)
+	{
+		return apis
+			.filter(s -> s.startsWith("Lfixture/client/"))
+			.collect(Collectors.toCollection(TreeSet::new));
+	}
+
+	private static boolean isConstant(String entry)
+	{
+		int nameEnd = entry.indexOf('.');
+		return nameEnd != -1 && entry.indexOf('(', nameEnd) == -1 && !entry.endsWith(":");
+	}
+
+	private File compileJar(String name, Map<String, String> sources, File classpath, File apiFile) throws IOException
+	{
+		Path src = folder.newFolder(name + "-src").toPath();
+		File out = folder.newFolder(name + "-classes");
+		List<File> files = new ArrayList<>();
+		for (Map.Entry<String, String> source : sources.entrySet())
+		{
+			Path file = src.resolve(source.getKey());
+			Files.createDirectories(file.getParent());
+			Files.write(file, source.getValue().getBytes(StandardCharsets.UTF_8));
+			files.add(file.toFile());
+		}
+
+		JavaCompiler javac = ToolProvider.getSystemJavaCompiler();
+		try (StandardJavaFileManager fm = javac.getStandardFileManager(null, null, StandardCharsets.UTF_8))
+		{
+			List<String> args = new ArrayList<>(Arrays.asList("-d", out.getPath(), "--release", "11", "-nowarn"));
+			if (classpath != null)
+			{
+				args.addAll(Arrays.asList("-classpath", classpath.getPath()));
+			}
+
+			JavacTask task = (JavacTask) javac.getTask(null, fm, null, args, null, fm.getJavaFileObjectsFromFiles(files));
+			if (apiFile != null)
+			{
+				RecorderPlugin.install(task, apiFile, null);
+			}
+			Assert.assertTrue("fixture " + name + " failed to compile", task.call());
+		}
+
+		File jar = new File(folder.getRoot(), name + ".jar");
+		try (JarOutputStream jos = new JarOutputStream(new FileOutputStream(jar));
+			Stream<Path> classes = Files.walk(out.toPath()))
+		{
+			for (Path path : (Iterable<Path>) classes.filter(Files::isRegularFile)::iterator)
+			{
+				jos.putNextEntry(new JarEntry(out.toPath().relativize(path).toString().replace(File.separatorChar, '/')));
+				try (FileInputStream fis = new FileInputStream(path.toFile()))
+				{
+					fis.transferTo(jos);
+				}
+			}
+		}
+		return jar;
+	}
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2026 Abex
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.pluginhub.packager;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Set;
+import lombok.extern.slf4j.Slf4j;
+import net.runelite.pluginhub.apirecorder.API;
+
+/**
+ * Compares the size and decode time of the text and compact api formats, for a generated api
+ * shaped like the client's
+ */
+@Slf4j
+public class APIFormatBenchmark
+{
+	private static final int ENTRIES = Integer.getInteger("runelite.pluginhub.benchmark.entries", 200_000);
+	private static final int ROUNDS = Integer.getInteger("runelite.pluginhub.benchmark.rounds", 5);
+
+	public static void main(String... args) throws IOException
+	{
+		Set<String> apis = APIFormatTest.generate(ENTRIES);
+		byte[] text = APIFormatTest.encode(apis, false);
+		byte[] compact = APIFormatTest.encode(apis, true);
+
+		// a decoded text api holds every descriptor as a String in a set
+		long textResident = 0;
+		for (String api : apis)
+		{
+			textResident += 24 + 16 + api.length() + 16;
+		}
+
+		long textMS = time(text);
+		long compactMS = time(compact);
+		log.info("{} entries", apis.size());
+		log.info("text: {} bytes on disk, ~{} bytes resident, decoded in {}ms", text.length, textResident, textMS);
+		log.info("compact: {} bytes on disk and resident, decoded in {}ms", compact.length, compactMS);
+	}
+
+	private static long time(byte[] data)
+	{
+		long best = Long.MAX_VALUE;
+		for (int i = 0; i < ROUNDS; i++)
+		{
+			long start = System.nanoTime();
+			API api = API.decode(new ByteArrayInputStream(data));
+			if (!api.getApis().contains("Lnet/runelite/api/Class1;b"))
+			{
+				throw new IllegalStateException("decoded api is missing an entry");
+			}
+			best = Math.min(best, System.nanoTime() - start);
+		}
+		return best / 1_000_000;
+	}
+}
@@ -0,0 +1,214 @@
+/*
+ * Copyright (c) 2026 Abex
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.pluginhub.packager;
+
+import com.google.common.io.ByteStreams;
+import com.google.common.io.MoreFiles;
+import com.google.common.io.RecursiveDeleteOption;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Downloads a set of commits with every {@link DownloadMode} that talks to the repository directly,
+ * to compare how long the download stage takes with each. Arguments are pairs of repository url
+ * and commit. Without any, a local repository with a long history is generated to download from
+ */
+@Slf4j
+public class DownloadBenchmark
+{
+	private static final int WARMUP_ROUNDS = Integer.getInteger("runelite.pluginhub.benchmark.warmup", 1);
+	private static final int ROUNDS = Integer.getInteger("runelite.pluginhub.benchmark.rounds", 5);
+	private static final int GENERATED_COMMITS = Integer.getInteger("runelite.pluginhub.benchmark.commits", 20000);
+
+	private static final List<DownloadMode> MODES = Arrays.asList(DownloadMode.CLONE, DownloadMode.SHALLOW);
+
+	@Value
+	private static class Target
+	{
+		String repositoryURL;
+		String commit;
+	}
+
+	public static void main(String... args) throws IOException, PluginBuildException
+	{
+		if (args.length % 2 != 0)
+		{
+			System.err.println("usage: DownloadBenchmark [<repository url> <commit>]...");
+			System.exit(1);
+		}
+
+		File tmp = Files.createTempDirectory("download-benchmark").toFile();
+		try
+		{
+			List<Target> targets = new ArrayList<>();
+			for (int i = 0; i < args.length; i += 2)
+			{
+				targets.add(new Target(args[i], args[i + 1]));
+			}
+			if (targets.isEmpty())
+			{
+				targets.addAll(generateRepository(new File(tmp, "upstream")));
+			}
+
+			File logFile = new File(tmp, "log");
+			for (int i = 0; i < WARMUP_ROUNDS; i++)
+			{
+				for (DownloadMode mode : MODES)
+				{
+					downloadAll(mode, targets, tmp, logFile);
+				}
+			}
+
+			// alternate so drift in the network or machine affects every mode equally
+			Map<DownloadMode, long[]> times = new EnumMap<>(DownloadMode.class);
+			for (int i = 0; i < ROUNDS; i++)
+			{
+				for (DownloadMode mode : MODES)
+				{
+					times.computeIfAbsent(mode, k -> new long[ROUNDS])[i] = downloadAll(mode, targets, tmp, logFile);
+				}
+			}
+
+			long cloneMs = median(times.get(DownloadMode.CLONE)) / 1_000_000;
+			long shallowMs = median(times.get(DownloadMode.SHALLOW)) / 1_000_000;
+			log.info("{} commits: {}ms with clone, {}ms with shallow, {}x faster",
+				targets.size(), cloneMs, shallowMs,
+				String.format("%.2f", shallowMs == 0 ? 0 : (double) cloneMs / shallowMs));
+		}
+		finally
+		{
+			MoreFiles.deleteRecursively(tmp.toPath(), RecursiveDeleteOption.ALLOW_INSECURE);
+		}
+	}
+
+	private static long downloadAll(DownloadMode mode, List<Target> targets, File tmp, File logFile) throws IOException, PluginBuildException
+	{
+		long total = 0;
+		for (Target target : targets)
+		{
+			File dir = Files.createTempDirectory(tmp.toPath(), "repo").toFile();
+			try
+			{
+				long start = System.nanoTime();
+				if (mode == DownloadMode.CLONE)
+				{
+					Git.clone("benchmark", target.repositoryURL, target.commit, dir, logFile);
+				}
+				else if (!Git.fetchCommit("benchmark", target.repositoryURL, target.commit, dir, logFile))
+				{
+					throw new IllegalStateException(target.repositoryURL + " refused to fetch " + target.commit + " by sha");
+				}
+				total += System.nanoTime() - start;
+			}
+			finally
+			{
+				MoreFiles.deleteRecursively(dir.toPath(), RecursiveDeleteOption.ALLOW_INSECURE);
+			}
+		}
+		return total;
+	}
+
+	/**
+	 * Creates a repository with a long history of small changes, like an old plugin's
+	 *
+	 * @return its newest commit and one halfway through its history
+	 */
+	private static List<Target> generateRepository(File dir) throws IOException, PluginBuildException
+	{
+		File logFile = new File(dir.getParentFile(), "generate.log");
+		Git.run("benchmark", null, logFile, 1, "init", "--quiet", "--bare", dir.getAbsolutePath());
+		// file:// is served by upload-pack like github is, these match what github allows
+		Git.run("benchmark", dir, logFile, 1, "config", "uploadpack.allowFilter", "true");
+		Git.run("benchmark", dir, logFile, 1, "config", "uploadpack.allowAnySHA1InWant", "true");
+
+		Process fastImport = new ProcessBuilder("git", "fast-import", "--quiet")
+			.directory(dir)
+			.redirectOutput(ProcessBuilder.Redirect.appendTo(logFile))
+			.redirectError(ProcessBuilder.Redirect.appendTo(logFile))
+			.start();
+		try (OutputStream os = fastImport.getOutputStream();
+			Writer w = new OutputStreamWriter(os, StandardCharsets.UTF_8))
+		{
+			for (int i = 1; i <= GENERATED_COMMITS; i++)
+			{
+				String message = "change " + i;
+				String source = "package com.example;\n\n// revision " + i + "\nclass Class" + (i % 200) + "\n{\n}\n";
+				w.write("commit refs/heads/master\n");
+				w.write("mark :" + i + "\n");
+				w.write("committer benchmark <benchmark@example.com> " + (1500000000L + i * 600L) + " +0000\n");
+				w.write("data " + message.getBytes(StandardCharsets.UTF_8).length + "\n" + message + "\n");
+				if (i > 1)
+				{
+					w.write("from :" + (i - 1) + "\n");
+				}
+				w.write("M 100644 inline src/main/java/com/example/Class" + (i % 200) + ".java\n");
+				w.write("data " + source.getBytes(StandardCharsets.UTF_8).length + "\n" + source + "\n");
+			}
+		}
+		try
+		{
+			if (fastImport.waitFor() != 0)
+			{
+				throw new IllegalStateException("git fast-import exited with " + fastImport.exitValue());
+			}
+		}
+		catch (InterruptedException e)
+		{
+			throw new RuntimeException(e);
+		}
+
+		String url = dir.toURI().toString().replace("file:/", "file:///");
+		return Arrays.asList(
+			new Target(url, revParse(dir, "master")),
+			new Target(url, revParse(dir, "master~" + GENERATED_COMMITS / 2)));
+	}
+
+	private static String revParse(File dir, String rev) throws IOException
+	{
+		Process p = new ProcessBuilder("git", "rev-parse", rev)
+			.directory(dir)
+			.start();
+		return new String(ByteStreams.toByteArray(p.getInputStream()), StandardCharsets.UTF_8).trim();
+	}
+
+	private static long median(long[] times)
+	{
+		long[] sorted = times.clone();
+		Arrays.sort(sorted);
+		return sorted[sorted.length / 2];
+	}
+}
@@ -0,0 +1,178 @@
+/*
+ * Copyright (c) 2026 Abex
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.pluginhub.packager;
+
+import java.io.Closeable;
+import lombok.Getter;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Admits builds by the heap and cpu they are predicted to use from previous runs, within
+ * the container's limits. Every gradle daemon can use up to {@link Plugin#GRADLE_HEAP_MIB}
+ * of heap, so on a runner with many cores but little memory the core count alone would
+ * let the daemons push us into swap. Daemons keep their heap between builds, so no more
+ * daemons are kept than fit in the memory budget at their largest.
+ */
+@Slf4j
+class AdaptiveAdmission implements BuildAdmission
+{
+	private static final long MIB = 1024 * 1024;
+
+	// metaspace, code cache, thread stacks, and gc structures of a daemon
+	private static final long DAEMON_OVERHEAD = 256 * MIB;
+
+	// for the packager's own heap, git, and the page cache
+	private static final long RESERVED_MEMORY = 1024 * MIB;
+
+	// builds spend a lot of time waiting on dependency downloads, so when the
+	// system is idle we allow running more builds than we have cores
+	private static final double MAX_BUILDS_PER_CPU = 2;
+
+	// past this load we stop admitting builds even if they are predicted to fit
+	private static final double OVERLOADED = 1.25;
+
+	private static final long RECHECK_MS = 1000;
+
+	private final SystemResources resources;
+	private final BuildHistory history;
+
+	private final double cpuBudget;
+	private final long memoryBudget;
+
+	@Getter
+	private final int maxConcurrency;
+
+	@Getter
+	private final int maxDaemons;
+
+	private int running;
+	private double usedCpus;
+	private long usedMemory;
+
+	AdaptiveAdmission(SystemResources resources, BuildHistory history)
+	{
+		this.resources = resources;
+		this.history = history;
+		this.cpuBudget = resources.cpuLimit();
+		this.memoryBudget = resources.memoryLimit() - Runtime.getRuntime().maxMemory() - RESERVED_MEMORY;
+		this.maxConcurrency = Math.max(1, (int) (cpuBudget * MAX_BUILDS_PER_CPU));
+		this.maxDaemons = (int) Math.max(1, Math.min(maxConcurrency, memoryBudget / (Plugin.GRADLE_HEAP_MIB * MIB + DAEMON_OVERHEAD)));
+
+		log.info("admitting builds within {} cpus and {} MiB, up to {} at once on {} daemons", cpuBudget, memoryBudget / MIB, maxConcurrency, maxDaemons);
+	}
+
+	@Override
+	public synchronized Closeable acquire(String internalName)
+	{
+		Weight weight = weigh(internalName);
+		try
+		{
+			while (!canAdmit(weight))
+			{
+				// the system's load changes without anyone notifying us
+				wait(RECHECK_MS);
+			}
+		}
+		catch (InterruptedException e)
+		{
+			throw new RuntimeException(e);
+		}
+
+		running++;
+		usedCpus += weight.getCpus();
+		usedMemory += weight.getMemory();
+		return () -> release(weight);
+	}
+
+	private synchronized void release(Weight weight)
+	{
+		running--;
+		usedCpus -= weight.getCpus();
+		usedMemory -= weight.getMemory();
+		notifyAll();
+	}
+
+	private boolean canAdmit(Weight weight)
+	{
+		if (running == 0)
+		{
+			// always make progress, even if a single build doesn't fit
+			return true;
+		}
+
+		if (running >= maxConcurrency)
+		{
+			return false;
+		}
+
+		// memory is never overcommitted, running out gets us oom killed
+		if (usedMemory + weight.getMemory() > memoryBudget)
+		{
+			return false;
+		}
+
+		long available = resources.availableMemory();
+		if (available >= 0 && available < weight.getMemory())
+		{
+			return false;
+		}
+
+		// cpu is, as long as the system isn't actually busy
+		double load = resources.loadAverage();
+		if (load >= 0 && load > cpuBudget * OVERLOADED)
+		{
+			return false;
+		}
+
+		return usedCpus + weight.getCpus() <= cpuBudget
+			|| (load >= 0 && load + weight.getCpus() <= cpuBudget);
+	}
+
+	private Weight weigh(String internalName)
+	{
+		long maxHeap = Plugin.GRADLE_HEAP_MIB * MIB;
+		long heap = history.expectedHeap(internalName);
+		if (heap <= 0 || heap > maxHeap)
+		{
+			heap = maxHeap;
+		}
+
+		double cpus = history.expectedCpus(internalName);
+		if (cpus <= 0)
+		{
+			cpus = 1;
+		}
+
+		return new Weight(Math.min(cpus, cpuBudget), heap + DAEMON_OVERHEAD);
+	}
+
+	@Value
+	private static class Weight
+	{
+		double cpus;
+		long memory;
+	}
+}
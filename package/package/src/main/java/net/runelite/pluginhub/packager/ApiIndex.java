@@ -0,0 +1,235 @@
+/*
+ * Copyright (c) 2026 Abex
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.pluginhub.packager;
+
+import com.google.common.hash.Funnels;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.common.io.ByteStreams;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import lombok.extern.slf4j.Slf4j;
+import net.runelite.pluginhub.apirecorder.API;
+import net.runelite.pluginhub.uploader.ApiBundle;
+
+/**
+ * Maps every api symbol used by the plugins in an {@link ApiBundle} to the plugins that
+ * use it. When the client api changes, only the symbols plugins actually use need to be
+ * checked against it, instead of every plugin's whole api.
+ */
+@Slf4j
+class ApiIndex
+{
+	private static final int VERSION = 1;
+
+	private final List<String> plugins;
+	private final Map<String, int[]> postings;
+
+	private ApiIndex(List<String> plugins, Map<String, int[]> postings)
+	{
+		this.plugins = plugins;
+		this.postings = postings;
+	}
+
+	static ApiIndex build(ApiBundle bundle) throws IOException
+	{
+		List<String> plugins = new ArrayList<>();
+		Map<String, List<Integer>> postings = new HashMap<>();
+		for (ApiBundle.Entry entry : bundle.getEntries())
+		{
+			try (InputStream is = bundle.openApi(entry))
+			{
+				if (is == null)
+				{
+					continue;
+				}
+
+				int id = plugins.size();
+				plugins.add(entry.getInternalName());
+				for (String symbol : API.decode(is).getApis())
+				{
+					postings.computeIfAbsent(symbol, k -> new ArrayList<>()).add(id);
+				}
+			}
+		}
+
+		Map<String, int[]> packed = new HashMap<>(postings.size() * 2);
+		postings.forEach((symbol, ids) -> packed.put(symbol, ids.stream().mapToInt(Integer::intValue).toArray()));
+		return new ApiIndex(plugins, packed);
+	}
+
+	/**
+	 * Loads the index for a bundle from disk, or builds and saves it if it is missing or was built from
+	 * a different bundle
+	 */
+	static ApiIndex load(ApiBundle bundle, File file) throws IOException
+	{
+		String identity = identity(bundle);
+		if (file.exists())
+		{
+			try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file))))
+			{
+				if (in.readInt() == VERSION && identity.equals(in.readUTF()))
+				{
+					return read(in);
+				}
+			}
+			catch (EOFException e)
+			{
+				log.warn("api index {} is truncated, rebuilding it", file);
+			}
+		}
+
+		ApiIndex index = build(bundle);
+		// the cache can be shared by concurrent packagers, so let the filesystem pick the name
+		File tmp = File.createTempFile(file.getName() + ".tmp-", null, file.getParentFile());
+		try
+		{
+			try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp))))
+			{
+				out.writeInt(VERSION);
+				out.writeUTF(identity);
+				index.write(out);
+			}
+			Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		}
+		finally
+		{
+			tmp.delete();
+		}
+		return index;
+	}
+
+	/**
+	 * A plugin rebuilt to the same jar can have a different api, so this covers the apis themselves
+	 */
+	private static String identity(ApiBundle bundle) throws IOException
+	{
+		Hasher h = Hashing.sha256().newHasher();
+		OutputStream apis = Funnels.asOutputStream(h);
+		for (ApiBundle.Entry e : bundle.getEntries())
+		{
+			h.putString(e.getInternalName(), StandardCharsets.UTF_8)
+				.putString(e.getJarHash(), StandardCharsets.UTF_8)
+				.putBoolean(e.isHasApi())
+				.putInt(e.getLength());
+			try (InputStream is = bundle.openApi(e))
+			{
+				if (is != null)
+				{
+					ByteStreams.copy(is, apis);
+				}
+			}
+		}
+		return h.hash().toString();
+	}
+
+	private static ApiIndex read(DataInputStream in) throws IOException
+	{
+		int numPlugins = in.readInt();
+		List<String> plugins = new ArrayList<>(numPlugins);
+		for (int i = 0; i < numPlugins; i++)
+		{
+			plugins.add(in.readUTF());
+		}
+
+		int numSymbols = in.readInt();
+		Map<String, int[]> postings = new HashMap<>(numSymbols * 2);
+		for (int i = 0; i < numSymbols; i++)
+		{
+			String symbol = in.readUTF();
+			int[] ids = new int[in.readInt()];
+			for (int j = 0; j < ids.length; j++)
+			{
+				ids[j] = in.readInt();
+			}
+			postings.put(symbol, ids);
+		}
+		return new ApiIndex(plugins, postings);
+	}
+
+	private void write(DataOutputStream out) throws IOException
+	{
+		out.writeInt(plugins.size());
+		for (String plugin : plugins)
+		{
+			out.writeUTF(plugin);
+		}
+
+		out.writeInt(postings.size());
+		for (Map.Entry<String, int[]> e : postings.entrySet())
+		{
+			out.writeUTF(e.getKey());
+			out.writeInt(e.getValue().length);
+			for (int id : e.getValue())
+			{
+				out.writeInt(id);
+			}
+		}
+	}
+
+	/**
+	 * @return the plugins using any symbol that is not in the given api, which are the only plugins
+	 * in the bundle that can need rebuilding because of an api change. This looks up every used
+	 * symbol rather than diffing the old and new client apis, since the plugins use far fewer
+	 * symbols than the client has, and the old client's api isn't always at hand
+	 */
+	Set<String> affectedBy(API api)
+	{
+		Set<String> affected = new HashSet<>();
+		int changed = 0;
+		for (Map.Entry<String, int[]> e : postings.entrySet())
+		{
+			if (!api.getApis().contains(e.getKey()))
+			{
+				changed++;
+				for (int id : e.getValue())
+				{
+					affected.add(plugins.get(id));
+				}
+			}
+		}
+		log.info("{} of {} used api symbols changed, affecting {} of {} plugins", changed, postings.size(), affected.size(), plugins.size());
+		return affected;
+	}
+}
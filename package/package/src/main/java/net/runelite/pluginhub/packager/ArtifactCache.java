@@ -0,0 +1,301 @@
+/*
+ * Copyright (c) 2026 Abex
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.pluginhub.packager;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Strings;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.common.io.ByteStreams;
+import com.google.common.io.MoreFiles;
+import com.google.common.io.RecursiveDeleteOption;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.annotation.Nullable;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Build outputs of previous runs, keyed by a hash of everything that goes into a build:
+ * the commit descriptor, the runelite version, the gradle distribution, and the packager's
+ * own code and build inputs.
+ * A hit lets a plugin skip its clone and gradle build entirely.
+ */
+@Slf4j
+class ArtifactCache
+{
+	// bump this if what is stored or how the key is built changes
+	private static final int FORMAT_VERSION = 2;
+
+	private static final String COMPLETE = "complete";
+
+	private final File root;
+	private final long maxBytes;
+	private final long maxAgeMS;
+	private final byte[] inputsHash;
+
+	ArtifactCache(File root, long maxBytes, long maxAgeMS, String runeliteVersion, boolean disallowedIsFatal, File gradleHome) throws IOException
+	{
+		this.root = root;
+		this.maxBytes = maxBytes;
+		this.maxAgeMS = maxAgeMS;
+
+		Hasher h = Hashing.sha256().newHasher()
+			.putInt(FORMAT_VERSION)
+			.putString(runeliteVersion, StandardCharsets.UTF_8)
+			.putBoolean(disallowedIsFatal);
+		putGradleVersion(h, gradleHome);
+		// so entries built by an older packager aren't restored, without relying on FORMAT_VERSION being bumped
+		putCodeSource(h, ArtifactCache.class);
+		putFile(h, new File(Packager.PACKAGE_ROOT, "target_init.gradle"));
+		putFile(h, new File(Packager.PACKAGE_ROOT, "apirecorder/build/libs/apirecorder.jar"));
+		putResource(h, Plugin.class, "verification-metadata.xml");
+		putResource(h, Packager.class, "disallowed-apis.txt");
+		this.inputsHash = h.hash().asBytes();
+	}
+
+	/**
+	 * @return the cache, or null if PACKAGE_ARTIFACT_CACHE_MIB is 0
+	 */
+	@Nullable
+	static ArtifactCache fromEnvironment(String runeliteVersion, boolean disallowedIsFatal) throws IOException
+	{
+		long maxMiB = Long.parseLong(MoreObjects.firstNonNull(Strings.emptyToNull(System.getenv("PACKAGE_ARTIFACT_CACHE_MIB")), "2048"));
+		long maxDays = Long.parseLong(MoreObjects.firstNonNull(Strings.emptyToNull(System.getenv("PACKAGE_ARTIFACT_CACHE_DAYS")), "30"));
+		if (maxMiB <= 0)
+		{
+			return null;
+		}
+		return new ArtifactCache(new File(Packager.CACHE_DIR, "artifacts"), maxMiB * 1024 * 1024, TimeUnit.DAYS.toMillis(maxDays),
+			runeliteVersion, disallowedIsFatal, Plugin.GRADLE_HOME);
+	}
+
+	private static void putFile(Hasher h, File file) throws IOException
+	{
+		h.putBoolean(file.exists());
+		if (file.exists())
+		{
+			h.putBytes(com.google.common.io.Files.asByteSource(file).hash(Hashing.sha256()).asBytes());
+		}
+	}
+
+	/**
+	 * Hashes the distribution's location and the names of its jars, which carry its version
+	 */
+	private static void putGradleVersion(Hasher h, File gradleHome)
+	{
+		h.putString(gradleHome.getAbsolutePath(), StandardCharsets.UTF_8);
+		String[] libs = new File(gradleHome, "lib").list();
+		if (libs != null)
+		{
+			Arrays.sort(libs);
+			for (String lib : libs)
+			{
+				h.putString(lib, StandardCharsets.UTF_8);
+			}
+		}
+	}
+
+	/**
+	 * Hashes the jar a class was loaded from, or every class file if it was loaded from a directory
+	 */
+	private static void putCodeSource(Hasher h, Class<?> clazz) throws IOException
+	{
+		Path location;
+		try
+		{
+			location = Paths.get(clazz.getProtectionDomain().getCodeSource().getLocation().toURI());
+		}
+		catch (URISyntaxException | RuntimeException e)
+		{
+			throw new IOException("unable to locate the packager's code", e);
+		}
+
+		if (!Files.isDirectory(location))
+		{
+			putFile(h, location.toFile());
+			return;
+		}
+
+		List<Path> files;
+		try (Stream<Path> walk = Files.walk(location))
+		{
+			files = walk.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+		}
+		for (Path file : files)
+		{
+			h.putString(location.relativize(file).toString(), StandardCharsets.UTF_8);
+			putFile(h, file.toFile());
+		}
+	}
+
+	private static void putResource(Hasher h, Class<?> clazz, String name) throws IOException
+	{
+		try (InputStream is = clazz.getResourceAsStream(name))
+		{
+			h.putBoolean(is != null);
+			if (is != null)
+			{
+				h.putBytes(ByteStreams.toByteArray(is));
+			}
+		}
+	}
+
+	String key(File pluginCommitDescriptor) throws IOException
+	{
+		return Hashing.sha256().newHasher()
+			.putBytes(inputsHash)
+			.putString(pluginCommitDescriptor.getName(), StandardCharsets.UTF_8)
+			.putBytes(Files.readAllBytes(pluginCommitDescriptor.toPath()))
+			.hash()
+			.toString();
+	}
+
+	/**
+	 * @return the directory holding the entry's files, or null if it isn't cached
+	 */
+	@Nullable
+	File lookup(String key)
+	{
+		File dir = new File(root, key);
+		if (!new File(dir, COMPLETE).exists())
+		{
+			return null;
+		}
+
+		// eviction is least recently used
+		dir.setLastModified(System.currentTimeMillis());
+		return dir;
+	}
+
+	/**
+	 * Stores a set of files under a key. Entries are written to a temporary directory and
+	 * renamed into place, so concurrent packagers sharing a cache never see a partial entry.
+	 */
+	void store(String key, Map<String, File> files) throws IOException
+	{
+		File dir = new File(root, key);
+		if (new File(dir, COMPLETE).exists())
+		{
+			return;
+		}
+
+		// thread ids are only unique within one packager, so let the filesystem pick the name
+		root.mkdirs();
+		File tmp = Files.createTempDirectory(root.toPath(), key + ".tmp-").toFile();
+		try
+		{
+			for (Map.Entry<String, File> file : files.entrySet())
+			{
+				Files.copy(file.getValue().toPath(), new File(tmp, file.getKey()).toPath(), StandardCopyOption.REPLACE_EXISTING);
+			}
+			Files.createFile(new File(tmp, COMPLETE).toPath());
+
+			if (dir.exists())
+			{
+				// an incomplete entry from a run that died partway through
+				MoreFiles.deleteRecursively(dir.toPath(), RecursiveDeleteOption.ALLOW_INSECURE);
+			}
+			Files.move(tmp.toPath(), dir.toPath(), StandardCopyOption.ATOMIC_MOVE);
+		}
+		finally
+		{
+			if (tmp.exists())
+			{
+				MoreFiles.deleteRecursively(tmp.toPath(), RecursiveDeleteOption.ALLOW_INSECURE);
+			}
+		}
+	}
+
+	/**
+	 * Removes entries that haven't been used within the max age, then the least recently used
+	 * entries until the cache fits within its size limit
+	 */
+	void evict()
+	{
+		File[] entries = root.listFiles(File::isDirectory);
+		if (entries == null)
+		{
+			return;
+		}
+
+		Arrays.sort(entries, Comparator.comparing(File::lastModified).reversed());
+		long now = System.currentTimeMillis();
+		long total = 0;
+		List<File> evict = new ArrayList<>();
+		for (File entry : entries)
+		{
+			total += size(entry);
+			if (total > maxBytes || now - entry.lastModified() > maxAgeMS)
+			{
+				evict.add(entry);
+			}
+		}
+
+		for (File entry : evict)
+		{
+			try
+			{
+				MoreFiles.deleteRecursively(entry.toPath(), RecursiveDeleteOption.ALLOW_INSECURE);
+			}
+			catch (IOException e)
+			{
+				log.warn("unable to evict {}", entry, e);
+			}
+		}
+		if (!evict.isEmpty())
+		{
+			log.info("evicted {} of {} artifact cache entries", evict.size(), entries.length);
+		}
+	}
+
+	private static long size(File dir)
+	{
+		long size = 0;
+		File[] files = dir.listFiles();
+		if (files != null)
+		{
+			for (File file : files)
+			{
+				size += file.length();
+			}
+		}
+		return size;
+	}
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright (c) 2026 Abex
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.pluginhub.packager;
+
+import java.io.Closeable;
+
+/**
+ * Decides how many gradle builds may run at once
+ */
+interface BuildAdmission
+{
+	/**
+	 * @return the most builds this policy will ever allow to run at once
+	 */
+	int getMaxConcurrency();
+
+	/**
+	 * @return the most gradle daemons that may be alive at once. Idle daemons keep their
+	 * heap, so this can be less than {@link #getMaxConcurrency()}
+	 */
+	default int getMaxDaemons()
+	{
+		return getMaxConcurrency();
+	}
+
+	/**
+	 * Blocks until the plugin may start building
+	 *
+	 * @return closed once the build has finished
+	 */
+	Closeable acquire(String internalName);
+
+	static BuildAdmission fromEnvironment(BuildHistory history)
+	{
+		String policy = System.getenv("PACKAGE_BUILD_ADMISSION");
+		if ("fixed".equals(policy))
+		{
+			return new FixedAdmission(Runtime.getRuntime().availableProcessors());
+		}
+		else if (policy == null || policy.isEmpty() || "adaptive".equals(policy))
+		{
+			return new AdaptiveAdmission(new SystemResources(), history);
+		}
+		throw new IllegalArgumentException("unknown build admission policy \"" + policy + "\"");
+	}
+}
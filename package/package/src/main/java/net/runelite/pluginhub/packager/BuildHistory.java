@@ -0,0 +1,239 @@
+/*
+ * Copyright (c) 2026 Abex
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.pluginhub.packager;
+
+import com.google.common.io.Files;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.extern.slf4j.Slf4j;
+import net.runelite.pluginhub.uploader.PluginHubManifest;
+import net.runelite.pluginhub.uploader.Util;
+
+/**
+ * Per plugin stage timings and gradle resource use from previous runs, used to start
+ * the most expensive plugins first so they don't end up as the long tail of a full
+ * rebuild, and to predict what each build will need before admitting it
+ */
+@Slf4j
+class BuildHistory
+{
+	private static final String STAGE_APICHECK = "apicheck";
+	private static final String STAGE_BUILD = "build";
+
+	private static final String USAGE_HEAP = "heap";
+	private static final String USAGE_CPU = "cpu";
+
+	// internal name -> stage -> ms
+	private final Map<String, Map<String, Long>> timings = new ConcurrentHashMap<>();
+
+	// internal name -> heap bytes / cpu ms of the gradle build
+	private final Map<String, Map<String, Long>> usage = new ConcurrentHashMap<>();
+
+	static BuildHistory load(File file)
+	{
+		BuildHistory history = new BuildHistory();
+		if (!file.exists())
+		{
+			return history;
+		}
+
+		try
+		{
+			Data data = Util.GSON.fromJson(Files.asCharSource(file, StandardCharsets.UTF_8).read(), Data.class);
+			if (data != null && data.timings != null)
+			{
+				data.timings.forEach((name, stages) -> history.timings.put(name, new ConcurrentHashMap<>(stages)));
+			}
+			if (data != null && data.usage != null)
+			{
+				data.usage.forEach((name, usage) -> history.usage.put(name, new ConcurrentHashMap<>(usage)));
+			}
+		}
+		catch (IOException | RuntimeException e)
+		{
+			log.warn("unable to read build history", e);
+		}
+		return history;
+	}
+
+	void save(File file) throws IOException
+	{
+		Data data = new Data();
+		data.timings = new HashMap<>(timings);
+		data.usage = new HashMap<>(usage);
+
+		file.getParentFile().mkdirs();
+		// the cache can be shared by concurrent packagers, so let the filesystem pick the name
+		File tmp = File.createTempFile(file.getName() + ".tmp-", null, file.getParentFile());
+		try
+		{
+			Files.asCharSink(tmp, StandardCharsets.UTF_8).write(Util.GSON.toJson(data));
+			java.nio.file.Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		}
+		finally
+		{
+			tmp.delete();
+		}
+	}
+
+	void record(String internalName, String stage, long ms)
+	{
+		// average with the previous run so one slow run doesn't reorder everything
+		timings.computeIfAbsent(internalName, k -> new ConcurrentHashMap<>())
+			.merge(stage, ms, (a, b) -> (a + b) / 2);
+	}
+
+	void recordUsage(String internalName, long heapBytes, long cpuMS)
+	{
+		Map<String, Long> u = usage.computeIfAbsent(internalName, k -> new ConcurrentHashMap<>());
+		if (heapBytes > 0)
+		{
+			// heap use is bounded by -Xmx, so track the worst case instead of averaging
+			u.merge(USAGE_HEAP, heapBytes, Math::max);
+		}
+		if (cpuMS > 0)
+		{
+			u.merge(USAGE_CPU, cpuMS, (a, b) -> (a + b) / 2);
+		}
+	}
+
+	/**
+	 * @return the peak heap the plugin's gradle build used in previous runs, or -1 if unknown
+	 */
+	long expectedHeap(String internalName)
+	{
+		Map<String, Long> u = usage.get(internalName);
+		return u == null ? -1 : u.getOrDefault(USAGE_HEAP, -1L);
+	}
+
+	/**
+	 * @return the average number of cores the plugin's gradle build kept busy, or -1 if unknown
+	 */
+	double expectedCpus(String internalName)
+	{
+		Map<String, Long> u = usage.get(internalName);
+		Map<String, Long> stages = timings.get(internalName);
+		if (u == null || stages == null || !u.containsKey(USAGE_CPU) || stages.getOrDefault(STAGE_BUILD, 0L) <= 0)
+		{
+			return -1;
+		}
+		return (double) u.get(USAGE_CPU) / stages.get(STAGE_BUILD);
+	}
+
+	/**
+	 * @return the expected time spent holding download, build and upload workers, or -1 if unknown
+	 */
+	long expectedCost(String internalName)
+	{
+		Map<String, Long> stages = timings.get(internalName);
+		if (stages == null)
+		{
+			return -1;
+		}
+
+		long cost = 0;
+		for (Map.Entry<String, Long> e : stages.entrySet())
+		{
+			if (!STAGE_APICHECK.equals(e.getKey()))
+			{
+				cost += e.getValue();
+			}
+		}
+		return cost;
+	}
+
+	/**
+	 * Orders plugins longest job first. Plugins without history are estimated from the
+	 * size of their previous jar, scaled by the time per byte of plugins that have both
+	 */
+	List<File> order(List<File> plugins, Map<String, PluginHubManifest.JarData> jarData)
+	{
+		long knownCost = 0;
+		long knownSize = 0;
+		List<Long> costs = new ArrayList<>();
+		for (File plugin : plugins)
+		{
+			long cost = expectedCost(plugin.getName());
+			if (cost < 0)
+			{
+				continue;
+			}
+
+			costs.add(cost);
+			PluginHubManifest.JarData jar = jarData.get(plugin.getName());
+			if (jar != null && jar.getJarSize() > 0)
+			{
+				knownCost += cost;
+				knownSize += jar.getJarSize();
+			}
+		}
+
+		double msPerByte = knownSize > 0 ? (double) knownCost / knownSize : 0;
+		costs.sort(Comparator.naturalOrder());
+		long median = costs.isEmpty() ? 0 : costs.get(costs.size() / 2);
+
+		Map<String, Double> estimates = new HashMap<>();
+		for (File plugin : plugins)
+		{
+			double cost = expectedCost(plugin.getName());
+			if (cost < 0)
+			{
+				PluginHubManifest.JarData jar = jarData.get(plugin.getName());
+				if (jar != null && jar.getJarSize() > 0 && msPerByte > 0)
+				{
+					cost = jar.getJarSize() * msPerByte;
+				}
+				else if (jar != null && costs.isEmpty())
+				{
+					// with no history at all the sizes can still be compared with each other
+					cost = jar.getJarSize();
+				}
+				else
+				{
+					cost = median;
+				}
+			}
+			estimates.put(plugin.getName(), cost);
+		}
+
+		List<File> ordered = new ArrayList<>(plugins);
+		ordered.sort(Comparator.comparing((File f) -> estimates.get(f.getName())).reversed());
+		return ordered;
+	}
+
+	private static class Data
+	{
+		Map<String, Map<String, Long>> timings;
+		Map<String, Map<String, Long>> usage;
+	}
+}
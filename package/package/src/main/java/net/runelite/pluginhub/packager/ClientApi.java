@@ -0,0 +1,265 @@
+/*
+ * Copyright (c) 2026 Abex
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.pluginhub.packager;
+
+import com.google.common.base.Splitter;
+import com.google.common.base.Throwables;
+import com.google.common.io.Files;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import net.runelite.pluginhub.apirecorder.API;
+import net.runelite.pluginhub.apirecorder.BytecodeRecorder;
+import net.runelite.pluginhub.apirecorder.ClassRecorder;
+import net.runelite.pluginhub.uploader.Util;
+import org.gradle.tooling.GradleConnector;
+import org.gradle.tooling.ProjectConnection;
+
+/**
+ * The api of the client the plugins are built against. It is loaded from a snapshot kept per
+ * runelite version, or recorded in the background, so nothing waits on it until a plugin
+ * actually has to be checked against it
+ */
+@Slf4j
+class ClientApi
+{
+	private static final File SNAPSHOT_DIR = new File(Packager.CACHE_DIR, "client-api");
+	private static final File JAR_API_DIR = new File(Packager.CACHE_DIR, "jar-apis");
+
+	// the client's dependencies change with every release, so their apis aren't kept forever
+	private static final long JAR_API_MAX_AGE_MS = TimeUnit.DAYS.toMillis(30);
+
+	// "compact" maps the client api and probes it per symbol. "interned" decodes it once into
+	// symbol ids, which costs more at startup but makes comparing each plugin against it cheaper
+	private static final boolean INTERNED = parseApiEngine(System.getenv("PACKAGE_API_ENGINE"));
+
+	private static CompletableFuture<API> api;
+	private static CompletableFuture<Map<String, String>> disallowed;
+	private static BytecodeRecorder bytecodeRecorder;
+
+	/**
+	 * Starts loading the client api if it isn't already
+	 */
+	static synchronized CompletableFuture<API> load(String runeliteVersion)
+	{
+		if (api == null)
+		{
+			api = new CompletableFuture<>();
+			Thread t = new Thread(() ->
+			{
+				try
+				{
+					API current = loadOrRecord(runeliteVersion);
+					api.complete(INTERNED ? current.interned() : current);
+				}
+				catch (Throwable e)
+				{
+					api.completeExceptionally(e);
+				}
+			}, "client-api");
+			t.setDaemon(true);
+			t.start();
+
+			disallowed = api.thenApply(current ->
+			{
+				try (InputStream is = Packager.class.getResourceAsStream("disallowed-apis.txt"))
+				{
+					return current.parseCommented(is, false);
+				}
+				catch (IOException e)
+				{
+					throw new CompletionException(e);
+				}
+			});
+		}
+		return api;
+	}
+
+	/**
+	 * @return the client api, waiting for it to be loaded if it hasn't been yet
+	 */
+	static API get()
+	{
+		return join(load(readRLVersion()));
+	}
+
+	/**
+	 * @return the client's disallowed apis, and the reason for each
+	 */
+	static Map<String, String> disallowed()
+	{
+		get();
+		return join(disallowed);
+	}
+
+	/**
+	 * @return a recorder that records a plugin's api from its jar, for when javac's recording is partial
+	 */
+	static synchronized BytecodeRecorder bytecodeRecorder()
+	{
+		if (bytecodeRecorder == null)
+		{
+			bytecodeRecorder = new BytecodeRecorder(get());
+		}
+		return bytecodeRecorder;
+	}
+
+	/**
+	 * Decodes a plugin's api in the form that compares fastest against {@link #get()}
+	 */
+	static API decode(InputStream is)
+	{
+		API api = API.decode(is);
+		return INTERNED ? api.interned() : api;
+	}
+
+	/**
+	 * Removes cached jar apis that haven't been used recently, unless they are still being recorded
+	 */
+	static synchronized void evict()
+	{
+		if (api == null || api.isDone())
+		{
+			ClassRecorder.evictJarCache(JAR_API_DIR, JAR_API_MAX_AGE_MS);
+		}
+	}
+
+	private static <T> T join(CompletableFuture<T> future)
+	{
+		try
+		{
+			return future.join();
+		}
+		catch (CompletionException e)
+		{
+			Throwables.throwIfUnchecked(e.getCause());
+			throw new RuntimeException("unable to load the client api", e.getCause());
+		}
+	}
+
+	private static API loadOrRecord(String runeliteVersion) throws IOException
+	{
+		// snapshot versions can change without their version changing, so are always recorded
+		File snapshot = runeliteVersion.endsWith("-SNAPSHOT") ? null
+			: new File(SNAPSHOT_DIR, runeliteVersion + "-" + ClassRecorder.CACHE_VERSION + ".api");
+		if (snapshot != null && snapshot.exists())
+		{
+			try
+			{
+				return API.map(snapshot);
+			}
+			catch (IOException e)
+			{
+				log.warn("unable to read client api snapshot {}, recording it again", snapshot, e);
+			}
+		}
+
+		long start = System.nanoTime();
+		API api = ClassRecorder.recordJars(resolveClasspath(), JAR_API_DIR);
+		log.info("recorded client api for {} in {}ms", runeliteVersion, (System.nanoTime() - start) / 1_000_000);
+
+		if (snapshot != null)
+		{
+			SNAPSHOT_DIR.mkdirs();
+			// the cache can be shared by concurrent packagers, so let the filesystem pick the name
+			File tmp = File.createTempFile(snapshot.getName() + ".tmp-", null, SNAPSHOT_DIR);
+			try
+			{
+				try (OutputStream os = new FileOutputStream(tmp))
+				{
+					api.encodeCompact(os);
+				}
+				java.nio.file.Files.move(tmp.toPath(), snapshot.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			}
+			finally
+			{
+				tmp.delete();
+			}
+		}
+		return api;
+	}
+
+	/**
+	 * Resolves the client's jars through the tooling api, so they can be recorded in this jvm
+	 */
+	private static List<File> resolveClasspath() throws IOException
+	{
+		File classpathFile = new File(Packager.PACKAGE_ROOT, "apirecorder/build/runelite-classpath");
+		try (ProjectConnection con = GradleConnector.newConnector()
+			.forProjectDirectory(Packager.PACKAGE_ROOT)
+			.connect())
+		{
+			con.newBuild()
+				.forTasks(":apirecorder:runeliteClasspath")
+				.withArguments("--console=plain")
+				.setStandardOutput(System.out)
+				.setStandardError(System.err)
+				.run();
+		}
+
+		return Splitter.on('\n')
+			.omitEmptyStrings()
+			.splitToList(Files.asCharSource(classpathFile, StandardCharsets.UTF_8).read())
+			.stream()
+			.map(File::new)
+			.collect(Collectors.toList());
+	}
+
+	private static String readRLVersion()
+	{
+		try
+		{
+			return Util.readRLVersion();
+		}
+		catch (IOException e)
+		{
+			throw new RuntimeException(e);
+		}
+	}
+
+	private static boolean parseApiEngine(String engine)
+	{
+		if (engine == null || engine.isEmpty() || "compact".equals(engine))
+		{
+			return false;
+		}
+		else if ("interned".equals(engine))
+		{
+			return true;
+		}
+		throw new IllegalArgumentException("unknown api engine \"" + engine + "\"");
+	}
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 2026 Abex
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.pluginhub.packager;
+
+/**
+ * How a plugin's repository is downloaded
+ */
+enum DownloadMode
+{
+	/**
+	 * check the commit out from a {@link GitMirrorCache}
+	 */
+	MIRROR,
+
+	/**
+	 * fetch only the commit, falling back to {@link #CLONE} if the server refuses to fetch it by sha
+	 */
+	SHALLOW,
+
+	/**
+	 * clone the repository's commit graph and check the commit out
+	 */
+	CLONE;
+
+	static DownloadMode fromEnvironment()
+	{
+		String mode = System.getenv("PACKAGE_DOWNLOAD_MODE");
+		if (mode == null || mode.isEmpty() || "mirror".equals(mode))
+		{
+			return MIRROR;
+		}
+		else if ("shallow".equals(mode))
+		{
+			return SHALLOW;
+		}
+		else if ("clone".equals(mode))
+		{
+			return CLONE;
+		}
+		throw new IllegalArgumentException("unknown download mode \"" + mode + "\"");
+	}
+}
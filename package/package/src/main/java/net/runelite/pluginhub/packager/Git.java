@@ -0,0 +1,163 @@
+/*
+ * Copyright (c) 2026 Abex
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.pluginhub.packager;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nullable;
+
+/**
+ * Runs git for a plugin, with its output appended to the plugin's log
+ */
+class Git
+{
+	private Git()
+	{
+	}
+
+	/**
+	 * Clones the whole commit graph without any trees, then checks out the commit, which
+	 * fetches the trees and blobs it needs
+	 */
+	static void clone(String internalName, String repositoryURL, String commit, File directory, File logFile) throws IOException, PluginBuildException
+	{
+		run(internalName, null, logFile, 2, "clone",
+			"--config", "advice.detachedHead=false",
+			"--filter", "tree:0", "--no-checkout",
+			repositoryURL, directory.getAbsolutePath());
+		run(internalName, directory, logFile, 2, "checkout", commit + "^{commit}");
+	}
+
+	/**
+	 * Fetches only the commit itself, without any of its history, and checks it out
+	 *
+	 * @return false if the server refused to fetch the commit by its sha
+	 */
+	static boolean fetchCommit(String internalName, String repositoryURL, String commit, File directory, File logFile) throws IOException, PluginBuildException
+	{
+		run(internalName, null, logFile, 1, "init", "--quiet", directory.getAbsolutePath());
+		run(internalName, directory, logFile, 1, "remote", "add", "origin", repositoryURL);
+
+		int exit = exitCode(directory, logFile, 2, "fetch", "--depth", "1", "--no-tags", "origin", commit);
+		if (exit == -1)
+		{
+			throw PluginBuildException.of(internalName, "git fetch failed to complete in a reasonable time");
+		}
+		if (exit != 0)
+		{
+			return false;
+		}
+
+		run(internalName, directory, logFile, 2, "checkout", "--quiet", commit + "^{commit}");
+		return true;
+	}
+
+	/**
+	 * @param args the git command, starting with its subcommand
+	 */
+	static void run(String internalName, @Nullable File directory, File logFile, long timeoutMinutes, String... args) throws IOException, PluginBuildException
+	{
+		int exit = exitCode(directory, logFile, timeoutMinutes, args);
+		String name = "git " + args[0];
+		if (exit == -1)
+		{
+			throw PluginBuildException.of(internalName, name + " failed to complete in a reasonable time");
+		}
+		if (exit != 0)
+		{
+			throw PluginBuildException.of(internalName, name + " exited with " + exit);
+		}
+	}
+
+	/**
+	 * @return git's output, one line per entry. Errors are appended to the plugin's log
+	 */
+	static List<String> output(String internalName, @Nullable File directory, File logFile, long timeoutMinutes, String... args) throws IOException, PluginBuildException
+	{
+		File output = File.createTempFile("git-", ".out");
+		try
+		{
+			int exit = exitCode(directory, ProcessBuilder.Redirect.to(output), ProcessBuilder.Redirect.appendTo(logFile), timeoutMinutes, args);
+			String name = "git " + args[0];
+			if (exit == -1)
+			{
+				throw PluginBuildException.of(internalName, name + " failed to complete in a reasonable time");
+			}
+			if (exit != 0)
+			{
+				throw PluginBuildException.of(internalName, name + " exited with " + exit);
+			}
+			return Files.readAllLines(output.toPath(), StandardCharsets.UTF_8);
+		}
+		finally
+		{
+			output.delete();
+		}
+	}
+
+	/**
+	 * @return git's exit code, or -1 if it timed out
+	 */
+	static int exitCode(@Nullable File directory, @Nullable File logFile, long timeoutMinutes, String... args) throws IOException
+	{
+		ProcessBuilder.Redirect redirect = logFile != null
+			? ProcessBuilder.Redirect.appendTo(logFile)
+			: ProcessBuilder.Redirect.DISCARD;
+		return exitCode(directory, redirect, redirect, timeoutMinutes, args);
+	}
+
+	private static int exitCode(@Nullable File directory, ProcessBuilder.Redirect output, ProcessBuilder.Redirect error, long timeoutMinutes, String... args) throws IOException
+	{
+		List<String> command = new ArrayList<>();
+		command.add("git");
+		command.addAll(Arrays.asList(args));
+
+		Process process = new ProcessBuilder(command)
+			.directory(directory)
+			.redirectOutput(output)
+			.redirectError(error)
+			.start();
+		try
+		{
+			if (!process.waitFor(timeoutMinutes, TimeUnit.MINUTES))
+			{
+				process.destroy();
+				return -1;
+			}
+		}
+		catch (InterruptedException e)
+		{
+			process.destroy();
+			throw new RuntimeException(e);
+		}
+		return process.exitValue();
+	}
+}
@@ -0,0 +1,238 @@
+/*
+ * Copyright (c) 2026 Abex
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.pluginhub.packager;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Strings;
+import com.google.common.hash.Hashing;
+import com.google.common.io.MoreFiles;
+import com.google.common.io.RecursiveDeleteOption;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import javax.annotation.Nullable;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Bare mirrors of plugin repositories, keyed by repository url, which plugins are checked out
+ * from instead of cloning from GitHub every run. A mirror only fetches when it doesn't already
+ * have the commit a plugin needs, and fetches every branch when it does, so plugins that share
+ * a repository usually fetch once between them. Mirrors are partial clones, with only the
+ * blobs of commits that have been checked out, so a cold mirror doesn't download every blob
+ * in the repository's history.
+ */
+@Slf4j
+class GitMirrorCache
+{
+	private static final String PIN_PREFIX = "refs/pluginhub/";
+
+	// how many objects to fetch per git invocation, to stay well within the argument limit
+	private static final int FETCH_BATCH = 1000;
+
+	private final File root;
+	private final long maxAgeMS;
+
+	// mirrors are also locked on disk, but a jvm can only hold one lock per file
+	private final Map<String, ReentrantLock> locks = new ConcurrentHashMap<>();
+
+	@VisibleForTesting
+	final AtomicInteger fetches = new AtomicInteger();
+
+	GitMirrorCache(File root, long maxAgeMS)
+	{
+		this.root = root;
+		this.maxAgeMS = maxAgeMS;
+	}
+
+	/**
+	 * @return the cache, or null if PACKAGE_GIT_MIRROR_DAYS is 0
+	 */
+	@Nullable
+	static GitMirrorCache fromEnvironment()
+	{
+		long maxDays = Long.parseLong(MoreObjects.firstNonNull(Strings.emptyToNull(System.getenv("PACKAGE_GIT_MIRROR_DAYS")), "30"));
+		if (maxDays <= 0)
+		{
+			return null;
+		}
+		return new GitMirrorCache(new File(Packager.CACHE_DIR, "git-mirrors"), TimeUnit.DAYS.toMillis(maxDays));
+	}
+
+	/**
+	 * Checks out {@code commit} into {@code directory}, which shares the mirror's objects
+	 */
+	void checkout(String internalName, String repositoryURL, String commit, File directory, File logFile) throws IOException, PluginBuildException
+	{
+		File mirror = mirror(repositoryURL);
+		try (Closeable ignored = lock(mirror))
+		{
+			if (!new File(mirror, "HEAD").exists())
+			{
+				Git.run(internalName, null, logFile, 1, "init", "--quiet", "--bare", mirror.getAbsolutePath());
+				// a gc could repack objects out from under checkouts that are still using them
+				Git.run(internalName, mirror, logFile, 1, "config", "gc.auto", "0");
+			}
+
+			if (!hasCommit(mirror, commit))
+			{
+				fetches.incrementAndGet();
+				Git.run(internalName, mirror, logFile, 5, "fetch", "--no-tags", "--filter=blob:none", repositoryURL, "+refs/heads/*:refs/heads/*", commit);
+				if (!hasCommit(mirror, commit))
+				{
+					throw PluginBuildException.of(internalName, "commit {} is not in {}", commit, repositoryURL);
+				}
+			}
+
+			fetchBlobs(internalName, mirror, repositoryURL, commit, logFile);
+
+			// keep the commit even if its branch is force pushed away
+			Git.run(internalName, mirror, logFile, 1, "update-ref", PIN_PREFIX + commit, commit);
+			mirror.setLastModified(System.currentTimeMillis());
+		}
+
+		Git.run(internalName, null, logFile, 2, "clone", "--quiet", "--shared", "--no-checkout", mirror.getAbsolutePath(), directory.getAbsolutePath());
+		Git.run(internalName, directory, logFile, 1, "remote", "set-url", "origin", repositoryURL);
+		Git.run(internalName, directory, logFile, 2, "checkout", "--quiet", commit + "^{commit}");
+	}
+
+	/**
+	 * Removes mirrors that haven't been used within the max age
+	 */
+	void evict()
+	{
+		File[] mirrors = root.listFiles(f -> f.isDirectory() && f.getName().endsWith(".git"));
+		if (mirrors == null)
+		{
+			return;
+		}
+
+		long now = System.currentTimeMillis();
+		for (File mirror : mirrors)
+		{
+			if (now - mirror.lastModified() <= maxAgeMS)
+			{
+				continue;
+			}
+
+			try (Closeable ignored = lock(mirror))
+			{
+				MoreFiles.deleteRecursively(mirror.toPath(), RecursiveDeleteOption.ALLOW_INSECURE);
+			}
+			catch (IOException e)
+			{
+				log.warn("unable to evict git mirror {}", mirror, e);
+			}
+		}
+	}
+
+	@VisibleForTesting
+	File mirror(String repositoryURL)
+	{
+		String key = Hashing.sha256().hashString(repositoryURL, StandardCharsets.UTF_8).toString().substring(0, 16);
+		return new File(root, key + ".git");
+	}
+
+	private Closeable lock(File mirror) throws IOException
+	{
+		ReentrantLock lock = locks.computeIfAbsent(mirror.getName(), k -> new ReentrantLock());
+		lock.lock();
+		try
+		{
+			root.mkdirs();
+			FileChannel channel = FileChannel.open(new File(root, mirror.getName() + ".lock").toPath(),
+				StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+			FileLock fileLock;
+			try
+			{
+				fileLock = channel.lock();
+			}
+			catch (IOException | RuntimeException e)
+			{
+				channel.close();
+				throw e;
+			}
+
+			return () ->
+			{
+				try
+				{
+					fileLock.release();
+					channel.close();
+				}
+				finally
+				{
+					lock.unlock();
+				}
+			};
+		}
+		catch (IOException | RuntimeException e)
+		{
+			lock.unlock();
+			throw e;
+		}
+	}
+
+	/**
+	 * Fetches the blobs the commit's tree needs which the mirror doesn't have yet, so the
+	 * checkout can use the mirror's objects without talking to the remote
+	 */
+	private static void fetchBlobs(String internalName, File mirror, String repositoryURL, String commit, File logFile) throws IOException, PluginBuildException
+	{
+		List<String> missing = new ArrayList<>();
+		for (String line : Git.output(internalName, mirror, logFile, 2, "rev-list", "--objects", "--missing=print", commit + "^{tree}"))
+		{
+			if (line.startsWith("?"))
+			{
+				missing.add(line.substring(1));
+			}
+		}
+
+		for (int i = 0; i < missing.size(); i += FETCH_BATCH)
+		{
+			List<String> args = new ArrayList<>(Arrays.asList("fetch", "--quiet", "--no-tags", "--no-write-fetch-head", repositoryURL));
+			args.addAll(missing.subList(i, Math.min(missing.size(), i + FETCH_BATCH)));
+			Git.run(internalName, mirror, logFile, 5, args.toArray(new String[0]));
+		}
+	}
+
+	private static boolean hasCommit(File mirror, String commit) throws IOException
+	{
+		// cat-file would lazily fetch a missing commit from the mirror's promisor remote
+		return Git.exitCode(mirror, null, 1, "rev-list", "--no-walk", "--missing=print", commit + "^{commit}") == 0;
+	}
+}
@@ -0,0 +1,333 @@
+/*
+ * Copyright (c) 2026 Abex
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.pluginhub.packager;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Strings;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.gradle.tooling.GradleConnector;
+import org.gradle.tooling.ProjectConnection;
+import org.gradle.tooling.internal.consumer.DefaultGradleConnector;
+
+/**
+ * A fixed set of gradle daemons owned by the packager. Each daemon has its own registry
+ * so gradle can never hand it to another build, is warmed up before its first plugin,
+ * and is replaced once it has run too many builds or its heap stops getting collected.
+ * Warmups are builds too, so they wait on the same {@link BuildAdmission} as plugins.
+ */
+@Slf4j
+class GradleDaemonPool implements Closeable
+{
+	private static final int DEFAULT_MAX_BUILDS = 25;
+
+	// replace daemons once this much of -Xmx is still live after a collection
+	private static final long MAX_RETAINED_HEAP = Plugin.GRADLE_HEAP_MIB * 1024L * 1024L * 6 / 10;
+
+	// if the packager dies the daemons stop themselves shortly after
+	private static final int IDLE_TIMEOUT_MINUTES = 10;
+
+	// what warmups are weighed as by the build admission
+	static final String WARMUP_NAME = "_warmup";
+
+	private final String runeliteVersion;
+	private final int maxBuilds;
+	private final BuildAdmission admission;
+	private final File root;
+
+	private final List<Daemon> daemons = new ArrayList<>();
+	private final BlockingDeque<Daemon> idle = new LinkedBlockingDeque<>();
+	private final ExecutorService warmer;
+
+	private volatile boolean closed;
+
+	private static volatile boolean warnedNotIsolated;
+
+	GradleDaemonPool(int size, int maxBuilds, String runeliteVersion, BuildAdmission admission)
+	{
+		this.runeliteVersion = runeliteVersion;
+		this.maxBuilds = maxBuilds;
+		this.admission = admission;
+		this.root = new File(Plugin.TMP_ROOT, "_daemons");
+
+		int warm = Math.min(size, Runtime.getRuntime().availableProcessors());
+		this.warmer = Executors.newFixedThreadPool(Math.max(warm, 1), r ->
+		{
+			Thread t = new Thread(r, "daemon-warmup");
+			t.setDaemon(true);
+			return t;
+		});
+
+		for (int i = 0; i < size; i++)
+		{
+			Daemon daemon = new Daemon(i);
+			daemons.add(daemon);
+			if (i < warm)
+			{
+				warmer.execute(() -> warmUp(daemon));
+			}
+			else
+			{
+				idle.addLast(daemon);
+			}
+		}
+	}
+
+	static GradleDaemonPool fromEnvironment(BuildAdmission admission, String runeliteVersion)
+	{
+		// idle daemons keep their heap, so there can't be more than the admission can hold at once
+		int defaultSize = admission.getMaxDaemons();
+		int size = Integer.parseInt(MoreObjects.firstNonNull(Strings.emptyToNull(System.getenv("PACKAGE_GRADLE_DAEMONS")), "" + defaultSize));
+		int maxBuilds = Integer.parseInt(MoreObjects.firstNonNull(Strings.emptyToNull(System.getenv("PACKAGE_GRADLE_DAEMON_BUILDS")), "" + DEFAULT_MAX_BUILDS));
+		if (size < 1 || maxBuilds < 1)
+		{
+			throw new IllegalArgumentException("gradle daemon pool must have at least one daemon and build");
+		}
+		return new GradleDaemonPool(size, maxBuilds, runeliteVersion, admission);
+	}
+
+	/**
+	 * Blocks until a daemon is free. The caller has it to itself until it calls {@link Daemon#release}.
+	 * Warmups hold a daemon while they wait to be admitted, so this must be called before
+	 * {@link BuildAdmission#acquire}, otherwise builds could take every slot waiting for them.
+	 */
+	Daemon acquire()
+	{
+		try
+		{
+			// warmed daemons are returned to the front, so they get used before cold ones
+			return idle.takeFirst();
+		}
+		catch (InterruptedException e)
+		{
+			throw new RuntimeException(e);
+		}
+	}
+
+	private void warmUp(Daemon daemon)
+	{
+		try (Closeable ignored = admission.acquire(WARMUP_NAME))
+		{
+			if (!daemon.check())
+			{
+				log.warn("{} failed its health check, replacing it", daemon);
+				daemon.recycle();
+				if (!daemon.check())
+				{
+					log.warn("{} failed its health check again, using it cold", daemon);
+					daemon.recycle();
+				}
+			}
+		}
+		catch (IOException e)
+		{
+			throw new UncheckedIOException(e);
+		}
+		finally
+		{
+			idle.addFirst(daemon);
+		}
+	}
+
+	/**
+	 * Gives the connector's daemon its own registry, so gradle never hands it to another
+	 * connector, and a shorter idle timeout. The public tooling api can't do either, so
+	 * without the internal connector the pool still works, but gradle may share its daemons.
+	 */
+	private static void isolate(GradleConnector connector, File daemonBaseDir)
+	{
+		try
+		{
+			DefaultGradleConnector internal = (DefaultGradleConnector) connector;
+			internal.daemonBaseDir(daemonBaseDir);
+			internal.daemonMaxIdleTime(IDLE_TIMEOUT_MINUTES, TimeUnit.MINUTES);
+		}
+		catch (ClassCastException | LinkageError e)
+		{
+			if (!warnedNotIsolated)
+			{
+				warnedNotIsolated = true;
+				log.warn("unable to give gradle daemons their own registry, they may be shared", e);
+			}
+		}
+	}
+
+	@Override
+	public void close()
+	{
+		closed = true;
+		warmer.shutdownNow();
+		for (Daemon daemon : daemons)
+		{
+			daemon.disconnect();
+		}
+	}
+
+	class Daemon
+	{
+		private final int slot;
+
+		private int generation;
+		private GradleConnector connector;
+
+		private int builds;
+		private boolean used;
+
+		private Daemon(int slot)
+		{
+			this.slot = slot;
+			this.connector = newConnector();
+		}
+
+		private GradleConnector newConnector()
+		{
+			GradleConnector connector = GradleConnector.newConnector();
+			connector.useInstallation(Plugin.GRADLE_HOME);
+			isolate(connector, new File(root, slot + "-" + generation));
+			return connector;
+		}
+
+		ProjectConnection connect(File projectDirectory)
+		{
+			builds++;
+			used = true;
+			return connector.forProjectDirectory(projectDirectory).connect();
+		}
+
+		/**
+		 * Returns the daemon to the pool
+		 *
+		 * @param heapRetained the daemon's heap after the build, or -1 if the build didn't get far enough to report it
+		 */
+		void release(long heapRetained)
+		{
+			if (closed)
+			{
+				return;
+			}
+
+			boolean ran = used;
+			used = false;
+			if (builds >= maxBuilds || heapRetained > MAX_RETAINED_HEAP)
+			{
+				log.info("{} has run {} builds and retains {} MiB, replacing it", this, builds, heapRetained >> 20);
+				recycle();
+				warmer.execute(() -> warmUp(this));
+			}
+			else if (ran && heapRetained < 0)
+			{
+				// the build broke before the init script finished, which is usually the plugin's
+				// fault, but could be the daemon's, so make sure it still builds before reusing it
+				warmer.execute(() -> warmUp(this));
+			}
+			else
+			{
+				idle.addFirst(this);
+			}
+		}
+
+		/**
+		 * Builds a trivial project with the same arguments as a plugin, which loads and JITs
+		 * the java plugin, javac and the api recorder before a real plugin has to wait on them
+		 *
+		 * @return if the daemon built it successfully
+		 */
+		private boolean check()
+		{
+			File project = new File(root, "warmup-" + slot);
+			File buildDirectory = new File(project, "out");
+			File stats = new File(buildDirectory, "stats.properties");
+			try
+			{
+				File source = new File(project, "src/main/java/Warmup.java");
+				source.getParentFile().mkdirs();
+				buildDirectory.mkdirs();
+				stats.delete();
+				com.google.common.io.Files.asCharSink(new File(project, "settings.gradle"), StandardCharsets.UTF_8)
+					.write("rootProject.name = 'warmup'\n");
+				com.google.common.io.Files.asCharSink(new File(project, "build.gradle"), StandardCharsets.UTF_8)
+					.write("");
+				com.google.common.io.Files.asCharSink(source, StandardCharsets.UTF_8)
+					.write("public class Warmup\n{\n\tpublic static void main(String[] args)\n\t{\n\t\tSystem.out.println(args.length);\n\t}\n}\n");
+
+				long start = System.nanoTime();
+				try (ProjectConnection con = connector.forProjectDirectory(project).connect())
+				{
+					Plugin.newBuild(con, buildDirectory, runeliteVersion)
+						.forTasks("runelitePluginHubPackage", "runelitePluginHubManifest")
+						.run();
+				}
+				log.debug("{} warmed up in {}ms", this, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+				return stats.exists();
+			}
+			catch (IOException | RuntimeException e)
+			{
+				if (!closed)
+				{
+					log.warn("{} warmup failed", this, e);
+				}
+				return false;
+			}
+		}
+
+		private void recycle()
+		{
+			disconnect();
+			generation++;
+			builds = 0;
+			connector = newConnector();
+		}
+
+		private void disconnect()
+		{
+			try
+			{
+				// stops the daemon this connector started, instead of leaving it to idle out
+				connector.disconnect();
+			}
+			catch (RuntimeException e)
+			{
+				log.warn("unable to stop {}", this, e);
+			}
+		}
+
+		@Override
+		public String toString()
+		{
+			return "gradle daemon " + slot + "." + generation;
+		}
+	}
+}
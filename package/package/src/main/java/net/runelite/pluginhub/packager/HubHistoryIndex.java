@@ -0,0 +1,245 @@
+/*
+ * Copyright (c) 2026 Abex
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.pluginhub.packager;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.io.ByteStreams;
+import com.google.common.io.Files;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nullable;
+import lombok.extern.slf4j.Slf4j;
+import net.runelite.pluginhub.uploader.Util;
+
+/**
+ * The first and last commit times of every file in the plugin hub, read from a single walk of
+ * its history instead of a {@code git log --follow} per plugin. Renames are followed the same
+ * way, so a renamed descriptor keeps the history of its old name. The index is cached against
+ * the commit it was built from.
+ */
+@Slf4j
+class HubHistoryIndex
+{
+	private static final Map<File, HubHistoryIndex> INDEXES = new HashMap<>();
+
+	private final File root;
+	private final String head;
+
+	// path -> {last commit time, first commit time}
+	private final Map<String, long[]> dates;
+
+	private HubHistoryIndex(File root, String head, Map<String, long[]> dates)
+	{
+		this.root = root;
+		this.head = head;
+		this.dates = dates;
+	}
+
+	/**
+	 * @return the index of the repository containing {@code directory}, shared by everything in it
+	 */
+	static synchronized HubHistoryIndex forDirectory(File directory) throws IOException
+	{
+		File key = directory.getCanonicalFile();
+		HubHistoryIndex index = INDEXES.get(key);
+		if (index == null)
+		{
+			index = load(key, new File(Packager.CACHE_DIR, "hub-history.json"));
+			INDEXES.put(key, index);
+		}
+		return index;
+	}
+
+	@VisibleForTesting
+	static HubHistoryIndex load(File directory, File cacheFile) throws IOException
+	{
+		File root = new File(git(directory, "rev-parse", "--show-toplevel").trim()).getCanonicalFile();
+		String head = git(root, "rev-parse", "HEAD").trim();
+
+		if (cacheFile.exists())
+		{
+			try
+			{
+				Data data = Util.GSON.fromJson(Files.asCharSource(cacheFile, StandardCharsets.UTF_8).read(), Data.class);
+				if (data != null && head.equals(data.head) && data.dates != null)
+				{
+					return new HubHistoryIndex(root, head, data.dates);
+				}
+			}
+			catch (IOException | RuntimeException e)
+			{
+				log.warn("unable to read the hub history cache", e);
+			}
+		}
+
+		long start = System.nanoTime();
+		HubHistoryIndex index = build(root, head);
+		log.info("indexed the history of {} files in {}ms", index.dates.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+
+		try
+		{
+			Data data = new Data();
+			data.head = head;
+			data.dates = index.dates;
+
+			cacheFile.getParentFile().mkdirs();
+			// the cache can be shared by concurrent packagers, so let the filesystem pick the name
+			File tmp = File.createTempFile(cacheFile.getName() + ".tmp-", null, cacheFile.getParentFile());
+			try
+			{
+				Files.asCharSink(tmp, StandardCharsets.UTF_8).write(Util.GSON.toJson(data));
+				java.nio.file.Files.move(tmp.toPath(), cacheFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			}
+			finally
+			{
+				tmp.delete();
+			}
+		}
+		catch (IOException e)
+		{
+			log.warn("unable to save the hub history cache", e);
+		}
+		return index;
+	}
+
+	private static HubHistoryIndex build(File root, String head) throws IOException
+	{
+		Process p = new ProcessBuilder("git", "-c", "core.quotePath=false", "log", "-M", "--name-status", "--format=%x00%ct", head)
+			.directory(root)
+			.redirectError(ProcessBuilder.Redirect.INHERIT)
+			.start();
+
+		Map<String, long[]> dates;
+		try (BufferedReader br = new BufferedReader(new InputStreamReader(p.getInputStream(), StandardCharsets.UTF_8)))
+		{
+			dates = parse(br);
+		}
+
+		try
+		{
+			if (p.waitFor() != 0)
+			{
+				throw new IOException("git log exited with " + p.exitValue());
+			}
+		}
+		catch (InterruptedException e)
+		{
+			throw new RuntimeException(e);
+		}
+		return new HubHistoryIndex(root, head, dates);
+	}
+
+	/**
+	 * Reads a {@code git log --name-status} stream, newest commit first. A rename hands the old
+	 * path over to the file's newest path, so older commits to the old path count towards it.
+	 */
+	private static Map<String, long[]> parse(BufferedReader log) throws IOException
+	{
+		Map<String, long[]> dates = new HashMap<>();
+		Map<String, String> renamedTo = new HashMap<>();
+		long time = 0;
+		for (String line; (line = log.readLine()) != null; )
+		{
+			if (line.isEmpty())
+			{
+				continue;
+			}
+			if (line.charAt(0) == '\0')
+			{
+				time = Long.parseLong(line.substring(1));
+				continue;
+			}
+
+			String[] parts = line.split("\t");
+			String path = parts[parts.length - 1];
+			String key = renamedTo.getOrDefault(path, path);
+
+			long[] d = dates.get(key);
+			if (d == null)
+			{
+				dates.put(key, new long[]{time, time});
+			}
+			else
+			{
+				d[1] = time;
+			}
+
+			if (line.charAt(0) == 'R' && parts.length == 3)
+			{
+				renamedTo.put(parts[1], key);
+			}
+		}
+		return dates;
+	}
+
+	/**
+	 * @return the last and first commit times of the file, or null if it has never been committed
+	 */
+	@Nullable
+	long[] dates(File file) throws IOException
+	{
+		String path = root.toPath().relativize(file.getCanonicalFile().toPath()).toString().replace('\\', '/');
+		long[] d = dates.get(path);
+		return d == null ? null : d.clone();
+	}
+
+	private static String git(File directory, String... args) throws IOException
+	{
+		String[] command = new String[args.length + 1];
+		command[0] = "git";
+		System.arraycopy(args, 0, command, 1, args.length);
+
+		Process p = new ProcessBuilder(command)
+			.directory(directory)
+			.redirectError(ProcessBuilder.Redirect.INHERIT)
+			.start();
+		String out = new String(ByteStreams.toByteArray(p.getInputStream()), StandardCharsets.UTF_8);
+		try
+		{
+			if (p.waitFor() != 0)
+			{
+				throw new IOException("git " + args[0] + " exited with " + p.exitValue());
+			}
+		}
+		catch (InterruptedException e)
+		{
+			throw new RuntimeException(e);
+		}
+		return out;
+	}
+
+	private static class Data
+	{
+		String head;
+		Map<String, long[]> dates;
+	}
+}
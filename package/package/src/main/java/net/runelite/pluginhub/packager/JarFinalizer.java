@@ -0,0 +1,355 @@
+/*
+ * Copyright (c) 2026 Abex
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.pluginhub.packager;
+
+import com.google.common.base.Optional;
+import com.google.common.io.ByteSource;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DataFormatException;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+
+/**
+ * Copies a jar's entries as their raw compressed bytes, so nothing is inflated and deflated
+ * again, and appends new entries after them. Only the central directory is rewritten, since
+ * the entries move. The output only depends on the input and the added entries. Entries can
+ * be inspected as they are copied, so a jar only has to be read once
+ */
+class JarFinalizer implements Closeable
+{
+	private static final int ZIP64_LOCATOR = 0x07064b50;
+
+	private final ByteBuffer source;
+	private final int sourceEntries;
+	private final int sourceDirectory;
+	private final int sourceDirectoryEnd;
+
+	private final ZipWriter out;
+	private final Set<String> names = new HashSet<>();
+
+	JarFinalizer(File source, OutputStream out) throws IOException
+	{
+		try (FileChannel channel = FileChannel.open(source.toPath(), StandardOpenOption.READ))
+		{
+			this.source = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size())
+				.order(ByteOrder.LITTLE_ENDIAN);
+		}
+		this.out = new ZipWriter(out);
+
+		int end = findEnd(this.source);
+		if (end >= 20 && this.source.getInt(end - 20) == ZIP64_LOCATOR)
+		{
+			throw new ZipException("zip64 jars are not supported");
+		}
+		if (u16(end + 4) != 0 || u16(end + 6) != 0)
+		{
+			throw new ZipException("multi-disk jars are not supported");
+		}
+
+		sourceEntries = u16(end + 10);
+		long size = u32(end + 12);
+		long offset = u32(end + 16);
+		if (offset + size > end)
+		{
+			throw new ZipException("invalid central directory");
+		}
+		sourceDirectory = (int) offset;
+		sourceDirectoryEnd = (int) (offset + size);
+	}
+
+	interface EntryVisitor
+	{
+		/**
+		 * Called after each entry is copied. {@code data} is only inflated if it is read
+		 */
+		void visit(String name, ByteSource data) throws IOException;
+	}
+
+	/**
+	 * Copies every entry of the source jar, in the order of its central directory
+	 */
+	void copyEntries() throws IOException
+	{
+		copyEntries((name, data) ->
+		{
+		});
+	}
+
+	/**
+	 * Copies every entry of the source jar, in the order of its central directory, letting
+	 * {@code visitor} read each entry from the same mapping the copy is made from
+	 */
+	void copyEntries(EntryVisitor visitor) throws IOException
+	{
+		List<Integer> headers = new ArrayList<>(sourceEntries);
+		List<Integer> localOffsets = new ArrayList<>(sourceEntries);
+		for (int pos = sourceDirectory; pos < sourceDirectoryEnd; )
+		{
+			if (pos + ZipWriter.CENTRAL_HEADER_SIZE > sourceDirectoryEnd || source.getInt(pos) != ZipWriter.CENTRAL_HEADER)
+			{
+				throw new ZipException("invalid central directory header");
+			}
+			if (u32(pos + 20) == 0xFFFFFFFFL || u32(pos + 24) == 0xFFFFFFFFL || u32(pos + 42) == 0xFFFFFFFFL)
+			{
+				throw new ZipException("zip64 jars are not supported");
+			}
+
+			headers.add(pos);
+			localOffsets.add((int) u32(pos + 42));
+			pos += ZipWriter.CENTRAL_HEADER_SIZE + u16(pos + 28) + u16(pos + 30) + u16(pos + 32);
+		}
+		if (headers.size() != sourceEntries)
+		{
+			throw new ZipException("central directory has " + headers.size() + " entries, expected " + sourceEntries);
+		}
+
+		// an entry's local record runs up to the next one, which includes any data descriptor after it
+		List<Integer> sortedOffsets = new ArrayList<>(localOffsets);
+		sortedOffsets.sort(null);
+
+		byte[] buf = new byte[64 * 1024];
+		for (int i = 0; i < headers.size(); i++)
+		{
+			int header = headers.get(i);
+			int local = localOffsets.get(i);
+			int next = Collections.binarySearch(sortedOffsets, local) + 1;
+			int localEnd = next < sortedOffsets.size() ? sortedOffsets.get(next) : sourceDirectory;
+			if (local + ZipWriter.LOCAL_HEADER_SIZE > localEnd || source.getInt(local) != ZipWriter.LOCAL_HEADER)
+			{
+				throw new ZipException("invalid local header");
+			}
+
+			int nameLength = u16(header + 28);
+			String name = string(header + ZipWriter.CENTRAL_HEADER_SIZE, nameLength);
+			if (!names.add(name))
+			{
+				throw new ZipException("duplicate entry: " + name);
+			}
+
+			int headerLength = ZipWriter.CENTRAL_HEADER_SIZE + nameLength + u16(header + 30) + u16(header + 32);
+			byte[] cd = new byte[headerLength];
+			source.duplicate().position(header).get(cd);
+			out.beginCopiedEntry(cd);
+			copy(local, localEnd - local, buf);
+
+			visitor.visit(name, new EntrySource(name, header, local, localEnd));
+		}
+	}
+
+	/**
+	 * Appends a deflated entry
+	 */
+	void add(String name, byte[] data) throws IOException
+	{
+		if (!names.add(name))
+		{
+			throw new ZipException("duplicate entry: " + name);
+		}
+
+		ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+		Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+		try (DeflaterOutputStream dos = new DeflaterOutputStream(compressed, deflater))
+		{
+			dos.write(data);
+		}
+		finally
+		{
+			deflater.end();
+		}
+
+		CRC32 crc = new CRC32();
+		crc.update(data);
+
+		out.addEntry(name.getBytes(StandardCharsets.UTF_8), ZipWriter.METHOD_DEFLATED, (int) crc.getValue(), data.length, compressed.toByteArray());
+	}
+
+	/**
+	 * Writes the central directory
+	 */
+	@Override
+	public void close() throws IOException
+	{
+		out.close();
+	}
+
+	private void copy(int offset, int length, byte[] buf) throws IOException
+	{
+		ByteBuffer b = source.duplicate();
+		b.position(offset);
+		for (int remaining = length; remaining > 0; )
+		{
+			int n = Math.min(remaining, buf.length);
+			b.get(buf, 0, n);
+			out.output().write(buf, 0, n);
+			remaining -= n;
+		}
+	}
+
+	private class EntrySource extends ByteSource
+	{
+		private final String name;
+		private final int method;
+		private final long crc;
+		private final int dataStart;
+		private final int compressedSize;
+		private final int size;
+
+		EntrySource(String name, int header, int local, int localEnd) throws ZipException
+		{
+			this.name = name;
+			this.method = u16(header + 10);
+			this.crc = u32(header + 16);
+			this.compressedSize = (int) u32(header + 20);
+			this.size = (int) u32(header + 24);
+			this.dataStart = local + ZipWriter.LOCAL_HEADER_SIZE + u16(local + 26) + u16(local + 28);
+			if (compressedSize < 0 || size < 0 || dataStart + compressedSize > localEnd)
+			{
+				throw new ZipException("invalid entry size: " + name);
+			}
+		}
+
+		@Override
+		public Optional<Long> sizeIfKnown()
+		{
+			return Optional.of((long) size);
+		}
+
+		@Override
+		public InputStream openStream() throws IOException
+		{
+			return new ByteArrayInputStream(read());
+		}
+
+		@Override
+		public byte[] read() throws IOException
+		{
+			ByteBuffer compressed = source.duplicate();
+			compressed.position(dataStart).limit(dataStart + compressedSize);
+
+			byte[] data = new byte[size];
+			if (method == ZipWriter.METHOD_STORED)
+			{
+				if (compressedSize != size)
+				{
+					throw new ZipException("invalid entry size: " + name);
+				}
+				compressed.get(data);
+			}
+			else if (method == ZipWriter.METHOD_DEFLATED)
+			{
+				Inflater inflater = new Inflater(true);
+				try
+				{
+					inflater.setInput(compressed);
+					int n = 0;
+					while (n < size && !inflater.finished())
+					{
+						int r = inflater.inflate(data, n, size - n);
+						if (r == 0 && (inflater.needsInput() || inflater.needsDictionary()))
+						{
+							break;
+						}
+						n += r;
+					}
+					if (n != size)
+					{
+						throw new ZipException("invalid entry size: " + name);
+					}
+				}
+				catch (DataFormatException e)
+				{
+					throw new ZipException("invalid entry data: " + name + ": " + e.getMessage());
+				}
+				finally
+				{
+					inflater.end();
+				}
+			}
+			else
+			{
+				throw new ZipException("unsupported compression method " + method + ": " + name);
+			}
+
+			CRC32 check = new CRC32();
+			check.update(data);
+			if (check.getValue() != crc)
+			{
+				throw new ZipException("invalid entry crc: " + name);
+			}
+			return data;
+		}
+	}
+
+	private String string(int offset, int length)
+	{
+		byte[] b = new byte[length];
+		source.duplicate().position(offset).get(b);
+		return new String(b, StandardCharsets.UTF_8);
+	}
+
+	private int u16(int offset)
+	{
+		return source.getShort(offset) & 0xFFFF;
+	}
+
+	private long u32(int offset)
+	{
+		return source.getInt(offset) & 0xFFFFFFFFL;
+	}
+
+	private static int findEnd(ByteBuffer source) throws ZipException
+	{
+		// the end record is followed by a comment of up to 64KiB
+		int min = Math.max(0, source.limit() - ZipWriter.END_SIZE - 0xFFFF);
+		for (int pos = source.limit() - ZipWriter.END_SIZE; pos >= min; pos--)
+		{
+			if (source.getInt(pos) == ZipWriter.END_OF_CENTRAL_DIRECTORY
+				&& pos + ZipWriter.END_SIZE + (source.getShort(pos + 20) & 0xFFFF) == source.limit())
+			{
+				return pos;
+			}
+		}
+		throw new ZipException("not a zip file");
+	}
+}
@@ -24,11 +24,11 @@
  */
 package net.runelite.pluginhub.packager;
 
+import com.google.common.base.MoreObjects;
 import com.google.common.base.Splitter;
 import com.google.common.base.Stopwatch;
 import com.google.common.base.Strings;
 import com.google.common.collect.ImmutableMap;
-import com.google.common.collect.Queues;
 import com.google.common.io.ByteStreams;
 import com.google.common.io.Files;
 import java.io.BufferedReader;
@@ -40,23 +40,22 @@ import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
-import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
-import java.util.Queue;
-import java.util.concurrent.Semaphore;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
 import java.util.stream.Collectors;
-import java.util.stream.IntStream;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
+import javax.annotation.Nullable;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
+import net.runelite.pluginhub.uploader.ApiBundle;
 import net.runelite.pluginhub.uploader.ManifestDiff;
 import net.runelite.pluginhub.uploader.PluginHubManifest;
 import net.runelite.pluginhub.uploader.UploadConfiguration;
@@ -70,11 +69,14 @@ public class Packager implements Closeable
 	private static final File PLUGIN_ROOT = new File("./plugins");
 	public static final File PACKAGE_ROOT = new File("./package/").getAbsoluteFile();
 	private static final File ARTIFACT_DIR = new File("/tmp/jars");
+	public static final File CACHE_DIR = new File(MoreObjects.firstNonNull(
+		Strings.emptyToNull(System.getenv("PACKAGE_CACHE_DIR")),
+		System.getProperty("user.home") + "/.cache/runelite-pluginhub"));
+	private static final File HISTORY_FILE = new File(CACHE_DIR, "build-history.json");
 
-	private Semaphore apiCheckSemaphore = new Semaphore(8);
-	private Semaphore downloadSemaphore = new Semaphore(2);
-	private Semaphore buildSemaphore = new Semaphore(Runtime.getRuntime().availableProcessors());
-	private Semaphore uploadSemaphore = new Semaphore(2);
+	private static final int APICHECK_THREADS = 8;
+	private static final int DOWNLOAD_THREADS = 4;
+	private static final int UPLOAD_THREADS = 2;
 
 	private final List<File> buildList;
 
@@ -105,11 +107,35 @@ public class Packager implements Closeable
 
 	private ManifestDiff diff = new ManifestDiff();
 
+	private final BuildHistory history = BuildHistory.load(HISTORY_FILE);
+
+	private final BuildAdmission buildAdmission = BuildAdmission.fromEnvironment(history);
+
+	private GradleDaemonPool daemonPool;
+
+	@Nullable
+	private ArtifactCache artifactCache;
+
+	private DownloadMode downloadMode;
+
+	@Nullable
+	private GitMirrorCache gitMirrors;
+
+	@Nullable
+	private ApiBundle apiBundle;
+
+	@Nullable
+	private Set<String> apiAffected;
+
 	public Packager(List<File> buildList) throws IOException
 	{
 		this.buildList = buildList;
 		this.numTotal = buildList.size();
 		this.runeliteVersion = Util.readRLVersion();
+
+		// nothing needs the client api until the first plugin is checked against it,
+		// so load it while the manifest is fetched and the first plugins are downloaded
+		ClientApi.load(runeliteVersion);
 	}
 
 	public void buildPlugins() throws IOException
@@ -132,6 +158,30 @@ public class Packager implements Closeable
 			}
 		}
 
+		if (apiFilesVersion != null && isIncrementalRebuild)
+		{
+			try
+			{
+				File bundleFile = new File(CACHE_DIR, "api-bundles/" + apiFilesVersion + UploadConfiguration.API_BUNDLE_SUFFIX);
+				apiBundle = uploadConfig.getApiBundle(apiFilesVersion, bundleFile);
+				if (apiBundle == null)
+				{
+					log.info("No api bundle for {}, checking apis individually", apiFilesVersion);
+				}
+				else
+				{
+					// find the few plugins an api change can affect up front, so the rest
+					// don't have to compare their whole api against the client's
+					apiAffected = ApiIndex.load(apiBundle, new File(bundleFile.getPath() + ".index"))
+						.affectedBy(ClientApi.get());
+				}
+			}
+			catch (RuntimeException | IOException e)
+			{
+				log.info("Unable to load api bundle, checking apis individually", e);
+			}
+		}
+
 		if (uploadConfig.isComplete())
 		{
 			uploadConfig.mkdirs(uploadConfig.getRoot().newBuilder().addPathSegment(UploadConfiguration.DIR_JAR).build());
@@ -144,31 +194,57 @@ public class Packager implements Closeable
 
 		ARTIFACT_DIR.mkdirs();
 
-		Queue<File> buildQueue = Queues.synchronizedQueue(new ArrayDeque<>(buildList));
-		List<Thread> buildThreads = IntStream.range(0, 8)
-			.mapToObj(v ->
-			{
-				Thread t = new Thread(() ->
-				{
-					for (File plugin; (plugin = buildQueue.poll()) != null; )
-					{
-						buildPlugin(plugin);
-					}
-				});
-				t.start();
-				return t;
-			}).collect(Collectors.toList());
+		// every stage has its own workers and queue, so a slow clone or upload never holds
+		// a build slot, and downloads can run ahead while the build slots are busy.
+		// how many of the build workers actually run at once is up to buildAdmission
+		artifactCache = ArtifactCache.fromEnvironment(runeliteVersion, alwaysPrintLog);
+		downloadMode = DownloadMode.fromEnvironment();
+		gitMirrors = downloadMode == DownloadMode.MIRROR ? GitMirrorCache.fromEnvironment() : null;
+		if (downloadMode == DownloadMode.MIRROR && gitMirrors == null)
+		{
+			// the mirrors are turned off
+			downloadMode = DownloadMode.CLONE;
+		}
 
-		for (Thread buildThread : buildThreads)
+		int buildThreads = buildAdmission.getMaxConcurrency();
+		daemonPool = GradleDaemonPool.fromEnvironment(buildAdmission, runeliteVersion);
+		Stage<Plugin> upload = new Stage<>("upload", UPLOAD_THREADS, buildThreads,
+			p -> advance(p, null, this::uploadPlugin));
+		Stage<Plugin> build = new Stage<>("build", buildThreads, buildThreads,
+			p -> advance(p, upload, this::buildPlugin));
+		Stage<Plugin> download = new Stage<>("download", DOWNLOAD_THREADS, buildThreads,
+			p -> advance(p, build, this::downloadPlugin));
+		Stage<File> apiCheck = new Stage<>("apicheck", APICHECK_THREADS, APICHECK_THREADS,
+			plugin -> checkPlugin(plugin, download));
+
+		for (File plugin : history.order(buildList, oldJarData))
 		{
-			try
-			{
-				buildThread.join();
-			}
-			catch (InterruptedException e)
-			{
-				throw new RuntimeException(e);
-			}
+			apiCheck.submit(plugin);
+		}
+
+		apiCheck.close();
+		download.close();
+		build.close();
+		daemonPool.close();
+		upload.close();
+
+		if (artifactCache != null)
+		{
+			artifactCache.evict();
+		}
+		if (gitMirrors != null)
+		{
+			gitMirrors.evict();
+		}
+		ClientApi.evict();
+
+		try
+		{
+			history.save(HISTORY_FILE);
+		}
+		catch (IOException e)
+		{
+			log.warn("unable to save build history", e);
 		}
 
 		String diffJSON = Util.GSON.toJson(diff);
@@ -180,110 +256,19 @@ public class Packager implements Closeable
 		}
 	}
 
-	private void buildPlugin(File plugin)
+	private void checkPlugin(File plugin, Stage<Plugin> next)
 	{
 		diff.getRemove().add(plugin.getName());
 
-		if (!plugin.exists())
-		{
-			return;
-		}
-
-		try (Plugin p = new Plugin(plugin))
+		Plugin p = null;
+		try
 		{
-			try
+			if (!plugin.exists())
 			{
-				PluginHubManifest.JarData oldJarData = this.oldJarData.get(p.getInternalName());
-				if (isIncrementalRebuild && oldJarData != null)
-				{
-					try (Closeable ignored = acquireAPICheck(p))
-					{
-						if (!p.rebuildNeeded(uploadConfig, oldJarData))
-						{
-							diff.getCopyFromOld().add(p.getInternalName());
-							diff.getRemove().remove(p.getInternalName());
-							return;
-						}
-					}
-				}
-				try (Closeable ignored = acquireDownload(p))
-				{
-					p.download();
-				}
-				try (Closeable ignored = acquireBuild(p))
-				{
-					p.build(runeliteVersion, alwaysPrintLog);
-				}
-				String logURL = "";
-				if (uploadConfig.isComplete())
-				{
-					try (Closeable ignored = acquireUpload(p))
-					{
-						p.upload(uploadConfig);
-					}
-
-					// outside the semaphore so the timing gets uploaded too
-					logURL = p.uploadLog(uploadConfig);
-				}
-
-				p.copyArtifacts(ARTIFACT_DIR);
-
-				diff.getAddJarData().add(p.getJarData());
-				diff.getAddDisplayData().add(p.getDisplayData());
-				log.info("{}: done in {}ms [{}/{}]", p.getInternalName(), p.getBuildTimeMS(), numDone.get() + 1, numTotal);
-
-				if (!p.getApiFile().exists())
-				{
-					logToSummary("{} failed to write the api record: {}", p.getInternalName(), logURL);
-				}
+				return;
 			}
-			catch (PluginBuildException e)
-			{
-				failed = true;
-				p.writeLog("package failed\n", e);
-				if (!alwaysPrintLog)
-				{
-					Files.asCharSource(p.getLogFile(), StandardCharsets.UTF_8).copyTo(System.out);
-				}
-
-				PluginHubManifest.DisplayData oldDisplayData = this.oldDisplayData.get(p.getInternalName());
-
-				if (uploadConfig.isComplete())
-				{
-					String logURL = p.uploadLog(uploadConfig);
-					if (oldDisplayData != null && oldDisplayData.getBuildFailAt() != null)
-					{
-						long daysFailed = Instant.ofEpochSecond(oldDisplayData.getBuildFailAt()).until(Instant.now(), ChronoUnit.DAYS);
-						logToSummary("{} failed ({} days): {}", p.getInternalName(), daysFailed, logURL);
-					}
-					else
-					{
-						logToSummary("{} failed: {}", p.getInternalName(), logURL);
-					}
-				}
-				else
-				{
-					logToSummary("{} failed", p.getInternalName());
-				}
 
-				if (oldDisplayData != null)
-				{
-					if (oldDisplayData.getBuildFailAt() == null)
-					{
-						oldDisplayData.setBuildFailAt(Instant.now().getEpochSecond());
-					}
-
-					oldDisplayData.setUnavailableReason(null);
-					diff.getAddDisplayData().add(oldDisplayData);
-				}
-			}
-			finally
-			{
-				if (alwaysPrintLog)
-				{
-					Files.asCharSource(p.getLogFile(), StandardCharsets.UTF_8).copyTo(System.out);
-				}
-			}
+			p = new Plugin(plugin);
 		}
 		catch (DisabledPluginException e)
 		{
@@ -313,63 +298,247 @@ public class Packager implements Closeable
 		}
 		finally
 		{
-			numDone.addAndGet(1);
+			if (p == null)
+			{
+				numDone.addAndGet(1);
+			}
+		}
+
+		if (p != null)
+		{
+			advance(p, next, this::apiCheckPlugin);
 		}
 	}
 
-	private void logToSummary(String message, Object... args)
+	private boolean apiCheckPlugin(Plugin p) throws IOException
 	{
-		log.info(message, args);
-		FormattingTuple fmt = MessageFormatter.arrayFormat(message, args);
-		synchronized (buildSummary)
+		PluginHubManifest.JarData oldJarData = this.oldJarData.get(p.getInternalName());
+		if (isIncrementalRebuild && oldJarData != null)
 		{
-			buildSummary.append(fmt.getMessage()).append('\n');
+			try (Closeable ignored = section(p, "apicheck"))
+			{
+				if (!p.rebuildNeeded(uploadConfig, oldJarData, apiBundle, apiAffected))
+				{
+					diff.getCopyFromOld().add(p.getInternalName());
+					diff.getRemove().remove(p.getInternalName());
+					return false;
+				}
+			}
 		}
+		return true;
 	}
 
-	public String getBuildSummary()
+	private boolean downloadPlugin(Plugin p) throws IOException, PluginBuildException
 	{
-		return buildSummary.toString();
+		if (artifactCache != null)
+		{
+			try (Closeable ignored = section(p, "restore"))
+			{
+				if (p.restore(artifactCache))
+				{
+					return true;
+				}
+			}
+		}
+
+		try (Closeable ignored = section(p, "download"))
+		{
+			p.download(downloadMode, gitMirrors);
+		}
+		return true;
 	}
 
-	private Closeable acquireAPICheck(Plugin plugin)
+	private boolean buildPlugin(Plugin p) throws IOException, PluginBuildException
 	{
-		return section(plugin, "apicheck", apiCheckSemaphore);
+		if (p.isRestored())
+		{
+			return true;
+		}
+
+		// the daemon first, since warmups hold one while they wait to be admitted
+		GradleDaemonPool.Daemon daemon = daemonPool.acquire();
+		try
+		{
+			try (Closeable ignored = buildAdmission.acquire(p.getInternalName());
+				Closeable ignored2 = section(p, "build"))
+			{
+				p.build(runeliteVersion, alwaysPrintLog, daemon);
+			}
+		}
+		finally
+		{
+			daemon.release(p.getHeapRetained());
+		}
+		history.recordUsage(p.getInternalName(), p.getHeapPeak(), p.getCpuTimeMS());
+
+		if (artifactCache != null)
+		{
+			try
+			{
+				p.store(artifactCache);
+			}
+			catch (IOException e)
+			{
+				log.warn("{}: unable to store build in the artifact cache", p.getInternalName(), e);
+			}
+		}
+		return true;
 	}
 
-	private Closeable acquireDownload(Plugin plugin)
+	private boolean uploadPlugin(Plugin p) throws IOException
 	{
-		return section(plugin, "download", downloadSemaphore);
+		String logURL = "";
+		if (uploadConfig.isComplete())
+		{
+			try (Closeable ignored = section(p, "upload"))
+			{
+				p.upload(uploadConfig);
+			}
+
+			// outside the section so the timing gets uploaded too
+			logURL = p.uploadLog(uploadConfig);
+		}
+
+		p.copyArtifacts(ARTIFACT_DIR);
+
+		diff.getAddJarData().add(p.getJarData());
+		diff.getAddDisplayData().add(p.getDisplayData());
+		log.info("{}: done in {}ms [{}/{}]", p.getInternalName(), p.getBuildTimeMS(), numDone.get() + 1, numTotal);
+
+		if (!p.getApiFile().exists())
+		{
+			logToSummary("{} failed to write the api record: {}", p.getInternalName(), logURL);
+		}
+		else if (p.isApiFromBytecode())
+		{
+			logToSummary("{} failed to write the api record, recorded it from bytecode: {}", p.getInternalName(), logURL);
+		}
+		return true;
 	}
 
-	private Closeable acquireBuild(Plugin plugin)
+	/**
+	 * Runs one stage of a plugin's build, then either hands it to the next stage or
+	 * finishes it if the build is complete, not needed, or has failed
+	 */
+	private void advance(Plugin p, Stage<Plugin> next, PluginTask task)
 	{
-		return section(plugin, "build", buildSemaphore);
+		boolean handedOff = false;
+		try
+		{
+			try
+			{
+				if (task.run(p) && next != null)
+				{
+					next.submit(p);
+					handedOff = true;
+				}
+			}
+			catch (PluginBuildException e)
+			{
+				buildFailed(p, e);
+			}
+		}
+		catch (Exception e)
+		{
+			failed = true;
+			logToSummary("{}: crashed the build script: ", p.getInternalName(), e);
+		}
+		finally
+		{
+			if (!handedOff)
+			{
+				finish(p);
+			}
+		}
 	}
 
-	private Closeable acquireUpload(Plugin plugin)
+	private void buildFailed(Plugin p, PluginBuildException e) throws IOException
 	{
-		return section(plugin, "upload", uploadSemaphore);
+		failed = true;
+		p.writeLog("package failed\n", e);
+		if (!alwaysPrintLog)
+		{
+			Files.asCharSource(p.getLogFile(), StandardCharsets.UTF_8).copyTo(System.out);
+		}
+
+		PluginHubManifest.DisplayData oldDisplayData = this.oldDisplayData.get(p.getInternalName());
+
+		if (uploadConfig.isComplete())
+		{
+			String logURL = p.uploadLog(uploadConfig);
+			if (oldDisplayData != null && oldDisplayData.getBuildFailAt() != null)
+			{
+				long daysFailed = Instant.ofEpochSecond(oldDisplayData.getBuildFailAt()).until(Instant.now(), ChronoUnit.DAYS);
+				logToSummary("{} failed ({} days): {}", p.getInternalName(), daysFailed, logURL);
+			}
+			else
+			{
+				logToSummary("{} failed: {}", p.getInternalName(), logURL);
+			}
+		}
+		else
+		{
+			logToSummary("{} failed", p.getInternalName());
+		}
+
+		if (oldDisplayData != null)
+		{
+			if (oldDisplayData.getBuildFailAt() == null)
+			{
+				oldDisplayData.setBuildFailAt(Instant.now().getEpochSecond());
+			}
+
+			oldDisplayData.setUnavailableReason(null);
+			diff.getAddDisplayData().add(oldDisplayData);
+		}
 	}
 
-	private Closeable section(Plugin p, String name, Semaphore s)
+	private void finish(Plugin p)
 	{
 		try
 		{
-			s.acquire();
+			if (alwaysPrintLog)
+			{
+				Files.asCharSource(p.getLogFile(), StandardCharsets.UTF_8).copyTo(System.out);
+			}
+			p.close();
+		}
+		catch (Exception e)
+		{
+			failed = true;
+			logToSummary("{}: crashed the build script: ", p.getInternalName(), e);
+		}
+		finally
+		{
+			numDone.addAndGet(1);
 		}
-		catch (InterruptedException e)
+	}
+
+	private void logToSummary(String message, Object... args)
+	{
+		log.info(message, args);
+		FormattingTuple fmt = MessageFormatter.arrayFormat(message, args);
+		synchronized (buildSummary)
 		{
-			throw new RuntimeException(e);
+			buildSummary.append(fmt.getMessage()).append('\n');
 		}
+	}
+
+	public String getBuildSummary()
+	{
+		return buildSummary.toString();
+	}
+
+	private Closeable section(Plugin p, String name)
+	{
 		Stopwatch time = Stopwatch.createStarted();
 		return () ->
 		{
 			long ms = time.stop()
 				.elapsed(TimeUnit.MILLISECONDS);
 			p.setBuildTimeMS(p.getBuildTimeMS() + ms);
+			history.record(p.getInternalName(), name, ms);
 			p.writeLog("{}: {}ms\n", name, ms);
-			s.release();
 		};
 	}
 
@@ -382,9 +551,21 @@ public class Packager implements Closeable
 	@Override
 	public void close()
 	{
+		if (daemonPool != null)
+		{
+			daemonPool.close();
+		}
 		uploadConfig.close();
 	}
 
+	private interface PluginTask
+	{
+		/**
+		 * @return if the plugin should continue on to the next stage
+		 */
+		boolean run(Plugin p) throws IOException, PluginBuildException;
+	}
+
 	public static void main(String... args) throws Exception
 	{
 		boolean isBuildingAll = false;
@@ -28,10 +28,12 @@ import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.CharMatcher;
 import com.google.common.base.Splitter;
 import com.google.common.base.Strings;
+import com.google.common.base.Throwables;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.hash.HashCode;
 import com.google.common.hash.Hashing;
-import com.google.common.io.ByteStreams;
-import com.google.common.io.CountingOutputStream;
+import com.google.common.hash.HashingOutputStream;
+import com.google.common.io.ByteSource;
 import com.google.common.io.MoreFiles;
 import com.google.common.io.RecursiveDeleteOption;
 import java.awt.image.BufferedImage;
@@ -45,6 +47,7 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
 import java.io.UncheckedIOException;
@@ -58,7 +61,8 @@ import java.nio.file.SimpleFileVisitor;
 import java.nio.file.StandardCopyOption;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -67,30 +71,32 @@ import java.util.Properties;
 import java.util.Set;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
-import java.util.jar.JarEntry;
-import java.util.jar.JarInputStream;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
-import java.util.zip.ZipEntry;
 import java.util.zip.ZipException;
-import java.util.zip.ZipInputStream;
-import java.util.zip.ZipOutputStream;
 import javax.annotation.Nullable;
 import javax.imageio.ImageIO;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.SneakyThrows;
-import lombok.Value;
 import net.runelite.pluginhub.apirecorder.API;
+import net.runelite.pluginhub.apirecorder.BytecodeRecorder;
 import net.runelite.pluginhub.apirecorder.ClassRecorder;
+import net.runelite.pluginhub.uploader.ApiBundle;
 import net.runelite.pluginhub.uploader.PluginHubManifest;
 import net.runelite.pluginhub.uploader.UploadConfiguration;
 import net.runelite.pluginhub.uploader.Util;
 import okhttp3.HttpUrl;
 import okhttp3.Request;
 import okhttp3.Response;
+import org.gradle.tooling.BuildLauncher;
 import org.gradle.tooling.CancellationTokenSource;
 import org.gradle.tooling.GradleConnectionException;
 import org.gradle.tooling.GradleConnector;
@@ -108,6 +114,10 @@ public class Plugin implements Closeable
 	private static final long MIB = 1024 * 1024;
 	private static final int MAX_SRC_SIZE_MIB = 10;
 
+	// this should match gradle.properties
+	static final int GRADLE_HEAP_MIB = 768;
+	private static final String[] GRADLE_JVM_ARGS = {"-Xmx" + GRADLE_HEAP_MIB + "M", "-XX:+UseParallelGC"};
+
 	private static final Pattern PLUGIN_INTERNAL_NAME_TEST = Pattern.compile("^[a-z0-9-]+$");
 	private static final Pattern REPOSITORY_TEST = Pattern.compile("^(https://github\\.com/.*)\\.git$");
 	private static final Pattern COMMIT_TEST = Pattern.compile("^[a-fA-F0-9]{40}$");
@@ -117,11 +127,16 @@ public class Plugin implements Closeable
 	private static final String SUFFIX_API = ".api";
 	private static final String SUFFIX_ICON = ".png";
 
-	private static final File TMP_ROOT;
-	private static final File GRADLE_HOME;
+	// runs the checks that only read the repository while its gradle build runs
+	private static final ExecutorService VALIDATION_EXECUTOR = Executors.newCachedThreadPool(r ->
+	{
+		Thread t = new Thread(r, "plugin-validation");
+		t.setDaemon(true);
+		return t;
+	});
 
-	static final API CURRENT_API;
-	private static final Map<String, String> DISALLOWED_APIS;
+	static final File TMP_ROOT;
+	static final File GRADLE_HOME;
 
 	static
 	{
@@ -137,12 +152,6 @@ public class Plugin implements Closeable
 			{
 				throw new RuntimeException("gradle home has moved");
 			}
-
-			CURRENT_API = calculateAPI();
-			try (InputStream is = Packager.class.getResourceAsStream("disallowed-apis.txt"))
-			{
-				DISALLOWED_APIS = CURRENT_API.parseCommented(is, false);
-			}
 		}
 		catch (IOException e)
 		{
@@ -173,6 +182,10 @@ public class Plugin implements Closeable
 	@Getter
 	private FileOutputStream log;
 
+	// holds what validation logs while gradle is writing to the log, so they don't interleave
+	@Nullable
+	private volatile ByteArrayOutputStream validationLog;
+
 	@Nullable
 	private final String warning;
 
@@ -180,17 +193,52 @@ public class Plugin implements Closeable
 	private final String commit;
 
 	@Getter
-	private final PluginHubManifest.JarData jarData = new PluginHubManifest.JarData();
+	private PluginHubManifest.JarData jarData = new PluginHubManifest.JarData();
 
 	@Getter
-	private final PluginHubManifest.Stub displayData = new PluginHubManifest.Stub();
+	private PluginHubManifest.Stub displayData = new PluginHubManifest.Stub();
+
+	/**
+	 * if the build outputs came from the artifact cache, so there is nothing to download or build
+	 */
+	@Getter
+	private boolean restored;
+
+	/**
+	 * if javac's api recording was partial, so the api was recorded from the plugin's bytecode
+	 */
+	@Getter
+	private boolean apiFromBytecode;
 
 	@Getter
 	@Setter
 	private long buildTimeMS;
 
+	/**
+	 * peak heap use of the gradle daemon during the build, or -1 if unknown
+	 */
+	@Getter
+	private long heapPeak = -1;
+
+	/**
+	 * heap the gradle daemon still had live after its last collection, or -1 if unknown
+	 */
+	@Getter
+	private long heapRetained = -1;
+
+	/**
+	 * cpu time the gradle daemon used for the build, or -1 if unknown
+	 */
+	@Getter
+	private long cpuTimeMS = -1;
+
 	private int jarSizeLimitMiB = 10;
 
+	/**
+	 * the plugins= line of runelite-plugin.properties, for errors about the classes it lists
+	 */
+	private String pluginsLine;
+
 	public Plugin(File pluginCommitDescriptor) throws IOException, DisabledPluginException, PluginBuildException
 	{
 		this.pluginCommitDescriptor = pluginCommitDescriptor;
@@ -283,23 +331,21 @@ public class Plugin implements Closeable
 		iconFile = new File(repositoryDirectory, "icon.png");
 	}
 
-	@SneakyThrows
-	private static API calculateAPI() throws IOException
+	/**
+	 * Configures a build the way every plugin is built, so pooled daemons are warmed with the same arguments
+	 */
+	static BuildLauncher newBuild(ProjectConnection con, File buildDirectory, String runeliteVersion)
 	{
-		Process gradleApi = new ProcessBuilder(new File(Packager.PACKAGE_ROOT, "gradlew").getAbsolutePath(), "--console=plain", ":apirecorder:api")
-			.directory(Packager.PACKAGE_ROOT)
-			.inheritIO()
-			.start();
-		gradleApi.waitFor(2, TimeUnit.MINUTES);
-		if (gradleApi.exitValue() != 0)
-		{
-			throw new RuntimeException("gradle :apirecorder:api exited with " + gradleApi.exitValue());
-		}
-
-		try (InputStream is = new FileInputStream(new File(Packager.PACKAGE_ROOT, "apirecorder/build/api")))
-		{
-			return API.decode(is);
-		}
+		return con.newBuild()
+			.withArguments(
+				"--no-build-cache",
+				"--console=plain",
+				"--init-script", new File(Packager.PACKAGE_ROOT, "target_init.gradle").getAbsolutePath())
+			.setEnvironmentVariables(ImmutableMap.of(
+				"runelite.pluginhub.package.apirecorder", new File(Packager.PACKAGE_ROOT, "apirecorder/build/libs/apirecorder.jar").toString(),
+				"runelite.pluginhub.package.buildDir", buildDirectory.getAbsolutePath(),
+				"runelite.pluginhub.package.runeliteVersion", runeliteVersion))
+			.setJvmArguments(GRADLE_JVM_ARGS);
 	}
 
 	private void waitAndCheck(Process process, String name, long timeout, TimeUnit timeoutUnit) throws PluginBuildException
@@ -323,13 +369,41 @@ public class Plugin implements Closeable
 		}
 	}
 
-	public boolean rebuildNeeded(UploadConfiguration uploadConfig, PluginHubManifest.JarData oldJarData) throws IOException
+	/**
+	 * @param apiBundle the api bundle of the previous manifest, or null to fetch the api file directly
+	 * @param apiAffected the plugins in apiBundle that use an api that has changed, or null if unknown
+	 */
+	public boolean rebuildNeeded(UploadConfiguration uploadConfig, PluginHubManifest.JarData oldJarData,
+		@Nullable ApiBundle apiBundle, @Nullable Set<String> apiAffected) throws IOException
 	{
 		if (oldJarData == null)
 		{
 			return true;
 		}
 
+		ApiBundle.Entry entry = apiBundle == null ? null : apiBundle.get(internalName);
+		if (entry != null && entry.getJarHash().equals(oldJarData.getJarHash()))
+		{
+			if (entry.isHasApi() && apiAffected != null && !apiAffected.contains(internalName))
+			{
+				return !entry.isJarPresent();
+			}
+
+			try (InputStream is = apiBundle.openApi(entry))
+			{
+				if (is == null || apiChanged(is))
+				{
+					return true;
+				}
+				return !entry.isJarPresent();
+			}
+			catch (UncheckedIOException | IOException e)
+			{
+				writeLog("failed to check api compatibility\n", e);
+				return true;
+			}
+		}
+
 		try (Response res = uploadConfig.getClient().newCall(new Request.Builder()
 			.url(uploadConfig.getRoot().newBuilder()
 				.addPathSegment(UploadConfiguration.DIR_API)
@@ -344,13 +418,8 @@ public class Plugin implements Closeable
 			}
 			Util.check(res);
 
-			String missing = API.decode(res.body().byteStream())
-				.missingFrom(CURRENT_API)
-				.collect(Collectors.joining("\n"));
-
-			if (!missing.isEmpty())
+			if (apiChanged(res.body().byteStream()))
 			{
-				writeLog("API changed; rebuild needed. changed:\n{}\n", missing);
 				return true;
 			}
 
@@ -374,144 +443,91 @@ public class Plugin implements Closeable
 		}
 	}
 
-	public void download() throws IOException, PluginBuildException
+	private boolean apiChanged(InputStream api) throws IOException
 	{
-		Process gitclone = new ProcessBuilder("git", "clone",
-			"--config", "advice.detachedHead=false",
-			"--filter", "tree:0", "--no-checkout",
-			this.repositoryURL, repositoryDirectory.getAbsolutePath())
-			.redirectOutput(ProcessBuilder.Redirect.appendTo(logFile))
-			.redirectError(ProcessBuilder.Redirect.appendTo(logFile))
-			.start();
-		waitAndCheck(gitclone, "git clone", 2, TimeUnit.MINUTES);
-
-
-		Process gitcheckout = new ProcessBuilder("git", "checkout", commit + "^{commit}")
-			.redirectOutput(ProcessBuilder.Redirect.appendTo(logFile))
-			.redirectError(ProcessBuilder.Redirect.appendTo(logFile))
-			.directory(repositoryDirectory)
-			.start();
-		waitAndCheck(gitcheckout, "git checkout", 2, TimeUnit.MINUTES);
-	}
+		String missing = ClientApi.decode(api)
+			.missingFrom(ClientApi.get())
+			.collect(Collectors.joining("\n"));
 
-	public void build(String runeliteVersion, boolean disallowedIsFatal) throws IOException, PluginBuildException
-	{
-		try (DirectoryStream<Path> ds = Files.newDirectoryStream(repositoryDirectory.toPath(), "**.{gradle,gradle.kts}"))
+		if (!missing.isEmpty())
 		{
-			for (Path path : ds)
-			{
-				String badLine = MoreFiles.asCharSource(path, StandardCharsets.UTF_8)
-					.lines()
-					.filter(l -> l.codePoints().map(cp ->
-					{
-						if (cp == '\t')
-						{
-							return 8;
-						}
-						else if (cp > 127)
-						{
-							// any special char is counted as 4 because there are some very wide special characters
-							return 4;
-						}
-						return 1;
-					}).sum() > 120)
-					.findAny()
-					.orElse(null);
-				if (badLine != null)
-				{
-					throw PluginBuildException.of(this, "All gradle files must wrap at 120 characters or less")
-						.withFileLine(path.toFile(), badLine);
-				}
-			}
+			writeLog("API changed; rebuild needed. changed:\n{}\n", missing);
+			return true;
 		}
+		return false;
+	}
 
-		try (
-			CountingOutputStream cos = new CountingOutputStream(new FileOutputStream(srcZipFile));
-			ZipOutputStream zos = new ZipOutputStream(cos))
+	/**
+	 * @param mirrors the mirror cache to check the commit out from, required for {@link DownloadMode#MIRROR}
+	 */
+	public void download(DownloadMode mode, @Nullable GitMirrorCache mirrors) throws IOException, PluginBuildException
+	{
+		writeLog("downloading {} with the {} download mode\n", commit, mode.name().toLowerCase());
+		switch (mode)
 		{
-			@Value
-			class Entry
-			{
-				Path path;
-				String zipPath;
-				long length;
-			}
-
-			List<Entry> core = new ArrayList<>();
-			List<Entry> extras = new ArrayList<>();
-			Files.walkFileTree(repositoryDirectory.toPath(), new SimpleFileVisitor<Path>()
-			{
-				@Override
-				public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException
+			case MIRROR:
+				Objects.requireNonNull(mirrors).checkout(internalName, repositoryURL, commit, repositoryDirectory, logFile);
+				break;
+			case SHALLOW:
+				if (Git.fetchCommit(internalName, repositoryURL, commit, repositoryDirectory, logFile))
 				{
-					if (dir.toString().contains(".git"))
-					{
-						return FileVisitResult.SKIP_SUBTREE;
-					}
-					return FileVisitResult.CONTINUE;
+					break;
 				}
 
-				@Override
-				public FileVisitResult visitFile(Path path, BasicFileAttributes attrs) throws IOException
-				{
-					String zipPath = repositoryDirectory.toPath().relativize(path).toString().replace('\\', '/');
-					(zipPath.contains(".gradle") || zipPath.startsWith("src/main/") ? core : extras)
-						.add(new Entry(path, zipPath, path.toFile().length()));
-					return FileVisitResult.CONTINUE;
-				}
-			});
+				writeLog("the repository refused to fetch {} by sha, falling back to a full clone\n", commit);
+				MoreFiles.deleteRecursively(repositoryDirectory.toPath(), RecursiveDeleteOption.ALLOW_INSECURE);
+				Git.clone(internalName, repositoryURL, commit, repositoryDirectory, logFile);
+				break;
+			case CLONE:
+				Git.clone(internalName, repositoryURL, commit, repositoryDirectory, logFile);
+				break;
+		}
+	}
 
-			core.sort(Comparator.comparing(Entry::getZipPath));
-			for (Entry e : core)
-			{
-				ZipEntry ze = new ZipEntry(e.zipPath);
-				zos.putNextEntry(ze);
-				Files.copy(e.path, zos);
-				zos.closeEntry();
-			}
+	public void build(String runeliteVersion, boolean disallowedIsFatal) throws IOException, PluginBuildException
+	{
+		build(runeliteVersion, disallowedIsFatal, null);
+	}
 
-			extras.sort(Comparator.comparing(Entry::getLength).thenComparing(Entry::getZipPath));
-			for (Entry e : extras)
-			{
-				if (cos.getCount() + e.length > MAX_SRC_SIZE_MIB * MIB)
-				{
-					writeLog("File \"{}\" is skipped from the source archive as it would make it too big ({} MiB)\n", e.zipPath, e.length / MIB);
-					continue;
-				}
+	/**
+	 * @param daemon the pooled daemon to build with, or null to let gradle pick one
+	 */
+	public void build(String runeliteVersion, boolean disallowedIsFatal, @Nullable GradleDaemonPool.Daemon daemon) throws IOException, PluginBuildException
+	{
+		// gradle must only see our verification metadata, but the source archive keeps the repository's own
+		File metadataFile = new File(repositoryDirectory, "gradle/verification-metadata.xml");
+		File repositoryMetadataFile = new File(buildDirectory, "repository-verification-metadata.xml");
+		boolean hasMetadata = metadataFile.exists();
+		if (hasMetadata)
+		{
+			Files.move(metadataFile.toPath(), repositoryMetadataFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		}
 
-				ZipEntry ze = new ZipEntry(e.zipPath);
-				zos.putNextEntry(ze);
-				Files.copy(e.path, zos);
-				zos.closeEntry();
-			}
+		// the file list is taken before gradle starts writing its caches and outputs into the repository
+		SourceArchive sources = collectSources();
+		if (hasMetadata)
+		{
+			sources.addExtra(new SourceArchive.Entry(repositoryMetadataFile.toPath(), "gradle/verification-metadata.xml", repositoryMetadataFile.length()));
 		}
 
 		try (InputStream is = Plugin.class.getResourceAsStream("verification-metadata.xml"))
 		{
-			File metadataFile = new File(repositoryDirectory, "gradle/verification-metadata.xml");
 			metadataFile.getParentFile().mkdir();
 			Files.copy(is, metadataFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
 		}
 
-		try (ProjectConnection con = GradleConnector.newConnector()
-			.forProjectDirectory(repositoryDirectory)
-			.useInstallation(GRADLE_HOME)
-			.connect())
+		try (ProjectConnection con = daemon != null
+			? daemon.connect(repositoryDirectory)
+			: GradleConnector.newConnector()
+				.forProjectDirectory(repositoryDirectory)
+				.useInstallation(GRADLE_HOME)
+				.connect())
 		{
 			CancellationTokenSource cancel = GradleConnector.newCancellationTokenSource();
 			BlockingQueue<Object> queue = new ArrayBlockingQueue<>(1);
 			String buildSuccess = "success";
 
-			con.newBuild()
-				.withArguments(
-					"--no-build-cache",
-					"--console=plain",
-					"--init-script", new File("./package/target_init.gradle").getAbsolutePath())
-				.setEnvironmentVariables(ImmutableMap.of(
-					"runelite.pluginhub.package.apirecorder", new File(Packager.PACKAGE_ROOT, "apirecorder/build/libs/apirecorder.jar").toString(),
-					"runelite.pluginhub.package.buildDir", buildDirectory.getAbsolutePath(),
-					"runelite.pluginhub.package.runeliteVersion", runeliteVersion))
-				.setJvmArguments("-Xmx768M", "-XX:+UseParallelGC")
+			newBuild(con, buildDirectory, runeliteVersion)
 				.setStandardOutput(log)
 				.setStandardError(log)
 				.forTasks("runelitePluginHubPackage", "runelitePluginHubManifest")
@@ -532,43 +548,79 @@ public class Plugin implements Closeable
 				});
 			log.flush();
 
-			Object output = queue.poll(5, TimeUnit.MINUTES);
-			if (output == null)
+			// none of these need the compiled plugin, so they run alongside gradle and stop it if they fail
+			validationLog = new ByteArrayOutputStream();
+			try
 			{
-				cancel.cancel();
-				throw PluginBuildException.of(this, "build did not complete within 5 minutes");
+				CompletableFuture<Void> validation = CompletableFuture.runAsync(() ->
+				{
+					try
+					{
+						checkGradleFiles();
+						writeSourceArchive(sources);
+						validateRepository(disallowedIsFatal);
+					}
+					catch (IOException | PluginBuildException e)
+					{
+						throw new CompletionException(e);
+					}
+				}, VALIDATION_EXECUTOR);
+				validation.whenComplete((r, ex) ->
+				{
+					if (ex != null)
+					{
+						cancel.cancel();
+					}
+				});
+
+				Object output = queue.poll(5, TimeUnit.MINUTES);
+				if (output == null)
+				{
+					cancel.cancel();
+					awaitValidation(validation);
+					throw PluginBuildException.of(this, "build did not complete within 5 minutes");
+				}
+				if (output instanceof GradleConnectionException)
+				{
+					// a failed validation is why the build was cancelled, so it is the error to report
+					awaitValidation(validation);
+					throw PluginBuildException.of(this, "build failed", output);
+				}
+				else if (output != buildSuccess)
+				{
+					throw new IllegalStateException(output.toString());
+				}
+				awaitValidation(validation);
 			}
-			if (output instanceof GradleConnectionException)
+			finally
 			{
-				throw PluginBuildException.of(this, "build failed", output);
+				// however the build ended, nothing more may be held back from the log
+				flushValidationLog();
 			}
-			else if (output != buildSuccess)
+
+			File statsFile = new File(buildDirectory, "stats.properties");
+			if (statsFile.exists())
 			{
-				throw new IllegalStateException(output.toString());
+				Properties stats = loadProperties(statsFile);
+				heapPeak = Long.parseLong(stats.getProperty("heapPeak", "-1"));
+				heapRetained = Long.parseLong(stats.getProperty("heapRetained", "-1"));
+				cpuTimeMS = Long.parseLong(stats.getProperty("cpuTimeMS", "-1"));
 			}
 
-			assembleDisplayData(disallowedIsFatal);
-
+			// the jar is read once: its classes are scanned as they are copied, and the output is hashed as it is written
 			File tmpJar = new File(buildDirectory, "plugin2.jar");
-			try (ZipInputStream zis = new ZipInputStream(new FileInputStream(jarFile));
-				ZipOutputStream zos = new ZipOutputStream(new FileOutputStream(tmpJar)))
+			HashCode jarHash;
+			// the stream is closed even if the finalizer can't read the jar
+			try (HashingOutputStream hashOut = new HashingOutputStream(Hashing.sha256(), new FileOutputStream(tmpJar)))
 			{
-				for (ZipEntry ze; (ze = zis.getNextEntry()) != null; )
+				try (JarFinalizer jar = new JarFinalizer(jarFile, hashOut))
 				{
-					zos.putNextEntry(ze);
-					ByteStreams.copy(zis, zos);
-					zos.closeEntry();
-				}
-
-				{
-					ZipEntry ze = new ZipEntry("runelite_plugin.json");
-					ze.setTime(0);
-					zos.putNextEntry(ze);
-					Writer w = new OutputStreamWriter(zos, StandardCharsets.UTF_8);
-					Util.GSON.toJson(this.displayData, w);
-					w.flush();
-					zos.closeEntry();
+					ClassScanner classes = new ClassScanner(disallowedIsFatal);
+					jar.copyEntries(classes);
+					assembleDisplayData(disallowedIsFatal, classes);
+					jar.add("runelite_plugin.json", Util.GSON.toJson(this.displayData).getBytes(StandardCharsets.UTF_8));
 				}
+				jarHash = hashOut.hash();
 			}
 			catch (ZipException e)
 			{
@@ -592,11 +644,7 @@ public class Plugin implements Closeable
 				jarData.setJarSize((int) size);
 			}
 
-			jarData.setJarHash(
-				PluginHubManifest.HASH_ENCODER.encodeToString(
-					com.google.common.io.Files.asByteSource(jarFile)
-						.hash(Hashing.sha256())
-						.asBytes()));
+			jarData.setJarHash(PluginHubManifest.HASH_ENCODER.encodeToString(jarHash.asBytes()));
 			writeLog("built jar with hash {} from commit {}\n", jarData.getJarHash(), commit);
 		}
 		catch (InterruptedException e)
@@ -605,37 +653,125 @@ public class Plugin implements Closeable
 		}
 	}
 
-	private void assembleDisplayData(boolean disallowedIsFatal) throws IOException, PluginBuildException
+	private SourceArchive collectSources() throws IOException
 	{
-		displayData.setInternalName(internalName);
-		displayData.setWarning(warning);
-
+		SourceArchive sources = new SourceArchive();
+		Files.walkFileTree(repositoryDirectory.toPath(), new SimpleFileVisitor<Path>()
 		{
-			Properties chunk = loadProperties(new File(buildDirectory, "chunk.properties"));
+			@Override
+			public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException
+			{
+				if (dir.toString().contains(".git"))
+				{
+					return FileVisitResult.SKIP_SUBTREE;
+				}
+				return FileVisitResult.CONTINUE;
+			}
 
-			String version = chunk.getProperty("version");
-			if (Strings.isNullOrEmpty(version))
+			@Override
+			public FileVisitResult visitFile(Path path, BasicFileAttributes attrs) throws IOException
 			{
-				throw new IllegalStateException("version in empty");
+				String zipPath = repositoryDirectory.toPath().relativize(path).toString().replace('\\', '/');
+				SourceArchive.Entry entry = new SourceArchive.Entry(path, zipPath, attrs.size());
+				if (zipPath.contains(".gradle") || zipPath.startsWith("src/main/"))
+				{
+					sources.addCore(entry);
+				}
+				else
+				{
+					sources.addExtra(entry);
+				}
+				return FileVisitResult.CONTINUE;
 			}
+		});
+		return sources;
+	}
 
-			if (version.endsWith("SNAPSHOT"))
+	private void checkGradleFiles() throws IOException, PluginBuildException
+	{
+		try (DirectoryStream<Path> ds = Files.newDirectoryStream(repositoryDirectory.toPath(), "**.{gradle,gradle.kts}"))
+		{
+			for (Path path : ds)
 			{
-				version = commit.substring(0, 8);
+				String badLine = MoreFiles.asCharSource(path, StandardCharsets.UTF_8)
+					.lines()
+					.filter(l -> l.codePoints().map(cp ->
+					{
+						if (cp == '\t')
+						{
+							return 8;
+						}
+						else if (cp > 127)
+						{
+							// any special char is counted as 4 because there are some very wide special characters
+							return 4;
+						}
+						return 1;
+					}).sum() > 120)
+					.findAny()
+					.orElse(null);
+				if (badLine != null)
+				{
+					throw PluginBuildException.of(this, "All gradle files must wrap at 120 characters or less")
+						.withFileLine(path.toFile(), badLine);
+				}
 			}
+		}
+	}
 
-			displayData.setVersion(version);
+	private void writeSourceArchive(SourceArchive sources) throws IOException, PluginBuildException
+	{
+		for (SourceArchive.Entry e : sources.write(srcZipFile, MAX_SRC_SIZE_MIB * MIB))
+		{
+			writeLog("File \"{}\" is skipped from the source archive as it would make it too big ({} MiB)\n", e.getZipPath(), e.getLength() / MIB);
 		}
 
+		long size = srcZipFile.length();
+		long srcSizeLimitMiB = Math.max(MAX_SRC_SIZE_MIB, jarSizeLimitMiB);
+		if (size > (srcSizeLimitMiB + 1) * MIB) // allow the header to be a bit bigger
 		{
-			long size = srcZipFile.length();
-			long srcSizeLimitMiB = Math.max(MAX_SRC_SIZE_MIB, jarSizeLimitMiB);
-			if (size > (srcSizeLimitMiB + 1) * MIB) // allow the header to be a bit bigger
-			{
-				throw PluginBuildException.of(this, "the source archive is {}MiB, which is above our limit of {}MiB", size / MIB, srcSizeLimitMiB);
-			}
+			throw PluginBuildException.of(this, "the source archive is {}MiB, which is above our limit of {}MiB", size / MIB, srcSizeLimitMiB);
+		}
+	}
+
+	/**
+	 * Waits for the validation to finish
+	 */
+	private static void awaitValidation(CompletableFuture<Void> validation) throws IOException, PluginBuildException, InterruptedException
+	{
+		try
+		{
+			validation.get();
+		}
+		catch (ExecutionException e)
+		{
+			Throwable cause = e.getCause();
+			Throwables.throwIfInstanceOf(cause, PluginBuildException.class);
+			Throwables.throwIfInstanceOf(cause, IOException.class);
+			Throwables.throwIfUnchecked(cause);
+			throw new RuntimeException(cause);
 		}
+	}
+
+	/**
+	 * Writes what the validation logged after gradle's output, and sends anything logged after
+	 * this straight to the log
+	 */
+	private void flushValidationLog() throws IOException
+	{
+		ByteArrayOutputStream messages = validationLog;
+		validationLog = null;
+		if (messages != null)
+		{
+			messages.writeTo(log);
+		}
+	}
 
+	/**
+	 * Checks everything that only depends on the repository, and not on the compiled plugin
+	 */
+	private void validateRepository(boolean disallowedIsFatal) throws IOException, PluginBuildException
+	{
 		if (iconFile.exists())
 		{
 			long size = iconFile.length();
@@ -678,108 +814,6 @@ public class Plugin implements Closeable
 					.asBytes()));
 		}
 
-		Set<String> pluginClasses = new HashSet<>();
-		Set<String> jarClasses = new HashSet<>();
-		{
-			ClassRecorder builtinApi = new ClassRecorder();
-
-			try (JarInputStream jis = new JarInputStream(new FileInputStream(jarFile)))
-			{
-				for (JarEntry je; (je = jis.getNextJarEntry()) != null; )
-				{
-					String fileName = je.getName();
-					if (!fileName.endsWith(".class"))
-					{
-						continue;
-					}
-
-					boolean isMultiRelease = fileName.startsWith("META-INF/versions");
-					byte[] classData = ByteStreams.toByteArray(jis);
-
-					try
-					{
-						new ClassReader(classData).accept(new ClassVisitor(Opcodes.ASM7, builtinApi)
-						{
-							boolean extendsPlugin;
-							String name;
-
-							@SneakyThrows
-							@Override
-							public void visit(int version, int access, String name, String signature, String superName, String[] interfaces)
-							{
-								if ((version & 0xFFFF) > Opcodes.V11
-									&& !(isMultiRelease || fileName.endsWith("module-info.class")))
-								{
-									throw PluginBuildException.of(Plugin.this, "plugins must be Java 11 compatible")
-										.withFile(fileName);
-								}
-
-								if (disallowedIsFatal &&
-									name != null && name.startsWith("net/runelite/"))
-								{
-									throw PluginBuildException.of(Plugin.this, "use of net.runelite package namespace is not allowed")
-										.withFile(fileName);
-								}
-
-								jarClasses.add(name.replace('/', '.'));
-
-								extendsPlugin = "net/runelite/client/plugins/Plugin".equals(superName);
-								this.name = name;
-								super.visit(version, access, name, signature, superName, interfaces);
-							}
-
-							@Override
-							public AnnotationVisitor visitAnnotation(String descriptor, boolean visible)
-							{
-								if ("Lnet/runelite/client/plugins/PluginDescriptor;".equals(descriptor) && extendsPlugin)
-								{
-									pluginClasses.add(name.replace('/', '.'));
-								}
-
-								return null;
-							}
-						}, ClassReader.SKIP_CODE);
-					}
-					catch (IllegalArgumentException e)
-					{
-						if (isMultiRelease)
-						{
-							// allow multirelease classes to not be parsable by asm, they may be too new
-							continue;
-						}
-
-						throw e;
-					}
-				}
-			}
-
-			if (apiFile.exists())
-			{
-				// we can record api symbols from the plugin's own dependencies, we need to strip those
-				ByteArrayOutputStream out = new ByteArrayOutputStream();
-				try (FileInputStream fis = new FileInputStream(apiFile))
-				{
-					API api = API.decode(fis);
-					API.encode(out, api.missingFrom(builtinApi.getApi()));
-					String disallowed = api.disallowed(DISALLOWED_APIS)
-						.stream()
-						.collect(Collectors.joining("\n"));
-					if (!disallowed.isEmpty())
-					{
-						if (disallowedIsFatal)
-						{
-							throw PluginBuildException.of(this, "plugin uses terminally deprecated APIs:\n{}", disallowed);
-						}
-						else
-						{
-							writeLog("plugin uses terminally deprecated APIs:\n{}\n", disallowed);
-						}
-					}
-				}
-				Files.write(apiFile.toPath(), out.toByteArray());
-			}
-		}
-
 		{
 			File propFile = new File(repositoryDirectory, "runelite-plugin.properties");
 			if (!propFile.exists())
@@ -838,86 +872,226 @@ public class Plugin implements Closeable
 						.withFile(propFile);
 				}
 
-				List<String> plugins = Splitter.on(CharMatcher.anyOf(",:;"))
+				displayData.setPlugins(Splitter.on(CharMatcher.anyOf(",:;"))
 					.omitEmptyStrings()
 					.trimResults()
-					.splitToList(pluginsStr);
+					.splitToList(pluginsStr)
+					.toArray(new String[0]));
+				pluginsLine = "plugins=" + pluginsStr;
+			}
+
+			if (props.size() != 0)
+			{
+				writeLog("warning: unused props in runelite-plugin.properties: {}\n", props.keySet());
+			}
+		}
+
+		realPluginChecks();
+	}
+
+	private void assembleDisplayData(boolean disallowedIsFatal, ClassScanner classes) throws IOException, PluginBuildException
+	{
+		displayData.setInternalName(internalName);
+		displayData.setWarning(warning);
+
+		{
+			Properties chunk = loadProperties(new File(buildDirectory, "chunk.properties"));
 
-				if (plugins.isEmpty())
+			String version = chunk.getProperty("version");
+			if (Strings.isNullOrEmpty(version))
+			{
+				throw new IllegalStateException("version in empty");
+			}
+
+			if (version.endsWith("SNAPSHOT"))
+			{
+				version = commit.substring(0, 8);
+			}
+
+			displayData.setVersion(version);
+		}
+
+		{
+			// the api to check for disallowed apis, if it isn't the whole recorded api
+			API referencedApi = null;
+			if (!apiFile.exists())
+			{
+				// javac's recording goes partial on code it doesn't understand. without any api this plugin
+				// would be rebuilt on every client update, so record what its bytecode references instead
+				writeLog("the api recorder was unable to record this plugin, recording its api from bytecode\n");
+				apiFromBytecode = true;
+				BytecodeRecorder.Recording recording = ClientApi.bytecodeRecorder().record(jarFile);
+				referencedApi = recording.getReferencedApi();
+				try (FileOutputStream fos = new FileOutputStream(apiFile))
 				{
-					throw PluginBuildException.of(this, "No plugin classes listed")
-						.withHelp(() ->
-						{
-							String m = "You must list your plugin class names in the plugin descriptor";
-							if (!pluginClasses.isEmpty())
-							{
-								m += "\nPerhaps you wanted plugins=" + String.join(", ", pluginClasses);
-							}
-							return m;
-						})
-						.withFileLine(propFile, "plugins=" + pluginsStr);
+					recording.getApi().encode(fos);
 				}
+			}
 
-				displayData.setPlugins(plugins.toArray(new String[0]));
-
-				for (String className : plugins)
+			{
+				// we can record api symbols from the plugin's own dependencies, we need to strip those
+				ByteArrayOutputStream out = new ByteArrayOutputStream();
+				try (FileInputStream fis = new FileInputStream(apiFile))
 				{
-					if (pluginClasses.contains(className))
+					API api = API.decode(fis);
+					API.encode(out, api.missingFrom(classes.builtinApi.getApi()));
+					String disallowed = (referencedApi != null ? referencedApi : api).disallowed(ClientApi.disallowed())
+						.stream()
+						.collect(Collectors.joining("\n"));
+					if (!disallowed.isEmpty())
 					{
-						continue;
+						if (disallowedIsFatal)
+						{
+							throw PluginBuildException.of(this, "plugin uses terminally deprecated APIs:\n{}", disallowed);
+						}
+						else
+						{
+							writeLog("plugin uses terminally deprecated APIs:\n{}\n", disallowed);
+						}
 					}
+				}
+				Files.write(apiFile.toPath(), out.toByteArray());
+			}
+		}
+
+		{
+			Set<String> pluginClasses = classes.pluginClasses;
+			Set<String> jarClasses = classes.jarClasses;
+			File propFile = new File(repositoryDirectory, "runelite-plugin.properties");
+			List<String> plugins = Arrays.asList(displayData.getPlugins());
 
-					if (jarClasses.contains(className))
+			if (plugins.isEmpty())
+			{
+				throw PluginBuildException.of(this, "No plugin classes listed")
+					.withHelp(() ->
 					{
-						throw PluginBuildException.of(this, "Plugin class \"{}\" is not a valid Plugin", className)
-							.withHelp("All plugins must extend Plugin an have an @PluginDescriptor")
-							.withFileLine(propFile, "plugins=" + pluginsStr);
-					}
+						String m = "You must list your plugin class names in the plugin descriptor";
+						if (!pluginClasses.isEmpty())
+						{
+							m += "\nPerhaps you wanted plugins=" + String.join(", ", pluginClasses);
+						}
+						return m;
+					})
+					.withFileLine(propFile, pluginsLine);
+			}
 
-					Set<String> unusedPlugins = new HashSet<>(pluginClasses);
-					unusedPlugins.removeAll(plugins);
+			for (String className : plugins)
+			{
+				if (pluginClasses.contains(className))
+				{
+					continue;
+				}
 
-					throw PluginBuildException.of(this,
-							"Plugin class \"{}\" is missing from the output jar", className)
-						.withHelp(unusedPlugins.isEmpty()
-							? "All plugins must extend Plugin an have an @PluginDescriptor"
-							: ("Perhaps you wanted " + String.join(", ", unusedPlugins)))
-						.withFileLine(propFile, "plugins=" + pluginsStr);
+				if (jarClasses.contains(className))
+				{
+					throw PluginBuildException.of(this, "Plugin class \"{}\" is not a valid Plugin", className)
+						.withHelp("All plugins must extend Plugin an have an @PluginDescriptor")
+						.withFileLine(propFile, pluginsLine);
 				}
-			}
 
-			if (props.size() != 0)
-			{
-				writeLog("warning: unused props in runelite-plugin.properties: {}\n", props.keySet());
+				Set<String> unusedPlugins = new HashSet<>(pluginClasses);
+				unusedPlugins.removeAll(plugins);
+
+				throw PluginBuildException.of(this,
+						"Plugin class \"{}\" is missing from the output jar", className)
+					.withHelp(unusedPlugins.isEmpty()
+						? "All plugins must extend Plugin an have an @PluginDescriptor"
+						: ("Perhaps you wanted " + String.join(", ", unusedPlugins)))
+					.withFileLine(propFile, pluginsLine);
 			}
 		}
-
-		realPluginChecks();
 	}
 
-	// Tests don't run this as the example plugin will fail these on purpose
-	protected void realPluginChecks() throws IOException, PluginBuildException
+	/**
+	 * Scans the jar's classes as they are copied into the output jar
+	 */
+	private class ClassScanner implements JarFinalizer.EntryVisitor
 	{
+		private final boolean disallowedIsFatal;
+		private final ClassRecorder builtinApi = new ClassRecorder();
+		private final Set<String> pluginClasses = new HashSet<>();
+		private final Set<String> jarClasses = new HashSet<>();
+
+		ClassScanner(boolean disallowedIsFatal)
 		{
-			Process gitlog = new ProcessBuilder("git", "log", "--follow", "--format=%ct", "--", pluginCommitDescriptor.getAbsolutePath())
-				.redirectOutput(ProcessBuilder.Redirect.PIPE)
-				.redirectError(ProcessBuilder.Redirect.appendTo(logFile))
-				.directory(pluginCommitDescriptor.getParentFile())
-				.start();
+			this.disallowedIsFatal = disallowedIsFatal;
+		}
 
-			try (BufferedReader br = new BufferedReader(new InputStreamReader(gitlog.getInputStream())))
+		@Override
+		public void visit(String fileName, ByteSource data) throws IOException
+		{
+			if (!fileName.endsWith(".class"))
+			{
+				return;
+			}
+
+			boolean isMultiRelease = fileName.startsWith("META-INF/versions");
+			byte[] classData = data.read();
+
+			try
 			{
-				String line = br.readLine();
-				displayData.setLastUpdatedAt(Long.parseLong(line));
+				new ClassReader(classData).accept(new ClassVisitor(Opcodes.ASM7, builtinApi)
+				{
+					boolean extendsPlugin;
+					String name;
+
+					@SneakyThrows
+					@Override
+					public void visit(int version, int access, String name, String signature, String superName, String[] interfaces)
+					{
+						if ((version & 0xFFFF) > Opcodes.V11
+							&& !(isMultiRelease || fileName.endsWith("module-info.class")))
+						{
+							throw PluginBuildException.of(Plugin.this, "plugins must be Java 11 compatible")
+								.withFile(fileName);
+						}
+
+						if (disallowedIsFatal &&
+							name != null && name.startsWith("net/runelite/"))
+						{
+							throw PluginBuildException.of(Plugin.this, "use of net.runelite package namespace is not allowed")
+								.withFile(fileName);
+						}
 
-				String lastLine = line;
-				for (; (line = br.readLine()) != null; )
+						jarClasses.add(name.replace('/', '.'));
+
+						extendsPlugin = "net/runelite/client/plugins/Plugin".equals(superName);
+						this.name = name;
+						super.visit(version, access, name, signature, superName, interfaces);
+					}
+
+					@Override
+					public AnnotationVisitor visitAnnotation(String descriptor, boolean visible)
+					{
+						if ("Lnet/runelite/client/plugins/PluginDescriptor;".equals(descriptor) && extendsPlugin)
+						{
+							pluginClasses.add(name.replace('/', '.'));
+						}
+
+						return null;
+					}
+				}, ClassReader.SKIP_CODE);
+			}
+			catch (IllegalArgumentException e)
+			{
+				if (isMultiRelease)
 				{
-					lastLine = line;
+					// allow multirelease classes to not be parsable by asm, they may be too new
+					return;
 				}
-				displayData.setCreatedAt(Long.parseLong(lastLine));
+
+				throw e;
 			}
-			waitAndCheck(gitlog, "git log ", 30, TimeUnit.SECONDS);
+		}
+	}
+
+	// Tests don't run this as the example plugin will fail these on purpose
+	protected void realPluginChecks() throws IOException, PluginBuildException
+	{
+		{
+			long[] dates = readHubDates();
+			displayData.setLastUpdatedAt(dates[0]);
+			displayData.setCreatedAt(dates[1]);
 		}
 
 		if (!new File(repositoryDirectory, "LICENSE").exists())
@@ -935,41 +1109,185 @@ public class Plugin implements Closeable
 		}
 	}
 
+	/**
+	 * @return the last and first commit times of the plugin's descriptor in the plugin hub
+	 */
+	private long[] readHubDates() throws IOException, PluginBuildException
+	{
+		long[] indexed = HubHistoryIndex.forDirectory(pluginCommitDescriptor.getParentFile()).dates(pluginCommitDescriptor);
+		if (indexed != null)
+		{
+			return indexed;
+		}
+
+		// not committed as of the indexed HEAD, so ask git directly
+		Process gitlog = new ProcessBuilder("git", "log", "--follow", "--format=%ct", "--", pluginCommitDescriptor.getAbsolutePath())
+			.redirectOutput(ProcessBuilder.Redirect.PIPE)
+			.redirectError(ProcessBuilder.Redirect.appendTo(logFile))
+			.directory(pluginCommitDescriptor.getParentFile())
+			.start();
+
+		long[] dates = new long[2];
+		try (BufferedReader br = new BufferedReader(new InputStreamReader(gitlog.getInputStream())))
+		{
+			String line = br.readLine();
+			dates[0] = Long.parseLong(line);
+
+			String lastLine = line;
+			for (; (line = br.readLine()) != null; )
+			{
+				lastLine = line;
+			}
+			dates[1] = Long.parseLong(lastLine);
+		}
+		waitAndCheck(gitlog, "git log ", 30, TimeUnit.SECONDS);
+		return dates;
+	}
+
+	/**
+	 * Restores the outputs of a previous build of the same commit with the same inputs
+	 *
+	 * @return if the plugin was restored, and doesn't need to be downloaded or built
+	 */
+	public boolean restore(ArtifactCache cache) throws IOException, PluginBuildException
+	{
+		File dir = cache.lookup(cache.key(pluginCommitDescriptor));
+		if (dir == null)
+		{
+			return false;
+		}
+
+		PluginHubManifest.JarData cachedJarData;
+		PluginHubManifest.Stub cachedDisplayData;
+		try
+		{
+			cachedJarData = Util.GSON.fromJson(com.google.common.io.Files.asCharSource(new File(dir, "jar.json"), StandardCharsets.UTF_8).read(),
+				PluginHubManifest.JarData.class);
+			cachedDisplayData = Util.GSON.fromJson(com.google.common.io.Files.asCharSource(new File(dir, "display.json"), StandardCharsets.UTF_8).read(),
+				PluginHubManifest.Stub.class);
+		}
+		catch (IOException | RuntimeException e)
+		{
+			writeLog("ignoring unreadable artifact cache entry\n", e);
+			return false;
+		}
+
+		// the dates come from the plugin hub's history, not the build, so they can change
+		// without the descriptor changing if it was reverted to an older version
+		long[] dates = readHubDates();
+		if (cachedDisplayData.getLastUpdatedAt() != dates[0] || cachedDisplayData.getCreatedAt() != dates[1])
+		{
+			return false;
+		}
+
+		com.google.common.io.Files.asByteSource(new File(dir, "log")).copyTo(log);
+		Files.copy(new File(dir, "plugin.jar").toPath(), jarFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		Files.copy(new File(dir, "source.zip").toPath(), srcZipFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		Files.copy(new File(dir, "chunk.properties").toPath(), new File(buildDirectory, "chunk.properties").toPath(), StandardCopyOption.REPLACE_EXISTING);
+		if (new File(dir, "api").exists())
+		{
+			Files.copy(new File(dir, "api").toPath(), apiFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		}
+		// so the build summary still lists it as a plugin javac couldn't record
+		apiFromBytecode = new File(dir, "api-from-bytecode").exists();
+		if (cachedDisplayData.getIconHash() != null)
+		{
+			iconFile.getParentFile().mkdirs();
+			Files.copy(new File(dir, "icon.png").toPath(), iconFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		}
+
+		jarData = cachedJarData;
+		displayData = cachedDisplayData;
+		restored = true;
+		writeLog("restored jar with hash {} from commit {} from the artifact cache\n", jarData.getJarHash(), commit);
+		return true;
+	}
+
+	/**
+	 * Stores the outputs of a successful build so the next build of the same commit can be skipped
+	 */
+	public void store(ArtifactCache cache) throws IOException
+	{
+		File jarJson = new File(buildDirectory, "jar.json");
+		File displayJson = new File(buildDirectory, "display.json");
+		com.google.common.io.Files.asCharSink(jarJson, StandardCharsets.UTF_8).write(Util.GSON.toJson(jarData));
+		com.google.common.io.Files.asCharSink(displayJson, StandardCharsets.UTF_8).write(Util.GSON.toJson(displayData));
+
+		Map<String, File> files = new HashMap<>();
+		files.put("jar.json", jarJson);
+		files.put("display.json", displayJson);
+		files.put("plugin.jar", jarFile);
+		files.put("source.zip", srcZipFile);
+		files.put("chunk.properties", new File(buildDirectory, "chunk.properties"));
+		files.put("log", logFile);
+		if (apiFile.exists())
+		{
+			files.put("api", apiFile);
+		}
+		if (apiFromBytecode)
+		{
+			File marker = new File(buildDirectory, "api-from-bytecode");
+			marker.createNewFile();
+			files.put("api-from-bytecode", marker);
+		}
+		if (displayData.getIconHash() != null)
+		{
+			files.put("icon.png", iconFile);
+		}
+
+		log.flush();
+		cache.store(cache.key(pluginCommitDescriptor), files);
+	}
+
 	public void upload(UploadConfiguration uploadConfig) throws IOException
 	{
-		uploadConfig.put(
+		// the jar and icon are named by the hash of their content, so they are only sent if they aren't
+		// already there. the api is named by the jar's hash, but is recorded against the client, so the
+		// same jar can produce a different api and it always has to be replaced
+		List<CompletableFuture<Boolean>> uploads = new ArrayList<>();
+		uploads.add(uploadConfig.putIfAbsentAsync(
 			uploadConfig.getRoot().newBuilder()
 				.addPathSegment(UploadConfiguration.DIR_JAR)
 				.addPathSegment(internalName + "_" + jarData.getJarHash() + SUFFIX_JAR)
 				.build(),
-			jarFile);
+			jarFile));
 
 		if (apiFile.exists())
 		{
-			uploadConfig.put(
+			uploads.add(uploadConfig.putAsync(
 				uploadConfig.getRoot().newBuilder()
 					.addPathSegment(UploadConfiguration.DIR_API)
 					.addPathSegment(internalName + "_" + jarData.getJarHash() + SUFFIX_API)
 					.build(),
-				apiFile);
+				apiFile)
+				.thenApply(v -> true));
 		}
 
-		uploadConfig.putMkDirs(
+		uploads.add(uploadConfig.putMkDirsAsync(
 			uploadConfig.getRoot().newBuilder()
 				.addPathSegment(UploadConfiguration.DIR_SOURCE)
 				.addPathSegment(internalName)
 				.addPathSegment(commit + SUFFIX_SOURCES)
 				.build(),
-			srcZipFile);
+			srcZipFile)
+			.thenApply(v -> true));
 
 		if (displayData.getIconHash() != null)
 		{
-			uploadConfig.put(
+			uploads.add(uploadConfig.putIfAbsentAsync(
 				uploadConfig.getRoot().newBuilder()
 					.addPathSegment(UploadConfiguration.DIR_ICON)
 					.addPathSegment(internalName + "_" + displayData.getIconHash() + SUFFIX_ICON)
 					.build(),
-				iconFile);
+				iconFile));
+		}
+
+		UploadConfiguration.await(uploads);
+
+		long skipped = uploads.stream().filter(f -> !f.join()).count();
+		if (skipped > 0)
+		{
+			writeLog("{} of {} artifacts were already uploaded\n", skipped, uploads.size());
 		}
 	}
 
@@ -1002,8 +1320,10 @@ public class Plugin implements Closeable
 
 	public void writeLog(String format, Object... args) throws IOException
 	{
+		ByteArrayOutputStream pending = validationLog;
+		OutputStream out = pending != null ? pending : log;
 		FormattingTuple fmt = MessageFormatter.arrayFormat(format, args);
-		log.write(fmt.getMessage().getBytes(StandardCharsets.UTF_8));
+		out.write(fmt.getMessage().getBytes(StandardCharsets.UTF_8));
 		Throwable t = fmt.getThrowable();
 		if (t != null)
 		{
@@ -1012,7 +1332,7 @@ public class Plugin implements Closeable
 			t.printStackTrace(pw);
 			pw.flush();
 
-			Writer w = new OutputStreamWriter(log, StandardCharsets.UTF_8);
+			Writer w = new OutputStreamWriter(out, StandardCharsets.UTF_8);
 			boolean collapsing = false;
 			for (String line : Splitter.on('\n').split(caw.toString()))
 			{
@@ -0,0 +1,350 @@
+/*
+ * Copyright (c) 2026 Abex
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.pluginhub.packager;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.io.ByteStreams;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.ZipException;
+import javax.annotation.Nullable;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Builds a plugin's source archive. Files are compressed in parallel on a pool shared by
+ * every build, and written in a fixed order: core files by path, then extras smallest first
+ * for as long as they fit in the budget. Files that are already compressed are stored. Large
+ * files are compressed to a temporary file instead of memory, so only a bounded amount of
+ * the archive is ever held in memory.
+ */
+@Slf4j
+class SourceArchive
+{
+	private static final Set<String> STORED_EXTENSIONS = ImmutableSet.of(
+		"png", "jpg", "jpeg", "gif", "webp", "ico",
+		"jar", "zip", "gz", "xz", "bz2", "7z",
+		"ogg", "mp3", "mp4", "webm", "woff", "woff2");
+
+	private static final int THREADS = Runtime.getRuntime().availableProcessors();
+
+	// how many files may be compressed ahead of the writer
+	private static final int WINDOW = THREADS * 2;
+
+	// files larger than this are compressed to a temporary file, or copied as-is if they are stored
+	@VisibleForTesting
+	static final long STREAM_THRESHOLD = 1024 * 1024;
+
+	private static final ExecutorService COMPRESSOR = Executors.newFixedThreadPool(THREADS, r ->
+	{
+		Thread t = new Thread(r, "source-compressor");
+		t.setDaemon(true);
+		return t;
+	});
+
+	@Value
+	static class Entry
+	{
+		Path path;
+		String zipPath;
+		long length;
+	}
+
+	@Value
+	private static class Compressed
+	{
+		byte[] name;
+		int method;
+		int crc;
+		long size;
+		long compressedSize;
+
+		// the data is either in memory, or in a file, which is temporary if it was deflated
+		@Nullable
+		byte[] data;
+		@Nullable
+		Path file;
+		boolean temporary;
+
+		void writeTo(ZipWriter writer) throws IOException
+		{
+			OutputStream out = writer.beginEntry(name, method, crc, compressedSize, size);
+			if (data != null)
+			{
+				out.write(data);
+			}
+			else if (Files.copy(file, out) != compressedSize)
+			{
+				throw new ZipException("file changed while it was being archived: " + file);
+			}
+		}
+
+		void discard()
+		{
+			if (temporary)
+			{
+				try
+				{
+					Files.deleteIfExists(file);
+				}
+				catch (IOException e)
+				{
+					log.warn("unable to delete {}", file, e);
+				}
+			}
+		}
+	}
+
+	private final List<Entry> core = new ArrayList<>();
+	private final List<Entry> extras = new ArrayList<>();
+
+	void addCore(Entry entry)
+	{
+		core.add(entry);
+	}
+
+	/**
+	 * Adds a file that is only included if the archive is still below the budget
+	 */
+	void addExtra(Entry entry)
+	{
+		extras.add(entry);
+	}
+
+	/**
+	 * @return the extras that were left out because they would have exceeded {@code extrasBudget}
+	 */
+	List<Entry> write(File file, long extrasBudget) throws IOException
+	{
+		core.sort(Comparator.comparing(Entry::getZipPath));
+		extras.sort(Comparator.comparing(Entry::getLength).thenComparing(Entry::getZipPath));
+
+		List<Entry> order = new ArrayList<>(core);
+		order.addAll(extras);
+
+		List<Entry> skipped = new ArrayList<>();
+		Deque<CompletableFuture<Compressed>> pending = new ArrayDeque<>();
+		int submitted = 0;
+		try (ZipWriter writer = new ZipWriter(new FileOutputStream(file)))
+		{
+			for (int i = 0; i < order.size(); i++)
+			{
+				for (; submitted < order.size() && pending.size() < WINDOW; submitted++)
+				{
+					Entry e = order.get(submitted);
+					// anything that is over the budget on its own can never be included
+					pending.add(submitted >= core.size() && e.length > extrasBudget
+						? CompletableFuture.completedFuture(null)
+						: CompletableFuture.supplyAsync(() -> compress(e), COMPRESSOR));
+				}
+
+				Entry e = order.get(i);
+				Compressed c = await(pending.removeFirst());
+				try
+				{
+					if (i >= core.size() && writer.getCount() + e.length > extrasBudget)
+					{
+						skipped.add(e);
+						continue;
+					}
+					c.writeTo(writer);
+				}
+				finally
+				{
+					if (c != null)
+					{
+						c.discard();
+					}
+				}
+			}
+		}
+		finally
+		{
+			for (CompletableFuture<Compressed> f : pending)
+			{
+				f.cancel(false);
+				// compressions that are already running still finish, and leave a file behind
+				f.thenAccept(c ->
+				{
+					if (c != null)
+					{
+						c.discard();
+					}
+				});
+			}
+		}
+		return skipped;
+	}
+
+	private static Compressed compress(Entry e)
+	{
+		String extension = com.google.common.io.Files.getFileExtension(e.zipPath).toLowerCase(Locale.ROOT);
+		boolean store = STORED_EXTENSIONS.contains(extension);
+		byte[] name = e.zipPath.getBytes(StandardCharsets.UTF_8);
+		if (e.length > STREAM_THRESHOLD)
+		{
+			try
+			{
+				return compressLarge(e, name, store);
+			}
+			catch (IOException ex)
+			{
+				throw new RuntimeException(ex);
+			}
+		}
+
+		byte[] data;
+		try
+		{
+			data = Files.readAllBytes(e.path);
+		}
+		catch (IOException ex)
+		{
+			throw new RuntimeException(ex);
+		}
+
+		CRC32 crc = new CRC32();
+		crc.update(data);
+
+		if (!store)
+		{
+			ByteArrayOutputStream compressed = new ByteArrayOutputStream(data.length / 2 + 64);
+			Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+			try (DeflaterOutputStream dos = new DeflaterOutputStream(compressed, deflater))
+			{
+				dos.write(data);
+			}
+			catch (IOException ex)
+			{
+				throw new RuntimeException(ex);
+			}
+			finally
+			{
+				deflater.end();
+			}
+
+			// content that is already compressed can get bigger if it is deflated again
+			if (compressed.size() < data.length)
+			{
+				return new Compressed(name, ZipWriter.METHOD_DEFLATED, (int) crc.getValue(), data.length, compressed.size(),
+					compressed.toByteArray(), null, false);
+			}
+		}
+
+		return new Compressed(name, ZipWriter.METHOD_STORED, (int) crc.getValue(), data.length, data.length, data, null, false);
+	}
+
+	private static Compressed compressLarge(Entry e, byte[] name, boolean store) throws IOException
+	{
+		CRC32 crc = new CRC32();
+		if (store)
+		{
+			long size;
+			try (InputStream in = new CheckedInputStream(Files.newInputStream(e.path), crc))
+			{
+				size = ByteStreams.exhaust(in);
+			}
+			return new Compressed(name, ZipWriter.METHOD_STORED, (int) crc.getValue(), size, size, null, e.path, false);
+		}
+
+		Path tmp = Files.createTempFile("source-", ".deflated");
+		long size;
+		try
+		{
+			Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+			try (InputStream in = new CheckedInputStream(Files.newInputStream(e.path), crc);
+				DeflaterOutputStream dos = new DeflaterOutputStream(Files.newOutputStream(tmp), deflater))
+			{
+				size = ByteStreams.copy(in, dos);
+			}
+			finally
+			{
+				deflater.end();
+			}
+
+			long compressedSize = Files.size(tmp);
+			if (compressedSize < size)
+			{
+				return new Compressed(name, ZipWriter.METHOD_DEFLATED, (int) crc.getValue(), size, compressedSize, null, tmp, true);
+			}
+		}
+		catch (IOException | RuntimeException ex)
+		{
+			Files.deleteIfExists(tmp);
+			throw ex;
+		}
+
+		// content that is already compressed can get bigger if it is deflated again
+		Files.delete(tmp);
+		return new Compressed(name, ZipWriter.METHOD_STORED, (int) crc.getValue(), size, size, null, e.path, false);
+	}
+
+	private static Compressed await(Future<Compressed> future) throws IOException
+	{
+		try
+		{
+			return future.get();
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException();
+		}
+		catch (ExecutionException e)
+		{
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException && cause.getCause() instanceof IOException)
+			{
+				throw (IOException) cause.getCause();
+			}
+			throw new IOException(cause);
+		}
+	}
+}
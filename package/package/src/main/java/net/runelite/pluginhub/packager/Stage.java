@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) 2026 Abex
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.pluginhub.packager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * One step of the build pipeline. Items are queued into a bounded queue and
+ * handled by a fixed pool of worker threads, which hand them on to the next
+ * stage themselves. A full queue blocks the previous stage, so slow stages
+ * apply backpressure instead of piling up work on disk.
+ */
+@Slf4j
+class Stage<T>
+{
+	@Getter
+	private final String name;
+
+	private final BlockingQueue<T> queue;
+	private final Consumer<T> handler;
+	private final List<Thread> workers = new ArrayList<>();
+
+	private volatile boolean closed;
+
+	Stage(String name, int workers, int queueSize, Consumer<T> handler)
+	{
+		this.name = name;
+		this.queue = new ArrayBlockingQueue<>(queueSize);
+		this.handler = handler;
+
+		for (int i = 0; i < workers; i++)
+		{
+			Thread t = new Thread(this::run, name + "-" + i);
+			t.start();
+			this.workers.add(t);
+		}
+	}
+
+	void submit(T item)
+	{
+		if (closed)
+		{
+			throw new IllegalStateException(name + " is closed");
+		}
+
+		try
+		{
+			queue.put(item);
+		}
+		catch (InterruptedException e)
+		{
+			throw new RuntimeException(e);
+		}
+	}
+
+	/**
+	 * Stops accepting new work and waits for the queued work to be handled.
+	 * This must only be called once every stage feeding this one has been closed.
+	 */
+	void close()
+	{
+		closed = true;
+		for (Thread worker : workers)
+		{
+			try
+			{
+				worker.join();
+			}
+			catch (InterruptedException e)
+			{
+				throw new RuntimeException(e);
+			}
+		}
+	}
+
+	private void run()
+	{
+		for (; ; )
+		{
+			T item;
+			try
+			{
+				item = queue.poll(100, TimeUnit.MILLISECONDS);
+			}
+			catch (InterruptedException e)
+			{
+				throw new RuntimeException(e);
+			}
+
+			if (item == null)
+			{
+				if (closed && queue.isEmpty())
+				{
+					return;
+				}
+				continue;
+			}
+
+			try
+			{
+				handler.accept(item);
+			}
+			catch (RuntimeException e)
+			{
+				log.error("{}: unhandled exception", name, e);
+			}
+		}
+	}
+}
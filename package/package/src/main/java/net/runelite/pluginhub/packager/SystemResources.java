@@ -0,0 +1,183 @@
+/*
+ * Copyright (c) 2026 Abex
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.pluginhub.packager;
+
+import com.google.common.base.Splitter;
+import com.google.common.io.Files;
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Reads the cpu and memory available to the packager, honoring cgroup v1 and v2 limits
+ * so builds are sized for the container rather than the host
+ */
+@Slf4j
+class SystemResources
+{
+	private static final File CGROUP_V2 = new File("/sys/fs/cgroup");
+	private static final File CGROUP_V1_MEMORY = new File("/sys/fs/cgroup/memory");
+	private static final File CGROUP_V1_CPU = new File("/sys/fs/cgroup/cpu");
+	private static final File MEMINFO = new File("/proc/meminfo");
+
+	// v1 reports an unlimited group as a huge page aligned number
+	private static final long UNLIMITED = 1L << 60;
+
+	/**
+	 * @return the number of cpus we may use, which may be fractional under a cfs quota
+	 */
+	double cpuLimit()
+	{
+		double cpus = Runtime.getRuntime().availableProcessors();
+
+		// cpu.max is "$MAX $PERIOD", where max may be "max"
+		List<String> v2 = readFields(new File(CGROUP_V2, "cpu.max"));
+		if (v2 != null && v2.size() == 2 && !"max".equals(v2.get(0)))
+		{
+			return Math.min(cpus, Double.parseDouble(v2.get(0)) / Double.parseDouble(v2.get(1)));
+		}
+
+		long quota = readLong(new File(CGROUP_V1_CPU, "cpu.cfs_quota_us"));
+		long period = readLong(new File(CGROUP_V1_CPU, "cpu.cfs_period_us"));
+		if (quota > 0 && period > 0)
+		{
+			return Math.min(cpus, (double) quota / period);
+		}
+
+		return cpus;
+	}
+
+	/**
+	 * @return the total memory we may use, in bytes
+	 */
+	long memoryLimit()
+	{
+		long limit = ((com.sun.management.OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean())
+			.getTotalPhysicalMemorySize();
+
+		long cgroup = readLong(new File(CGROUP_V2, "memory.max"));
+		if (cgroup <= 0)
+		{
+			cgroup = readLong(new File(CGROUP_V1_MEMORY, "memory.limit_in_bytes"));
+		}
+
+		if (cgroup > 0 && cgroup < limit)
+		{
+			limit = cgroup;
+		}
+		return limit;
+	}
+
+	/**
+	 * @return the memory that can be allocated without swapping right now, in bytes, or -1 if unknown
+	 */
+	long availableMemory()
+	{
+		long available = -1;
+		try
+		{
+			for (String line : Files.readLines(MEMINFO, StandardCharsets.UTF_8))
+			{
+				if (line.startsWith("MemAvailable:"))
+				{
+					// MemAvailable:   12345678 kB
+					List<String> fields = Splitter.on(' ').omitEmptyStrings().splitToList(line);
+					available = Long.parseLong(fields.get(1)) * 1024;
+					break;
+				}
+			}
+		}
+		catch (IOException | RuntimeException e)
+		{
+			log.debug("unable to read {}", MEMINFO, e);
+		}
+
+		long max = readLong(new File(CGROUP_V2, "memory.max"));
+		long current = readLong(new File(CGROUP_V2, "memory.current"));
+		if (max <= 0 || current < 0)
+		{
+			max = readLong(new File(CGROUP_V1_MEMORY, "memory.limit_in_bytes"));
+			current = readLong(new File(CGROUP_V1_MEMORY, "memory.usage_in_bytes"));
+		}
+		if (max > 0 && current >= 0 && max < UNLIMITED)
+		{
+			long cgroupAvailable = Math.max(0, max - current);
+			available = available < 0 ? cgroupAvailable : Math.min(available, cgroupAvailable);
+		}
+
+		return available;
+	}
+
+	/**
+	 * @return the 1 minute load average, or -1 if unknown
+	 */
+	double loadAverage()
+	{
+		return ManagementFactory.getOperatingSystemMXBean().getSystemLoadAverage();
+	}
+
+	private static List<String> readFields(File file)
+	{
+		if (!file.exists())
+		{
+			return null;
+		}
+
+		try
+		{
+			return Splitter.on(' ')
+				.omitEmptyStrings()
+				.trimResults()
+				.splitToList(Files.asCharSource(file, StandardCharsets.UTF_8).read().trim());
+		}
+		catch (IOException e)
+		{
+			log.debug("unable to read {}", file, e);
+			return null;
+		}
+	}
+
+	private static long readLong(File file)
+	{
+		List<String> fields = readFields(file);
+		if (fields == null || fields.size() != 1)
+		{
+			return -1;
+		}
+
+		try
+		{
+			return Long.parseLong(fields.get(0));
+		}
+		catch (NumberFormatException e)
+		{
+			// "max"
+			return -1;
+		}
+	}
+}
@@ -0,0 +1,200 @@
+/*
+ * Copyright (c) 2026 Abex
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.pluginhub.packager;
+
+import com.google.common.io.CountingOutputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.zip.ZipException;
+
+/**
+ * Writes a zip one entry at a time, with every timestamp fixed, so the output only depends
+ * on the entries. Entries are either written from their header fields, or copied as raw
+ * records from another zip. Zip64 isn't supported.
+ */
+class ZipWriter implements Closeable
+{
+	static final int LOCAL_HEADER = 0x04034b50;
+	static final int CENTRAL_HEADER = 0x02014b50;
+	static final int END_OF_CENTRAL_DIRECTORY = 0x06054b50;
+
+	static final int LOCAL_HEADER_SIZE = 30;
+	static final int CENTRAL_HEADER_SIZE = 46;
+	static final int END_SIZE = 22;
+
+	static final int METHOD_STORED = 0;
+	static final int METHOD_DEFLATED = 8;
+
+	private static final int VERSION = 20;
+	private static final int FLAG_UTF8 = 1 << 11;
+
+	// 1980-01-01 00:00, the earliest time a zip can hold
+	private static final int DOS_DATE = (1 << 5) | 1;
+
+	private static final long MAX_U32 = 0xFFFFFFFFL;
+
+	private final CountingOutputStream out;
+	private final ByteArrayOutputStream directory = new ByteArrayOutputStream();
+	private int entries;
+
+	ZipWriter(OutputStream out)
+	{
+		this.out = new CountingOutputStream(new BufferedOutputStream(out));
+	}
+
+	/**
+	 * @return how many bytes have been written so far
+	 */
+	long getCount()
+	{
+		return out.getCount();
+	}
+
+	/**
+	 * Writes an entry's local header and name. Exactly {@code compressedSize} bytes of its data
+	 * must then be written to {@link #output()} before the next entry
+	 *
+	 * @param name the entry's name, in utf-8
+	 */
+	OutputStream beginEntry(byte[] name, int method, int crc, long compressedSize, long size) throws IOException
+	{
+		long offset = out.getCount();
+		if (offset + LOCAL_HEADER_SIZE + name.length + compressedSize > MAX_U32 || size > MAX_U32)
+		{
+			throw new ZipException("zip is too large");
+		}
+
+		ByteBuffer local = ByteBuffer.allocate(LOCAL_HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+		local.putInt(LOCAL_HEADER)
+			.putShort((short) VERSION)
+			.putShort((short) FLAG_UTF8)
+			.putShort((short) method)
+			.putShort((short) 0) // time
+			.putShort((short) DOS_DATE)
+			.putInt(crc)
+			.putInt((int) compressedSize)
+			.putInt((int) size)
+			.putShort((short) name.length)
+			.putShort((short) 0); // extra
+
+		ByteBuffer central = ByteBuffer.allocate(CENTRAL_HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+		central.putInt(CENTRAL_HEADER)
+			.putShort((short) VERSION) // made by
+			.putShort((short) VERSION) // needed
+			.putShort((short) FLAG_UTF8)
+			.putShort((short) method)
+			.putShort((short) 0) // time
+			.putShort((short) DOS_DATE)
+			.putInt(crc)
+			.putInt((int) compressedSize)
+			.putInt((int) size)
+			.putShort((short) name.length)
+			.putShort((short) 0) // extra
+			.putShort((short) 0) // comment
+			.putShort((short) 0) // disk
+			.putShort((short) 0) // internal attributes
+			.putInt(0) // external attributes
+			.putInt((int) offset);
+		directory.write(central.array());
+		directory.write(name);
+		entries++;
+
+		out.write(local.array());
+		out.write(name);
+		return out;
+	}
+
+	/**
+	 * Writes a whole entry
+	 */
+	void addEntry(byte[] name, int method, int crc, long size, byte[] data) throws IOException
+	{
+		beginEntry(name, method, crc, data.length, size).write(data);
+	}
+
+	/**
+	 * Adds the central directory header of an entry copied from another zip, whose local
+	 * record must then be copied to {@link #output()} as-is
+	 */
+	void beginCopiedEntry(byte[] centralHeader) throws IOException
+	{
+		long offset = out.getCount();
+		if (offset > MAX_U32)
+		{
+			throw new ZipException("zip is too large");
+		}
+
+		ByteBuffer.wrap(centralHeader).order(ByteOrder.LITTLE_ENDIAN).putInt(42, (int) offset);
+		directory.write(centralHeader);
+		entries++;
+	}
+
+	OutputStream output()
+	{
+		return out;
+	}
+
+	/**
+	 * Writes the central directory
+	 */
+	@Override
+	public void close() throws IOException
+	{
+		try
+		{
+			if (entries > 0xFFFF)
+			{
+				throw new ZipException("too many entries");
+			}
+
+			long offset = out.getCount();
+			if (offset + directory.size() > MAX_U32)
+			{
+				throw new ZipException("zip is too large");
+			}
+			directory.writeTo(out);
+
+			ByteBuffer end = ByteBuffer.allocate(END_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+			end.putInt(END_OF_CENTRAL_DIRECTORY)
+				.putShort((short) 0) // disk
+				.putShort((short) 0) // directory disk
+				.putShort((short) entries)
+				.putShort((short) entries)
+				.putInt(directory.size())
+				.putInt((int) offset)
+				.putShort((short) 0); // comment
+			out.write(end.array());
+		}
+		finally
+		{
+			out.close();
+		}
+	}
+}
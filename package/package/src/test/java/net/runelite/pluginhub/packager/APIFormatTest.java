@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) 2026 Abex
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.pluginhub.packager;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+import net.runelite.pluginhub.apirecorder.API;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class APIFormatTest
+{
+	@Test
+	public void testCompactMatchesText() throws IOException
+	{
+		Set<String> apis = generate(60_000);
+		byte[] text = encode(apis, false);
+		byte[] compact = encode(apis, true);
+
+		API fromText = API.decode(new ByteArrayInputStream(text));
+		API fromCompact = API.decode(new ByteArrayInputStream(compact));
+		Assert.assertEquals(apis, fromText.getApis());
+		Assert.assertEquals(apis, fromCompact.getApis());
+		Assert.assertEquals(apis.size(), fromCompact.getApis().size());
+
+		Random r = new Random(2);
+		for (int i = 0; i < 10_000; i++)
+		{
+			String probe = "Lnet/runelite/api/Class" + r.nextInt(3000) + ";.method" + r.nextInt(600) + "()V:b";
+			Assert.assertEquals(probe, apis.contains(probe), fromCompact.getApis().contains(probe));
+		}
+
+		Assert.assertEquals(0, fromCompact.missingFrom(fromText).count());
+		Assert.assertEquals(0, fromText.missingFrom(fromCompact).count());
+	}
+
+	@Test
+	public void testInternedMatchesStrings() throws IOException
+	{
+		Set<String> client = generate(60_000);
+		Set<String> plugin = new HashSet<>();
+		Random r = new Random(3);
+		for (String api : client)
+		{
+			if (r.nextInt(200) == 0)
+			{
+				plugin.add(api);
+			}
+		}
+		plugin.add("Lnet/runelite/api/Removed;.gone()V:b");
+
+		API clientApi = API.decode(new ByteArrayInputStream(encode(client, true)));
+		API pluginApi = new API(plugin);
+
+		Assert.assertEquals(
+			pluginApi.missingFrom(clientApi).collect(Collectors.toSet()),
+			pluginApi.interned().missingFrom(clientApi.interned()).collect(Collectors.toSet()));
+		Assert.assertEquals(
+			pluginApi.in(clientApi).collect(Collectors.toSet()),
+			pluginApi.interned().in(clientApi.interned()).collect(Collectors.toSet()));
+		Assert.assertEquals(
+			Collections.singleton("Lnet/runelite/api/Removed;.gone()V:b"),
+			pluginApi.interned().missingFrom(clientApi.interned()).collect(Collectors.toSet()));
+	}
+
+	static byte[] encode(Set<String> apis, boolean compact) throws IOException
+	{
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		if (compact)
+		{
+			API.encodeCompact(out, apis.stream());
+		}
+		else
+		{
+			API.encode(out, apis.stream());
+		}
+		return out.toByteArray();
+	}
+
+	// roughly the shape of the client's api
+	static Set<String> generate(int count)
+	{
+		Random r = new Random(1);
+		Set<String> apis = new HashSet<>();
+		apis.add("Lnet/runelite/api/Class1;b");
+		while (apis.size() < count)
+		{
+			String cls = "Lnet/runelite/api/Class" + r.nextInt(count / 30) + ";";
+			switch (r.nextInt(4))
+			{
+				case 0:
+					apis.add(cls + "b");
+					break;
+				case 1:
+					apis.add(cls + ">Lnet/runelite/api/Class" + r.nextInt(count / 30) + ";");
+					break;
+				case 2:
+					apis.add(cls + ".method" + r.nextInt(600) + "(ILjava/lang/String;)Lnet/runelite/api/Widget;:b");
+					break;
+				default:
+					apis.add(cls + ".FIELD_" + r.nextInt(300) + ":I:bsf:" + r.nextInt(1000));
+					break;
+			}
+		}
+		return apis;
+	}
+}
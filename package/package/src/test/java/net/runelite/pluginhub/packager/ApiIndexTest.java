@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2026 Abex
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.pluginhub.packager;
+
+import com.google.common.collect.ImmutableSet;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.stream.Stream;
+import net.runelite.pluginhub.apirecorder.API;
+import net.runelite.pluginhub.uploader.ApiBundle;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class ApiIndexTest
+{
+	@Rule
+	public TemporaryFolder tmp = new TemporaryFolder();
+
+	@Test
+	public void testAffectedBy() throws IOException
+	{
+		ApiBundle bundle = ApiBundle.read(ByteBuffer.wrap(new ApiBundle.Builder()
+			.add("alpha", "a", true, api("Lfoo;b", "Lfoo;.bar()V:b"))
+			.add("beta", "b", true, api("Lfoo;b", "Lbaz;b"))
+			.add("gamma", "c", true, null)
+			.toByteArray()));
+
+		API client = new API(ImmutableSet.of("Lfoo;b", "Lbaz;b"));
+
+		File file = new File(tmp.getRoot(), "index");
+		Assert.assertEquals(ImmutableSet.of("alpha"), ApiIndex.load(bundle, file).affectedBy(client));
+		Assert.assertTrue(file.exists());
+
+		// loaded from disk this time
+		Assert.assertEquals(ImmutableSet.of("alpha"), ApiIndex.load(bundle, file).affectedBy(client));
+
+		Assert.assertEquals(ImmutableSet.of(), ApiIndex.build(bundle)
+			.affectedBy(new API(ImmutableSet.of("Lfoo;b", "Lfoo;.bar()V:b", "Lbaz;b"))));
+	}
+
+	@Test
+	public void testReuploadedApi() throws IOException
+	{
+		API client = new API(ImmutableSet.of("Lfoo;b", "Lfoo;.bar()V:b"));
+		File file = new File(tmp.getRoot(), "index");
+
+		ApiBundle bundle = ApiBundle.read(ByteBuffer.wrap(new ApiBundle.Builder()
+			.add("alpha", "a", true, api("Lfoo;b", "Lfoo;.bar()V:b"))
+			.toByteArray()));
+		Assert.assertEquals(ImmutableSet.of(), ApiIndex.load(bundle, file).affectedBy(client));
+
+		// the same jar, with an api of the same length that uses something else
+		ApiBundle reuploaded = ApiBundle.read(ByteBuffer.wrap(new ApiBundle.Builder()
+			.add("alpha", "a", true, api("Lfoo;b", "Lfoo;.baz()V:b"))
+			.toByteArray()));
+		Assert.assertEquals(ImmutableSet.of("alpha"), ApiIndex.load(reuploaded, file).affectedBy(client));
+	}
+
+	private static byte[] api(String... symbols) throws IOException
+	{
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		API.encode(out, Stream.of(symbols));
+		return out.toByteArray();
+	}
+}
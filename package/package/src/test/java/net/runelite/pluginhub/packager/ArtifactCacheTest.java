@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2026 Abex
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.pluginhub.packager;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.io.Files;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class ArtifactCacheTest
+{
+	@Rule
+	public TemporaryFolder tmp = new TemporaryFolder();
+
+	private File gradleHome;
+
+	@Before
+	public void before() throws IOException
+	{
+		gradleHome = tmp.newFolder("gradle");
+		new File(gradleHome, "lib").mkdir();
+		new File(gradleHome, "lib/gradle-core-8.10.jar").createNewFile();
+	}
+
+	@Test
+	public void testKeyDependsOnInputs() throws IOException
+	{
+		File descriptor = write("example", "repository=https://github.com/runelite/example-plugin.git\ncommit=a\n");
+
+		ArtifactCache cache = new ArtifactCache(tmp.newFolder(), Long.MAX_VALUE, Long.MAX_VALUE, "1.0.0", true, gradleHome);
+		String key = cache.key(descriptor);
+		Assert.assertEquals(key, cache.key(descriptor));
+		Assert.assertNotEquals(key, new ArtifactCache(tmp.newFolder(), Long.MAX_VALUE, Long.MAX_VALUE, "1.0.1", true, gradleHome).key(descriptor));
+		Assert.assertNotEquals(key, new ArtifactCache(tmp.newFolder(), Long.MAX_VALUE, Long.MAX_VALUE, "1.0.0", false, gradleHome).key(descriptor));
+
+		File otherGradle = tmp.newFolder("gradle-other");
+		new File(otherGradle, "lib").mkdir();
+		new File(otherGradle, "lib/gradle-core-8.11.jar").createNewFile();
+		Assert.assertNotEquals(key, new ArtifactCache(tmp.newFolder(), Long.MAX_VALUE, Long.MAX_VALUE, "1.0.0", true, otherGradle).key(descriptor));
+
+		write("example", "repository=https://github.com/runelite/example-plugin.git\ncommit=b\n");
+		Assert.assertNotEquals(key, cache.key(descriptor));
+	}
+
+	@Test
+	public void testStoreAndLookup() throws IOException
+	{
+		ArtifactCache cache = new ArtifactCache(tmp.newFolder(), Long.MAX_VALUE, Long.MAX_VALUE, "1.0.0", true, gradleHome);
+		Assert.assertNull(cache.lookup("abc"));
+
+		cache.store("abc", ImmutableMap.of("plugin.jar", write("plugin.jar", "jar")));
+		File dir = cache.lookup("abc");
+		Assert.assertNotNull(dir);
+		Assert.assertEquals("jar", Files.asCharSource(new File(dir, "plugin.jar"), StandardCharsets.UTF_8).read());
+	}
+
+	@Test
+	public void testEviction() throws IOException
+	{
+		ArtifactCache cache = new ArtifactCache(tmp.newFolder(), 10, TimeUnit.DAYS.toMillis(1), "1.0.0", true, gradleHome);
+		File file = write("plugin.jar", "123456");
+		cache.store("old", ImmutableMap.of("plugin.jar", file));
+		cache.store("lru", ImmutableMap.of("plugin.jar", file));
+		cache.store("mru", ImmutableMap.of("plugin.jar", file));
+
+		long now = System.currentTimeMillis();
+		cache.lookup("old").setLastModified(now - TimeUnit.DAYS.toMillis(2));
+		cache.lookup("lru").setLastModified(now - TimeUnit.HOURS.toMillis(2));
+		cache.lookup("mru").setLastModified(now - TimeUnit.HOURS.toMillis(1));
+
+		cache.evict();
+		Assert.assertNull(cache.lookup("old"));
+		Assert.assertNull(cache.lookup("lru"));
+		Assert.assertNotNull(cache.lookup("mru"));
+	}
+
+	private File write(String name, String contents) throws IOException
+	{
+		File file = new File(tmp.getRoot(), name);
+		Files.asCharSink(file, StandardCharsets.UTF_8).write(contents);
+		return file;
+	}
+}
@@ -24,9 +24,15 @@
  */
 package net.runelite.pluginhub.packager;
 
+import com.google.common.collect.ImmutableSet;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
 import java.util.Map;
+import java.util.regex.Pattern;
+import net.runelite.pluginhub.apirecorder.API;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -37,8 +43,44 @@ public class DisallowedAPIsTest
 	{
 		try (InputStream is = Packager.class.getResourceAsStream("disallowed-apis.txt"))
 		{
-			Map<String, String> disallowed = Plugin.CURRENT_API.parseCommented(is, true);
+			Map<String, String> disallowed = ClientApi.get().parseCommented(is, true);
 			disallowed.forEach((k, v) -> Assert.assertFalse(k + " -> " + v, v.isEmpty()));
 		}
 	}
+
+	@Test
+	public void testRegexExpansion() throws IOException
+	{
+		ImmutableSet.Builder<String> builder = ImmutableSet.builder();
+		for (int i = 0; i < 100; i++)
+		{
+			builder.add("Lnet/runelite/api/widgets/WidgetInfo;." + "FIELD" + i + ":Lnet/runelite/api/widgets/WidgetInfo;:bsf:");
+			builder.add("Lnet/runelite/api/widgets/WidgetID" + i + ";b");
+			builder.add("Lnet/runelite/api/Client;.method" + i + "()V:ab");
+		}
+		API api = new API(builder.build());
+
+		String[] regexes = {
+			"^Lnet/runelite/api/widgets/WidgetInfo;",
+			"^Lnet/runelite/api/widgets/WidgetID1",
+			"^Lnet/runelite/api/widgets/Widget(Info|ID)5",
+			"^Lnet/runelite/api/Clients?;\\.method9\\(",
+			"method1[0-9]\\(",
+			"^nothing|FIELD7:",
+		};
+
+		StringBuilder rules = new StringBuilder();
+		Map<String, String> expected = new HashMap<>();
+		for (String regex : regexes)
+		{
+			rules.append("# ").append(regex).append("\n/").append(regex).append("/\n");
+			Pattern p = Pattern.compile(regex);
+			api.getApis().stream()
+				.filter(p.asPredicate())
+				.forEach(k -> expected.put(k, regex));
+		}
+
+		Map<String, String> disallowed = api.parseCommented(new ByteArrayInputStream(rules.toString().getBytes(StandardCharsets.UTF_8)), true);
+		Assert.assertEquals(expected, disallowed);
+	}
 }
@@ -0,0 +1,162 @@
+/*
+ * Copyright (c) 2026 Abex
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.pluginhub.packager;
+
+import com.google.common.io.Files;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class GitMirrorCacheTest
+{
+	@Rule
+	public TemporaryFolder tmp = new TemporaryFolder();
+
+	private TestRepository upstream;
+	private File logFile;
+	private GitMirrorCache mirrors;
+
+	@Before
+	public void before() throws IOException
+	{
+		upstream = new TestRepository(tmp.newFolder("upstream"));
+		logFile = tmp.newFile("log");
+		mirrors = new GitMirrorCache(tmp.newFolder("mirrors"), TimeUnit.DAYS.toMillis(1));
+		// like github, so the mirror can be a partial clone
+		upstream.git("config", "uploadpack.allowFilter", "true");
+		upstream.git("config", "uploadpack.allowAnySHA1InWant", "true");
+	}
+
+	@Test
+	public void testCheckout() throws Exception
+	{
+		String first = commit("plugin.txt", "first");
+		String second = commit("plugin.txt", "second");
+
+		File a = checkout(first);
+		Assert.assertEquals("first", read(a, "plugin.txt"));
+		Assert.assertEquals(upstream.url, TestRepository.git(a, "remote", "get-url", "origin"));
+
+		// the first fetch took every branch, so another commit of the same repository is already there
+		File b = checkout(second);
+		Assert.assertEquals("second", read(b, "plugin.txt"));
+		Assert.assertEquals(1, mirrors.fetches.get());
+
+		String third = commit("plugin.txt", "third");
+		Assert.assertEquals("third", read(checkout(third), "plugin.txt"));
+		Assert.assertEquals(2, mirrors.fetches.get());
+	}
+
+	@Test
+	public void testOnlyCheckedOutBlobs() throws Exception
+	{
+		String first = commit("plugin.txt", "first");
+		String second = commit("plugin.txt", "second");
+
+		Assert.assertEquals("second", read(checkout(second), "plugin.txt"));
+
+		String objects = TestRepository.git(mirrors.mirror(upstream.url), "rev-list", "--objects", "--missing=print", "--all");
+		Assert.assertTrue(objects.contains("?" + upstream.git("rev-parse", first + ":plugin.txt")));
+		Assert.assertFalse(objects.contains("?" + upstream.git("rev-parse", second + ":plugin.txt")));
+
+		Assert.assertEquals("first", read(checkout(first), "plugin.txt"));
+		Assert.assertEquals(1, mirrors.fetches.get());
+	}
+
+	@Test
+	public void testCommitNotOnABranch() throws Exception
+	{
+		String base = commit("plugin.txt", "base");
+		String detached = commit("plugin.txt", "detached");
+		upstream.git("reset", "--quiet", "--hard", base);
+
+		Assert.assertEquals("detached", read(checkout(detached), "plugin.txt"));
+	}
+
+	@Test(expected = PluginBuildException.class)
+	public void testMissingCommit() throws Exception
+	{
+		commit("plugin.txt", "first");
+		checkout("0123456789012345678901234567890123456789");
+	}
+
+	@Test
+	public void testConcurrentCheckouts() throws Exception
+	{
+		List<String> commits = new ArrayList<>();
+		for (int i = 0; i < 4; i++)
+		{
+			commits.add(commit("plugin.txt", "" + i));
+		}
+
+		ExecutorService executor = Executors.newFixedThreadPool(commits.size());
+		try
+		{
+			List<Future<File>> checkouts = new ArrayList<>();
+			for (String commit : commits)
+			{
+				checkouts.add(executor.submit(() -> checkout(commit)));
+			}
+			for (int i = 0; i < commits.size(); i++)
+			{
+				Assert.assertEquals("" + i, read(checkouts.get(i).get(), "plugin.txt"));
+			}
+		}
+		finally
+		{
+			executor.shutdown();
+		}
+		Assert.assertEquals(1, mirrors.fetches.get());
+	}
+
+	private File checkout(String commit) throws IOException, PluginBuildException
+	{
+		File dir = new File(tmp.getRoot(), "checkout-" + commit);
+		mirrors.checkout("test", upstream.url, commit, dir, logFile);
+		return dir;
+	}
+
+	private String commit(String file, String content) throws IOException
+	{
+		upstream.write(file, content);
+		return upstream.commit(content);
+	}
+
+	private static String read(File dir, String file) throws IOException
+	{
+		return Files.asCharSource(new File(dir, file), StandardCharsets.UTF_8).read();
+	}
+}
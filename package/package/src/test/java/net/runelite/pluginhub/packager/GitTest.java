@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2026 Abex
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.pluginhub.packager;
+
+import com.google.common.io.Files;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class GitTest
+{
+	@Rule
+	public TemporaryFolder tmp = new TemporaryFolder();
+
+	private TestRepository upstream;
+	private File logFile;
+
+	@Before
+	public void before() throws IOException
+	{
+		upstream = new TestRepository(tmp.newFolder("upstream"));
+		logFile = tmp.newFile("log");
+	}
+
+	@Test
+	public void testFetchCommit() throws IOException, PluginBuildException
+	{
+		String first = commit("first");
+		commit("second");
+
+		File dir = new File(tmp.getRoot(), "checkout");
+		Assert.assertTrue(Git.fetchCommit("test", upstream.url, first, dir, logFile));
+		Assert.assertEquals("first", Files.asCharSource(new File(dir, "plugin.txt"), StandardCharsets.UTF_8).read());
+		Assert.assertTrue(new File(dir, ".git/shallow").exists());
+	}
+
+	@Test
+	public void testFetchMissingCommit() throws IOException, PluginBuildException
+	{
+		commit("first");
+
+		File dir = new File(tmp.getRoot(), "checkout");
+		Assert.assertFalse(Git.fetchCommit("test", upstream.url, "0123456789012345678901234567890123456789", dir, logFile));
+	}
+
+	@Test
+	public void testClone() throws IOException, PluginBuildException
+	{
+		String first = commit("first");
+		commit("second");
+
+		File dir = new File(tmp.getRoot(), "checkout");
+		Git.clone("test", upstream.url, first, dir, logFile);
+		Assert.assertEquals("first", Files.asCharSource(new File(dir, "plugin.txt"), StandardCharsets.UTF_8).read());
+	}
+
+	private String commit(String content) throws IOException
+	{
+		upstream.write("plugin.txt", content);
+		return upstream.commit(content);
+	}
+}
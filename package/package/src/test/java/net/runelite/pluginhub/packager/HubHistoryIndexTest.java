@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2026 Abex
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.pluginhub.packager;
+
+import com.google.common.io.Files;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class HubHistoryIndexTest
+{
+	@Rule
+	public TemporaryFolder tmp = new TemporaryFolder();
+
+	private TestRepository repo;
+	private File plugins;
+	private File cacheFile;
+
+	@Before
+	public void before() throws IOException
+	{
+		repo = new TestRepository(tmp.newFolder("hub"));
+		plugins = new File(repo.dir, "plugins");
+		plugins.mkdirs();
+		cacheFile = new File(tmp.getRoot(), "cache/hub-history.json");
+	}
+
+	@Test
+	public void testDates() throws IOException
+	{
+		write("old", "first");
+		write("other", "first");
+		commit(1000);
+		write("old", "second");
+		commit(2000);
+		repo.git("mv", "plugins/old", "plugins/new");
+		commit(3000);
+		write("other", "second");
+		commit(4000);
+
+		HubHistoryIndex index = HubHistoryIndex.load(plugins, cacheFile);
+		Assert.assertArrayEquals(new long[]{3000, 1000}, index.dates(new File(plugins, "new")));
+		Assert.assertArrayEquals(new long[]{4000, 1000}, index.dates(new File(plugins, "other")));
+		Assert.assertNull(index.dates(new File(plugins, "old")));
+		Assert.assertNull(index.dates(new File(plugins, "missing")));
+	}
+
+	@Test
+	public void testCache() throws IOException
+	{
+		write("plugin", "first");
+		commit(1000);
+
+		HubHistoryIndex.load(plugins, cacheFile);
+		Assert.assertTrue(cacheFile.exists());
+
+		// an index for the same HEAD is read back instead of walking the history again
+		String head = repo.git("rev-parse", "HEAD");
+		Files.asCharSink(cacheFile, StandardCharsets.UTF_8).write("{\"head\":\"" + head + "\",\"dates\":{\"plugins/plugin\":[5,6]}}");
+		Assert.assertArrayEquals(new long[]{5, 6}, HubHistoryIndex.load(plugins, cacheFile).dates(new File(plugins, "plugin")));
+
+		write("plugin", "second");
+		commit(2000);
+		Assert.assertArrayEquals(new long[]{2000, 1000}, HubHistoryIndex.load(plugins, cacheFile).dates(new File(plugins, "plugin")));
+	}
+
+	private void write(String plugin, String commit) throws IOException
+	{
+		Files.asCharSink(new File(plugins, plugin), StandardCharsets.UTF_8)
+			.write("repository=https://github.com/runelite/example-plugin.git\ncommit=" + commit + "\n");
+	}
+
+	private void commit(long time) throws IOException
+	{
+		repo.commit("commit", time);
+	}
+}
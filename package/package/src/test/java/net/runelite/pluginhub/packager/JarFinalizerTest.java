@@ -0,0 +1,181 @@
+/*
+ * Copyright (c) 2026 Abex
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.pluginhub.packager;
+
+import com.google.common.io.ByteStreams;
+import com.google.common.io.Files;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class JarFinalizerTest
+{
+	@Rule
+	public TemporaryFolder tmp = new TemporaryFolder();
+
+	@Test
+	public void testCopyAndAppend() throws IOException
+	{
+		Map<String, String> expected = new HashMap<>();
+		File source = writeSource(expected);
+
+		String json = "{\"internalName\":\"example\"}";
+		expected.put("runelite_plugin.json", json);
+		File out = finalize(source, json);
+
+		Assert.assertEquals(expected, readCentral(out));
+		Assert.assertEquals(expected, readLocal(out));
+		Assert.assertArrayEquals(Files.toByteArray(out), Files.toByteArray(finalize(source, json)));
+	}
+
+	@Test
+	public void testVisitEntries() throws IOException
+	{
+		Map<String, String> expected = new HashMap<>();
+		File source = writeSource(expected);
+
+		Map<String, String> visited = new HashMap<>();
+		try (JarFinalizer jar = new JarFinalizer(source, new FileOutputStream(tmp.newFile())))
+		{
+			jar.copyEntries((name, data) -> visited.put(name, new String(data.read(), StandardCharsets.UTF_8)));
+		}
+
+		Assert.assertEquals(expected, visited);
+	}
+
+	@Test(expected = ZipException.class)
+	public void testDuplicateEntry() throws IOException
+	{
+		File source = tmp.newFile("plugin.jar");
+		try (ZipOutputStream zos = new ZipOutputStream(new FileOutputStream(source)))
+		{
+			zos.putNextEntry(new ZipEntry("runelite_plugin.json"));
+			zos.closeEntry();
+		}
+
+		finalize(source, "{}");
+	}
+
+	@Test(expected = ZipException.class)
+	public void testNotAJar() throws IOException
+	{
+		File source = tmp.newFile("plugin.jar");
+		Files.write(new byte[100], source);
+		finalize(source, "{}");
+	}
+
+	private File writeSource(Map<String, String> expected) throws IOException
+	{
+		File source = tmp.newFile("plugin.jar");
+		try (ZipOutputStream zos = new ZipOutputStream(new FileOutputStream(source)))
+		{
+			zos.putNextEntry(new ZipEntry("net/"));
+			zos.closeEntry();
+			expected.put("net/", "");
+
+			// deflated entries of unknown size are followed by a data descriptor
+			String deflated = repeat("deflated ", 1000);
+			zos.putNextEntry(new ZipEntry("net/Deflated.class"));
+			zos.write(deflated.getBytes(StandardCharsets.UTF_8));
+			zos.closeEntry();
+			expected.put("net/Deflated.class", deflated);
+
+			byte[] stored = "stored".getBytes(StandardCharsets.UTF_8);
+			CRC32 crc = new CRC32();
+			crc.update(stored);
+			ZipEntry ze = new ZipEntry("stored.txt");
+			ze.setMethod(ZipEntry.STORED);
+			ze.setSize(stored.length);
+			ze.setCrc(crc.getValue());
+			zos.putNextEntry(ze);
+			zos.write(stored);
+			zos.closeEntry();
+			expected.put("stored.txt", "stored");
+		}
+		return source;
+	}
+
+	private File finalize(File source, String json) throws IOException
+	{
+		File out = tmp.newFile();
+		try (JarFinalizer jar = new JarFinalizer(source, new FileOutputStream(out)))
+		{
+			jar.copyEntries();
+			jar.add("runelite_plugin.json", json.getBytes(StandardCharsets.UTF_8));
+		}
+		return out;
+	}
+
+	private static Map<String, String> readCentral(File jar) throws IOException
+	{
+		Map<String, String> entries = new HashMap<>();
+		try (ZipFile zf = new ZipFile(jar))
+		{
+			for (ZipEntry ze : Collections.list(zf.entries()))
+			{
+				entries.put(ze.getName(), new String(ByteStreams.toByteArray(zf.getInputStream(ze)), StandardCharsets.UTF_8));
+			}
+		}
+		return entries;
+	}
+
+	private static Map<String, String> readLocal(File jar) throws IOException
+	{
+		Map<String, String> entries = new HashMap<>();
+		try (ZipInputStream zis = new ZipInputStream(new FileInputStream(jar)))
+		{
+			for (ZipEntry ze; (ze = zis.getNextEntry()) != null; )
+			{
+				entries.put(ze.getName(), new String(ByteStreams.toByteArray(zis), StandardCharsets.UTF_8));
+			}
+		}
+		return entries;
+	}
+
+	private static String repeat(String s, int n)
+	{
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < n; i++)
+		{
+			sb.append(s);
+		}
+		return sb.toString();
+	}
+}
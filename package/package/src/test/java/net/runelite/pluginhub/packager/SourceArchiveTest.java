@@ -0,0 +1,198 @@
+/*
+ * Copyright (c) 2026 Abex
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.pluginhub.packager;
+
+import com.google.common.io.ByteStreams;
+import com.google.common.io.Files;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipInputStream;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class SourceArchiveTest
+{
+	@Rule
+	public TemporaryFolder tmp = new TemporaryFolder();
+
+	@Test
+	public void testOrder() throws IOException
+	{
+		SourceArchive archive = new SourceArchive();
+		archive.addExtra(entry("README.md", text(100)));
+		archive.addCore(entry("src/main/java/Plugin.java", text(500)));
+		archive.addExtra(entry("LICENSE", text(50)));
+		archive.addCore(entry("build.gradle", text(200)));
+		for (int i = 0; i < 50; i++)
+		{
+			archive.addCore(entry("src/main/java/Class" + i + ".java", text(i * 10)));
+		}
+
+		File out = tmp.newFile();
+		Assert.assertEquals(Collections.emptyList(), archive.write(out, 1024 * 1024));
+
+		List<String> names = readNames(out);
+		List<String> expected = new ArrayList<>();
+		expected.add("build.gradle");
+		for (int i = 0; i < 50; i++)
+		{
+			expected.add("src/main/java/Class" + i + ".java");
+		}
+		expected.add("src/main/java/Plugin.java");
+		Collections.sort(expected);
+		expected.add("LICENSE");
+		expected.add("README.md");
+		Assert.assertEquals(expected, names);
+
+		File again = tmp.newFile();
+		archive.write(again, 1024 * 1024);
+		Assert.assertArrayEquals(Files.toByteArray(out), Files.toByteArray(again));
+	}
+
+	@Test
+	public void testBudget() throws IOException
+	{
+		SourceArchive archive = new SourceArchive();
+		SourceArchive.Entry core = entry("src/main/java/Plugin.java", random(3000));
+		SourceArchive.Entry small = entry("small.txt", text(100));
+		SourceArchive.Entry medium = entry("medium.bin", random(1500));
+		SourceArchive.Entry huge = entry("huge.bin", random(10000));
+		archive.addCore(core);
+		archive.addExtra(huge);
+		archive.addExtra(medium);
+		archive.addExtra(small);
+
+		File out = tmp.newFile();
+		Assert.assertEquals(Arrays.asList(medium, huge), archive.write(out, 4000));
+		Assert.assertEquals(Arrays.asList("src/main/java/Plugin.java", "small.txt"), readNames(out));
+	}
+
+	@Test
+	public void testStoreCompressed() throws IOException
+	{
+		byte[] icon = random(2000);
+		byte[] noise = random(2000);
+		byte[] source = text(2000);
+
+		SourceArchive archive = new SourceArchive();
+		archive.addCore(entry("icon.png", icon));
+		archive.addCore(entry("noise.dat", noise));
+		archive.addCore(entry("Plugin.java", source));
+
+		File out = tmp.newFile();
+		archive.write(out, 1024 * 1024);
+
+		try (ZipFile zf = new ZipFile(out))
+		{
+			assertEntry(zf, "icon.png", ZipEntry.STORED, icon);
+			assertEntry(zf, "noise.dat", ZipEntry.STORED, noise);
+			assertEntry(zf, "Plugin.java", ZipEntry.DEFLATED, source);
+		}
+	}
+
+	@Test
+	public void testLargeEntries() throws IOException
+	{
+		int large = (int) SourceArchive.STREAM_THRESHOLD + 1;
+		byte[] icon = random(large);
+		byte[] noise = random(large + 1);
+		byte[] source = text(large);
+		byte[] small = text(100);
+
+		SourceArchive archive = new SourceArchive();
+		archive.addCore(entry("icon.png", icon));
+		archive.addCore(entry("noise.dat", noise));
+		archive.addCore(entry("Plugin.java", source));
+		archive.addCore(entry("Small.java", small));
+
+		File out = tmp.newFile();
+		archive.write(out, 1024 * 1024);
+
+		try (ZipFile zf = new ZipFile(out))
+		{
+			assertEntry(zf, "icon.png", ZipEntry.STORED, icon);
+			assertEntry(zf, "noise.dat", ZipEntry.STORED, noise);
+			assertEntry(zf, "Plugin.java", ZipEntry.DEFLATED, source);
+			assertEntry(zf, "Small.java", ZipEntry.DEFLATED, small);
+		}
+	}
+
+	private SourceArchive.Entry entry(String name, byte[] data) throws IOException
+	{
+		File file = new File(tmp.getRoot(), "repo/" + name);
+		file.getParentFile().mkdirs();
+		Files.write(data, file);
+		return new SourceArchive.Entry(file.toPath(), name, data.length);
+	}
+
+	private static void assertEntry(ZipFile zf, String name, int method, byte[] data) throws IOException
+	{
+		ZipEntry ze = zf.getEntry(name);
+		Assert.assertEquals(method, ze.getMethod());
+		Assert.assertArrayEquals(data, ByteStreams.toByteArray(zf.getInputStream(ze)));
+	}
+
+	private static List<String> readNames(File zip) throws IOException
+	{
+		List<String> names = new ArrayList<>();
+		try (ZipInputStream zis = new ZipInputStream(new FileInputStream(zip)))
+		{
+			for (ZipEntry ze; (ze = zis.getNextEntry()) != null; )
+			{
+				ByteStreams.exhaust(zis);
+				names.add(ze.getName());
+			}
+		}
+		return names;
+	}
+
+	private static byte[] text(int length)
+	{
+		StringBuilder sb = new StringBuilder();
+		while (sb.length() < length)
+		{
+			sb.append("public class Plugin {}\n");
+		}
+		return sb.substring(0, length).getBytes(StandardCharsets.UTF_8);
+	}
+
+	private static byte[] random(int length)
+	{
+		byte[] data = new byte[length];
+		new Random(length).nextBytes(data);
+		return data;
+	}
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2026 Abex
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.pluginhub.packager;
+
+import com.google.common.io.ByteStreams;
+import com.google.common.io.Files;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Assert;
+
+/**
+ * A local git repository for tests to commit to and fetch from
+ */
+class TestRepository
+{
+	final File dir;
+
+	// how git wants a local repository's url to look
+	final String url;
+
+	TestRepository(File dir) throws IOException
+	{
+		this.dir = dir;
+		this.url = dir.toURI().toString().replace("file:/", "file:///");
+		git("init", "--quiet");
+	}
+
+	void write(String path, String content) throws IOException
+	{
+		File file = new File(dir, path);
+		file.getParentFile().mkdirs();
+		Files.asCharSink(file, StandardCharsets.UTF_8).write(content);
+	}
+
+	/**
+	 * Commits every change in the working tree
+	 *
+	 * @return the commit's sha
+	 */
+	String commit(String message) throws IOException
+	{
+		return commit(message, 0);
+	}
+
+	/**
+	 * @param time the commit's date, in seconds since the epoch, or 0 for now
+	 */
+	String commit(String message, long time) throws IOException
+	{
+		git("add", "-A");
+		run(dir, time, "-c", "user.name=test", "-c", "user.email=test@example.com", "commit", "--quiet", "-m", message);
+		return git("rev-parse", "HEAD");
+	}
+
+	/**
+	 * @return git's output, trimmed
+	 */
+	String git(String... args) throws IOException
+	{
+		return git(dir, args);
+	}
+
+	/**
+	 * Runs git in any directory, failing the test if it fails
+	 *
+	 * @return git's output, trimmed
+	 */
+	static String git(File directory, String... args) throws IOException
+	{
+		return run(directory, 0, args);
+	}
+
+	private static String run(File directory, long time, String... args) throws IOException
+	{
+		List<String> command = new ArrayList<>();
+		command.add("git");
+		command.addAll(Arrays.asList(args));
+
+		ProcessBuilder pb = new ProcessBuilder(command)
+			.directory(directory)
+			.redirectError(ProcessBuilder.Redirect.INHERIT);
+		if (time > 0)
+		{
+			pb.environment().put("GIT_AUTHOR_DATE", "@" + time + " +0000");
+			pb.environment().put("GIT_COMMITTER_DATE", "@" + time + " +0000");
+		}
+
+		Process p = pb.start();
+		String out = new String(ByteStreams.toByteArray(p.getInputStream()), StandardCharsets.UTF_8).trim();
+		try
+		{
+			Assert.assertEquals("git " + String.join(" ", args), 0, p.waitFor());
+		}
+		catch (InterruptedException e)
+		{
+			throw new RuntimeException(e);
+		}
+		return out;
+	}
+}
@@ -0,0 +1,297 @@
+/*
+ * Copyright (c) 2026 Abex
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.pluginhub.uploader;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nullable;
+import lombok.Value;
+
+/**
+ * Every plugin's API file for one manifest version in a single indexed file, so the
+ * packager can decide which plugins need rebuilding without a request per plugin.
+ * <p>
+ * The file is a header, an index of (internal name, jar hash, flags, offset, length)
+ * sorted by internal name, then the concatenated API files, which are stored exactly
+ * as they were uploaded.
+ */
+public class ApiBundle
+{
+	private static final int MAGIC = 0x524C4142; // RLAB
+	private static final int VERSION = 1;
+
+	private static final int FLAG_JAR_PRESENT = 1;
+	private static final int FLAG_HAS_API = 2;
+
+	private final ByteBuffer buffer;
+	private final Map<String, Entry> entries;
+
+	private ApiBundle(ByteBuffer buffer, Map<String, Entry> entries)
+	{
+		this.buffer = buffer;
+		this.entries = entries;
+	}
+
+	public static ApiBundle read(ByteBuffer buffer) throws IOException
+	{
+		try
+		{
+			ByteBuffer buf = buffer.duplicate();
+			if (buf.getInt() != MAGIC)
+			{
+				throw new IOException("not an api bundle");
+			}
+			int version = buf.getInt();
+			if (version != VERSION)
+			{
+				throw new IOException("unsupported api bundle version " + version);
+			}
+
+			int count = buf.getInt();
+			Map<String, Entry> entries = new LinkedHashMap<>(count * 2);
+			for (int i = 0; i < count; i++)
+			{
+				String internalName = readString(buf);
+				String jarHash = readString(buf);
+				int flags = buf.get();
+				int offset = buf.getInt();
+				int length = buf.getInt();
+				entries.put(internalName, new Entry(internalName, jarHash,
+					(flags & FLAG_JAR_PRESENT) != 0, (flags & FLAG_HAS_API) != 0, offset, length));
+			}
+
+			ByteBuffer data = buf.slice();
+			for (Entry e : entries.values())
+			{
+				if (e.offset < 0 || e.length < 0 || (long) e.offset + e.length > data.limit())
+				{
+					throw new IOException("api bundle entry " + e.internalName + " is out of bounds");
+				}
+			}
+			return new ApiBundle(data, Collections.unmodifiableMap(entries));
+		}
+		catch (BufferUnderflowException e)
+		{
+			throw new IOException("truncated api bundle", e);
+		}
+	}
+
+	/**
+	 * Memory maps a bundle, so only the API files that are actually read get paged in
+	 */
+	public static ApiBundle map(File file) throws IOException
+	{
+		try (FileChannel fc = FileChannel.open(file.toPath(), StandardOpenOption.READ))
+		{
+			return read(fc.map(FileChannel.MapMode.READ_ONLY, 0, fc.size()));
+		}
+	}
+
+	@Nullable
+	public Entry get(String internalName)
+	{
+		return entries.get(internalName);
+	}
+
+	public Collection<Entry> getEntries()
+	{
+		return entries.values();
+	}
+
+	/**
+	 * @return the deflated API file, as it is stored in {@link UploadConfiguration#DIR_API}, or null if the plugin has none
+	 */
+	@Nullable
+	public InputStream openApi(Entry entry)
+	{
+		if (!entry.hasApi)
+		{
+			return null;
+		}
+
+		ByteBuffer buf = buffer.duplicate();
+		buf.position(entry.offset);
+		buf.limit(entry.offset + entry.length);
+		return new ByteBufferInputStream(buf.slice());
+	}
+
+	@Nullable
+	private byte[] readApi(Entry entry)
+	{
+		if (!entry.hasApi)
+		{
+			return null;
+		}
+
+		byte[] data = new byte[entry.length];
+		ByteBuffer buf = buffer.duplicate();
+		buf.position(entry.offset);
+		buf.get(data);
+		return data;
+	}
+
+	private static String readString(ByteBuffer buf)
+	{
+		byte[] bytes = new byte[buf.getShort() & 0xFFFF];
+		buf.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	private static void writeString(DataOutputStream out, String str) throws IOException
+	{
+		byte[] bytes = str.getBytes(StandardCharsets.UTF_8);
+		out.writeShort(bytes.length);
+		out.write(bytes);
+	}
+
+	@Value
+	public static class Entry
+	{
+		String internalName;
+		String jarHash;
+		boolean jarPresent;
+		boolean hasApi;
+		int offset;
+		int length;
+	}
+
+	public static class Builder
+	{
+		@Value
+		private static class Pending
+		{
+			String internalName;
+			String jarHash;
+			boolean jarPresent;
+			@Nullable
+			byte[] api;
+		}
+
+		private final Map<String, Pending> entries = new LinkedHashMap<>();
+
+		/**
+		 * @param api the deflated API file, or null if the plugin doesn't have one
+		 */
+		public Builder add(String internalName, String jarHash, boolean jarPresent, @Nullable byte[] api)
+		{
+			entries.put(internalName, new Pending(internalName, jarHash, jarPresent, api));
+			return this;
+		}
+
+		public Builder add(ApiBundle from, Entry entry)
+		{
+			return add(entry.internalName, entry.jarHash, entry.jarPresent, from.readApi(entry));
+		}
+
+		public void write(OutputStream os) throws IOException
+		{
+			List<Pending> sorted = new ArrayList<>(entries.values());
+			sorted.sort(Comparator.comparing(Pending::getInternalName));
+
+			DataOutputStream out = new DataOutputStream(os);
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeInt(sorted.size());
+
+			int offset = 0;
+			for (Pending p : sorted)
+			{
+				int length = p.api == null ? 0 : p.api.length;
+				writeString(out, p.internalName);
+				writeString(out, p.jarHash);
+				out.writeByte((p.jarPresent ? FLAG_JAR_PRESENT : 0) | (p.api != null ? FLAG_HAS_API : 0));
+				out.writeInt(offset);
+				out.writeInt(length);
+				offset += length;
+			}
+
+			for (Pending p : sorted)
+			{
+				if (p.api != null)
+				{
+					out.write(p.api);
+				}
+			}
+			out.flush();
+		}
+
+		public byte[] toByteArray() throws IOException
+		{
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			write(out);
+			return out.toByteArray();
+		}
+	}
+
+	private static class ByteBufferInputStream extends InputStream
+	{
+		private final ByteBuffer buf;
+
+		ByteBufferInputStream(ByteBuffer buf)
+		{
+			this.buf = buf;
+		}
+
+		@Override
+		public int read()
+		{
+			return buf.hasRemaining() ? buf.get() & 0xFF : -1;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len)
+		{
+			if (!buf.hasRemaining())
+			{
+				return len == 0 ? 0 : -1;
+			}
+			len = Math.min(len, buf.remaining());
+			buf.get(b, off, len);
+			return len;
+		}
+
+		@Override
+		public int available()
+		{
+			return buf.remaining();
+		}
+	}
+}
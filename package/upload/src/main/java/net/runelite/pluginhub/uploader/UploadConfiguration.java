@@ -24,23 +24,40 @@
  */
 package net.runelite.pluginhub.uploader;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Strings;
+import com.google.common.io.Files;
 import java.io.Closeable;
 import java.io.File;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.security.InvalidKeyException;
 import java.security.NoSuchAlgorithmException;
 import java.security.SignatureException;
 import java.util.Base64;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import javax.annotation.Nullable;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.experimental.Accessors;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.Dispatcher;
 import okhttp3.HttpUrl;
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
 import okhttp3.RequestBody;
 import okhttp3.Response;
+import okio.BufferedSink;
 import okio.BufferedSource;
+import okio.Okio;
 
 @Getter
 @Accessors(chain = true)
@@ -56,8 +73,17 @@ public class UploadConfiguration implements Closeable
 	public static final String MANIFEST_TYPE_FULL = "_full.js";
 	public static final String MANIFEST_TYPE_LITE = "_lite.js";
 
+	public static final String API_BUNDLE_SUFFIX = ".apibundle";
+
+	// okhttp only runs 5 async calls to the same host by default, which one plugin's artifacts can fill alone
+	private static final int MAX_CONCURRENT_REQUESTS = 16;
+
 	private OkHttpClient client;
 
+	// collections known to exist, or being created by another thread
+	@Getter(AccessLevel.NONE)
+	private final ConcurrentMap<HttpUrl, CompletableFuture<Void>> collections = new ConcurrentHashMap<>();
+
 	@Getter
 	private HttpUrl root;
 
@@ -66,15 +92,21 @@ public class UploadConfiguration implements Closeable
 
 	public UploadConfiguration fromEnvironment(String runeLiteVersion)
 	{
-		String prNo = System.getenv("PACKAGE_IS_PR");
+		return fromEnvironment(runeLiteVersion, System.getenv());
+	}
+
+	@VisibleForTesting
+	UploadConfiguration fromEnvironment(String runeLiteVersion, Map<String, String> env)
+	{
+		String prNo = env.get("PACKAGE_IS_PR");
 		if (prNo != null && !prNo.isEmpty() && !"false".equalsIgnoreCase(prNo))
 		{
 			return this;
 		}
 
-		setClient(System.getenv("REPO_CREDS"));
+		setClient(env.get("REPO_CREDS"));
 
-		String uploadRepoRootStr = System.getenv("REPO_ROOT");
+		String uploadRepoRootStr = env.get("REPO_ROOT");
 		if (!Strings.isNullOrEmpty(uploadRepoRootStr))
 		{
 			root = HttpUrl.parse(uploadRepoRootStr);
@@ -92,7 +124,12 @@ public class UploadConfiguration implements Closeable
 	public UploadConfiguration setClient(String credentials)
 	{
 		String repoAuth = "Basic " + Base64.getEncoder().encodeToString(credentials.getBytes(StandardCharsets.UTF_8));
+		Dispatcher dispatcher = new Dispatcher();
+		dispatcher.setMaxRequests(MAX_CONCURRENT_REQUESTS);
+		dispatcher.setMaxRequestsPerHost(MAX_CONCURRENT_REQUESTS);
+
 		client = new OkHttpClient.Builder()
+			.dispatcher(dispatcher)
 			.addInterceptor(chain ->
 			{
 				Request userAgentRequest = chain.request()
@@ -133,6 +170,116 @@ public class UploadConfiguration implements Closeable
 		}
 	}
 
+	/**
+	 * Uploads {@code data} on the client's dispatcher instead of the calling thread
+	 */
+	public CompletableFuture<Void> putAsync(HttpUrl path, File data)
+	{
+		return call(new Request.Builder()
+				.url(path)
+				.put(RequestBody.create(null, data))
+				.build(),
+			res ->
+			{
+				Util.check(res);
+				return null;
+			});
+	}
+
+	/**
+	 * Uploads {@code data} to a path named by the hash of its content, unless it has
+	 * already been uploaded there. A HEAD is much cheaper than sending the file again
+	 *
+	 * @return if the file was uploaded
+	 */
+	public CompletableFuture<Boolean> putIfAbsentAsync(HttpUrl path, File data)
+	{
+		long length = data.length();
+		return call(new Request.Builder()
+				.url(path)
+				.head()
+				.build(),
+			res ->
+			{
+				if (res.code() == 404)
+				{
+					return false;
+				}
+				Util.check(res);
+
+				// a short file is what an interrupted upload leaves behind
+				String contentLength = res.header("Content-Length");
+				return contentLength != null && Long.parseLong(contentLength) == length;
+			})
+			.thenCompose(exists -> exists
+				? CompletableFuture.completedFuture(false)
+				: putAsync(path, data).thenApply(v -> true));
+	}
+
+	public CompletableFuture<Void> putMkDirsAsync(HttpUrl path, File data)
+	{
+		return mkdirsAsync(path.newBuilder()
+				.removePathSegment(path.pathSize() - 1)
+				.build())
+			.thenCompose(v -> putAsync(path, data));
+	}
+
+	/**
+	 * Waits for every upload to finish, then throws the first failure, if any
+	 */
+	public static void await(Collection<? extends CompletableFuture<?>> uploads) throws IOException
+	{
+		try
+		{
+			CompletableFuture.allOf(uploads.toArray(new CompletableFuture<?>[0])).join();
+		}
+		catch (CompletionException e)
+		{
+			Throwable cause = e.getCause();
+			if (cause instanceof UncheckedIOException)
+			{
+				cause = cause.getCause();
+			}
+			if (cause instanceof IOException)
+			{
+				throw new IOException(cause.getMessage(), cause);
+			}
+			throw e;
+		}
+	}
+
+	private <T> CompletableFuture<T> call(Request request, ResponseHandler<T> handler)
+	{
+		CompletableFuture<T> future = new CompletableFuture<>();
+		client.newCall(request).enqueue(new Callback()
+		{
+			@Override
+			public void onFailure(Call call, IOException e)
+			{
+				future.completeExceptionally(e);
+			}
+
+			@Override
+			public void onResponse(Call call, Response response)
+			{
+				try (Response res = response)
+				{
+					future.complete(handler.handle(res));
+				}
+				catch (IOException | RuntimeException e)
+				{
+					future.completeExceptionally(e);
+				}
+			}
+		});
+		return future;
+	}
+
+	private interface ResponseHandler<T>
+	{
+		T handle(Response res) throws IOException;
+	}
+
 	public void putMkDirs(HttpUrl path, File data) throws IOException
 	{
 		mkdirs(path.newBuilder()
@@ -141,25 +288,66 @@ public class UploadConfiguration implements Closeable
 		put(path, data);
 	}
 
+	/**
+	 * Creates the collection and any missing parents
+	 */
 	public void mkdirs(HttpUrl url) throws IOException
 	{
-		for (int i = 0; i < 2; i++)
+		try
 		{
-			try (Response res = client.newCall(new Request.Builder()
-					.url(url.newBuilder()
-						.addPathSegment("/")
-						.build())
-					.method("MKCOL", null)
+			mkdirsAsync(url).join();
+		}
+		catch (CompletionException e)
+		{
+			if (e.getCause() instanceof IOException)
+			{
+				throw new IOException(e.getCause().getMessage(), e.getCause());
+			}
+			throw e;
+		}
+	}
+
+	/**
+	 * Creates the collection and any missing parents on the client's dispatcher. Collections are
+	 * only created once, concurrent calls for the same url share the first one's request
+	 */
+	public CompletableFuture<Void> mkdirsAsync(HttpUrl url)
+	{
+		CompletableFuture<Void> created = new CompletableFuture<>();
+		CompletableFuture<Void> existing = collections.putIfAbsent(url, created);
+		if (existing != null)
+		{
+			return existing;
+		}
+
+		mkcol(url, true).whenComplete((v, e) ->
+		{
+			if (e == null)
+			{
+				created.complete(null);
+				return;
+			}
+
+			// let the next caller try again
+			collections.remove(url, created);
+			created.completeExceptionally(e instanceof CompletionException ? e.getCause() : e);
+		});
+		return created;
+	}
+
+	private CompletableFuture<Void> mkcol(HttpUrl url, boolean createParent)
+	{
+		return call(new Request.Builder()
+				.url(url.newBuilder()
+					.addPathSegment("/")
 					.build())
-				.execute())
+				.method("MKCOL", null)
+				.build(),
+			res ->
 			{
-				if (res.code() == 409 && i == 0)
+				if (res.code() == 409 && createParent)
 				{
-					mkdirs(url.newBuilder()
-						.removePathSegment(url.pathSize() - 1)
-						.build());
-
-					continue;
+					return false;
 				}
 
 				// even though 405 is method not allowed, if your webdav
@@ -169,9 +357,14 @@ public class UploadConfiguration implements Closeable
 					Util.check(res);
 				}
 
-				return;
-			}
-		}
+				return true;
+			})
+			.thenCompose(created -> created
+				? CompletableFuture.completedFuture(null)
+				: mkdirsAsync(url.newBuilder()
+						.removePathSegment(url.pathSize() - 1)
+						.build())
+					.thenCompose(v -> mkcol(url, false)));
 	}
 
 	public PluginHubManifest.ManifestFull getManifest(String version, SigningConfiguration signingConfig) throws IOException
@@ -207,6 +400,63 @@ public class UploadConfiguration implements Closeable
 		}
 	}
 
+	/**
+	 * @param cacheFile where to keep the bundle between runs, or null to hold it in memory
+	 * @return the api bundle for a manifest version, or null if one was never published
+	 */
+	@Nullable
+	public ApiBundle getApiBundle(String version, @Nullable File cacheFile) throws IOException
+	{
+		File etagFile = cacheFile == null ? null : new File(cacheFile.getPath() + ".etag");
+		Request.Builder req = new Request.Builder()
+			.url(getRoot().newBuilder()
+				.addPathSegment(DIR_API)
+				.addPathSegment(version + API_BUNDLE_SUFFIX)
+				.build())
+			.get();
+		if (cacheFile != null && cacheFile.exists() && etagFile.exists())
+		{
+			req.header("If-None-Match", Files.asCharSource(etagFile, StandardCharsets.UTF_8).read());
+		}
+
+		try (Response res = getClient().newCall(req.build()).execute())
+		{
+			if (res.code() == 404)
+			{
+				return null;
+			}
+			if (res.code() == 304)
+			{
+				return ApiBundle.map(cacheFile);
+			}
+			Util.check(res);
+
+			if (cacheFile == null)
+			{
+				return ApiBundle.read(ByteBuffer.wrap(res.body().bytes()));
+			}
+
+			cacheFile.getParentFile().mkdirs();
+			File tmp = new File(cacheFile.getPath() + ".tmp");
+			try (BufferedSink sink = Okio.buffer(Okio.sink(tmp)))
+			{
+				sink.writeAll(res.body().source());
+			}
+			Files.move(tmp, cacheFile);
+
+			String etag = res.header("ETag");
+			if (etag != null)
+			{
+				Files.asCharSink(etagFile, StandardCharsets.UTF_8).write(etag);
+			}
+			else
+			{
+				etagFile.delete();
+			}
+			return ApiBundle.map(cacheFile);
+		}
+	}
+
 	@Override
 	public void close()
 	{
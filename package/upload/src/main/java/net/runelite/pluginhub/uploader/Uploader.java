@@ -33,11 +33,20 @@ import java.nio.charset.StandardCharsets;
 import java.security.InvalidKeyException;
 import java.security.NoSuchAlgorithmException;
 import java.security.SignatureException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import javax.annotation.Nullable;
+import lombok.extern.slf4j.Slf4j;
 import okhttp3.Request;
 import okhttp3.RequestBody;
 import okhttp3.Response;
 
+@Slf4j
 public class Uploader
 {
 	public static void main(String... args) throws IOException, NoSuchAlgorithmException, SignatureException, InvalidKeyException
@@ -82,7 +91,115 @@ public class Uploader
 
 			putSigned(UploadConfiguration.MANIFEST_TYPE_FULL, manifestFull, uploadConfig, signingConfig);
 			putSigned(UploadConfiguration.MANIFEST_TYPE_LITE, manifestLite, uploadConfig, signingConfig);
+
+			Set<String> built = diff.getAddJarData().stream()
+				.map(PluginHubManifest.JarData::getInternalName)
+				.collect(Collectors.toSet());
+			byte[] apiBundle = buildApiBundle(uploadConfig, manifestFull.getJars(), built, diff.getOldManifestVersion());
+			try (Response res = uploadConfig.getClient().newCall(new Request.Builder()
+					.url(uploadConfig.getRoot().newBuilder()
+						.addPathSegment(UploadConfiguration.DIR_API)
+						.addPathSegment(uploadConfig.getRuneLiteVersion() + UploadConfiguration.API_BUNDLE_SUFFIX)
+						.build())
+					.put(RequestBody.create(null, apiBundle))
+					.build())
+				.execute())
+			{
+				Util.check(res);
+			}
+		}
+	}
+
+	/**
+	 * Builds the api bundle for the new manifest. Jars copied from the old manifest weren't
+	 * rebuilt, so their entries are reused from the previous bundles when the jar hash matches.
+	 * A rebuilt jar can have the same hash with a different api, because its api also depends on
+	 * the client it was built against, so the apis of plugins built by this run are always fetched
+	 *
+	 * @param built the internal names of the plugins built by this run
+	 */
+	static byte[] buildApiBundle(UploadConfiguration uploadConfig, List<PluginHubManifest.JarData> jars, Set<String> built,
+		@Nullable String oldVersion) throws IOException
+	{
+		List<ApiBundle> previous = new ArrayList<>();
+		for (String version : new LinkedHashSet<>(Arrays.asList(uploadConfig.getRuneLiteVersion(), oldVersion)))
+		{
+			if (version == null)
+			{
+				continue;
+			}
+
+			try
+			{
+				ApiBundle bundle = uploadConfig.getApiBundle(version, null);
+				if (bundle != null)
+				{
+					previous.add(bundle);
+				}
+			}
+			catch (IOException e)
+			{
+				// anything we would have used from it is fetched individually instead
+				log.warn("unable to read api bundle for {}", version, e);
+			}
 		}
+
+		ApiBundle.Builder builder = new ApiBundle.Builder();
+		next:
+		for (PluginHubManifest.JarData jar : jars)
+		{
+			if (!built.contains(jar.getInternalName()))
+			{
+				for (ApiBundle bundle : previous)
+				{
+					ApiBundle.Entry entry = bundle.get(jar.getInternalName());
+					if (entry != null && entry.getJarHash().equals(jar.getJarHash()) && entry.isJarPresent())
+					{
+						builder.add(bundle, entry);
+						continue next;
+					}
+				}
+			}
+
+			String name = jar.getInternalName() + "_" + jar.getJarHash();
+			byte[] api;
+			try (Response res = uploadConfig.getClient().newCall(new Request.Builder()
+					.url(uploadConfig.getRoot().newBuilder()
+						.addPathSegment(UploadConfiguration.DIR_API)
+						.addPathSegment(name + ".api")
+						.build())
+					.get()
+					.build())
+				.execute())
+			{
+				if (res.code() == 404)
+				{
+					api = null;
+				}
+				else
+				{
+					Util.check(res);
+					api = res.body().bytes();
+				}
+			}
+
+			boolean jarPresent;
+			try (Response res = uploadConfig.getClient().newCall(new Request.Builder()
+					.url(uploadConfig.getRoot().newBuilder()
+						.addPathSegment(UploadConfiguration.DIR_JAR)
+						.addPathSegment(name + ".jar")
+						.build())
+					.head()
+					.build())
+				.execute())
+			{
+				jarPresent = res.isSuccessful();
+			}
+
+			builder.add(jar.getInternalName(), jar.getJarHash(), jarPresent, api);
+		}
+
+		return builder.toByteArray();
 	}
 
 	private static void putSigned(String manifestType, Object manifest, UploadConfiguration uploadConfig, SigningConfiguration signingConfig)
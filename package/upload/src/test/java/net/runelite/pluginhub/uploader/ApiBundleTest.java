@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) 2026 Abex
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.pluginhub.uploader;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.io.ByteStreams;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ApiBundleTest
+{
+	@Test
+	public void testRoundTrip() throws IOException
+	{
+		byte[] data = new ApiBundle.Builder()
+			.add("zeta", "hashz", true, "zeta api".getBytes(StandardCharsets.UTF_8))
+			.add("alpha", "hasha", false, null)
+			.add("beta", "hashb", true, "beta api".getBytes(StandardCharsets.UTF_8))
+			.toByteArray();
+
+		ApiBundle bundle = ApiBundle.read(ByteBuffer.wrap(data));
+		Assert.assertEquals(3, bundle.getEntries().size());
+		Assert.assertNull(bundle.get("gamma"));
+
+		ApiBundle.Entry alpha = bundle.get("alpha");
+		Assert.assertEquals("hasha", alpha.getJarHash());
+		Assert.assertFalse(alpha.isJarPresent());
+		Assert.assertFalse(alpha.isHasApi());
+		Assert.assertNull(bundle.openApi(alpha));
+
+		Assert.assertEquals("beta api", readApi(bundle, "beta"));
+		Assert.assertEquals("zeta api", readApi(bundle, "zeta"));
+	}
+
+	@Test(expected = IOException.class)
+	public void testTruncated() throws IOException
+	{
+		byte[] data = new ApiBundle.Builder()
+			.add("alpha", "hasha", true, "alpha api".getBytes(StandardCharsets.UTF_8))
+			.toByteArray();
+		ApiBundle.read(ByteBuffer.wrap(Arrays.copyOf(data, data.length - 1)));
+	}
+
+	@Test
+	public void testBuildReusesPreviousBundle() throws IOException, InterruptedException
+	{
+		MockWebServer server = new MockWebServer();
+		UploadConfiguration uploadConfig = new UploadConfiguration()
+			.fromEnvironment("1.0.1", ImmutableMap.of(
+				"REPO_CREDS", "user:pass",
+				"REPO_ROOT", server.url("/").toString()));
+
+		byte[] previous = new ApiBundle.Builder()
+			.add("alpha", "hasha", true, "alpha api".getBytes(StandardCharsets.UTF_8))
+			.add("beta", "oldhashb", true, "old beta api".getBytes(StandardCharsets.UTF_8))
+			.add("gamma", "hashg", true, "old gamma api".getBytes(StandardCharsets.UTF_8))
+			.toByteArray();
+
+		server.enqueue(new MockResponse().setResponseCode(404));
+		server.enqueue(new MockResponse().setBody(new okio.Buffer().write(previous)));
+		server.enqueue(new MockResponse().setBody("beta api"));
+		server.enqueue(new MockResponse().setResponseCode(200));
+		server.enqueue(new MockResponse().setBody("gamma api"));
+		server.enqueue(new MockResponse().setResponseCode(200));
+
+		PluginHubManifest.JarData alpha = new PluginHubManifest.JarData();
+		alpha.setInternalName("alpha");
+		alpha.setJarHash("hasha");
+		PluginHubManifest.JarData beta = new PluginHubManifest.JarData();
+		beta.setInternalName("beta");
+		beta.setJarHash("hashb");
+		// rebuilt to the same jar, but against a client whose constants changed, so its api did too
+		PluginHubManifest.JarData gamma = new PluginHubManifest.JarData();
+		gamma.setInternalName("gamma");
+		gamma.setJarHash("hashg");
+
+		ApiBundle bundle = ApiBundle.read(ByteBuffer.wrap(
+			Uploader.buildApiBundle(uploadConfig, Arrays.asList(alpha, beta, gamma), Collections.singleton("gamma"), "1.0.0")));
+
+		Assert.assertEquals("/api/1.0.1.apibundle", server.takeRequest().getPath());
+		Assert.assertEquals("/api/1.0.0.apibundle", server.takeRequest().getPath());
+		Assert.assertEquals("/api/beta_hashb.api", server.takeRequest().getPath());
+		RecordedRequest head = server.takeRequest();
+		Assert.assertEquals("HEAD", head.getMethod());
+		Assert.assertEquals("/jar/beta_hashb.jar", head.getPath());
+		Assert.assertEquals("/api/gamma_hashg.api", server.takeRequest().getPath());
+		Assert.assertEquals("/jar/gamma_hashg.jar", server.takeRequest().getPath());
+		Assert.assertEquals(6, server.getRequestCount());
+
+		Assert.assertEquals("alpha api", readApi(bundle, "alpha"));
+		Assert.assertEquals("beta api", readApi(bundle, "beta"));
+		Assert.assertTrue(bundle.get("beta").isJarPresent());
+		Assert.assertEquals("gamma api", readApi(bundle, "gamma"));
+	}
+
+	private static String readApi(ApiBundle bundle, String internalName) throws IOException
+	{
+		try (InputStream is = bundle.openApi(bundle.get(internalName)))
+		{
+			return new String(ByteStreams.toByteArray(is), StandardCharsets.UTF_8);
+		}
+	}
+}
@@ -24,7 +24,16 @@
  */
 package net.runelite.pluginhub.uploader;
 
+import com.google.common.io.Files;
+import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import okhttp3.HttpUrl;
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
 import okhttp3.RequestBody;
@@ -33,10 +42,15 @@ import okhttp3.mockwebserver.MockResponse;
 import okhttp3.mockwebserver.MockWebServer;
 import okhttp3.mockwebserver.RecordedRequest;
 import org.junit.Assert;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 public class UploadConfigurationTest
 {
+	@Rule
+	public TemporaryFolder tmp = new TemporaryFolder();
+
 	@Test
 	public void createClientWithCredentials() throws IOException, InterruptedException
 	{
@@ -62,4 +76,202 @@ public class UploadConfigurationTest
 		RecordedRequest r2 = server.takeRequest();
 		Assert.assertEquals("Basic QWxhZGRpbjpvcGVuIHNlc2FtZQ==", r2.getHeader("Authorization"));
 	}
-}
\ No newline at end of file
+
+	@Test
+	public void putIfAbsentSkipsExisting() throws Exception
+	{
+		MockWebServer server = new MockWebServer();
+		server.enqueue(new MockResponse().setHeader("Content-Length", 5));
+
+		File file = write("hello");
+		UploadConfiguration config = new UploadConfiguration().setClient("user:pass");
+		Assert.assertFalse(config.putIfAbsentAsync(server.url("/jar/plugin_abc.jar"), file).get());
+
+		Assert.assertEquals(1, server.getRequestCount());
+		Assert.assertEquals("HEAD", server.takeRequest().getMethod());
+		server.shutdown();
+	}
+
+	@Test
+	public void putIfAbsentUploadsMissing() throws Exception
+	{
+		MockWebServer server = new MockWebServer();
+		server.enqueue(new MockResponse().setResponseCode(404));
+		server.enqueue(new MockResponse().setResponseCode(201));
+
+		File file = write("hello");
+		UploadConfiguration config = new UploadConfiguration().setClient("user:pass");
+		Assert.assertTrue(config.putIfAbsentAsync(server.url("/jar/plugin_abc.jar"), file).get());
+
+		Assert.assertEquals("HEAD", server.takeRequest().getMethod());
+		RecordedRequest put = server.takeRequest();
+		Assert.assertEquals("PUT", put.getMethod());
+		Assert.assertEquals("hello", put.getBody().readUtf8());
+		server.shutdown();
+	}
+
+	@Test
+	public void putIfAbsentReplacesTruncated() throws Exception
+	{
+		MockWebServer server = new MockWebServer();
+		server.enqueue(new MockResponse().setHeader("Content-Length", 2));
+		server.enqueue(new MockResponse().setResponseCode(201));
+
+		File file = write("hello");
+		UploadConfiguration config = new UploadConfiguration().setClient("user:pass");
+		Assert.assertTrue(config.putIfAbsentAsync(server.url("/jar/plugin_abc.jar"), file).get());
+
+		Assert.assertEquals("HEAD", server.takeRequest().getMethod());
+		Assert.assertEquals("PUT", server.takeRequest().getMethod());
+		server.shutdown();
+	}
+
+	@Test
+	public void awaitReportsFailures() throws Exception
+	{
+		MockWebServer server = new MockWebServer();
+		server.enqueue(new MockResponse().setResponseCode(201));
+		server.enqueue(new MockResponse().setResponseCode(500));
+
+		File file = write("hello");
+		UploadConfiguration config = new UploadConfiguration().setClient("user:pass");
+		CompletableFuture<Void> first = config.putAsync(server.url("/source/a.zip"), file);
+		first.get();
+		CompletableFuture<Void> second = config.putAsync(server.url("/source/b.zip"), file);
+
+		try
+		{
+			UploadConfiguration.await(Arrays.asList(first, second));
+			Assert.fail();
+		}
+		catch (IOException e)
+		{
+			Assert.assertTrue(e.getMessage(), e.getMessage().contains("500"));
+		}
+		server.shutdown();
+	}
+
+	@Test
+	public void mkdirsRemembersExisting() throws Exception
+	{
+		MockWebServer server = new MockWebServer();
+		server.enqueue(new MockResponse().setResponseCode(405));
+
+		UploadConfiguration config = new UploadConfiguration().setClient("user:pass");
+		config.mkdirs(server.url("/log/plugin"));
+		config.mkdirs(server.url("/log/plugin"));
+
+		Assert.assertEquals(1, server.getRequestCount());
+		Assert.assertEquals("MKCOL", server.takeRequest().getMethod());
+		server.shutdown();
+	}
+
+	@Test
+	public void mkdirsCreatesParents() throws Exception
+	{
+		MockWebServer server = new MockWebServer();
+		server.enqueue(new MockResponse().setResponseCode(409));
+		server.enqueue(new MockResponse().setResponseCode(201));
+		server.enqueue(new MockResponse().setResponseCode(201));
+
+		UploadConfiguration config = new UploadConfiguration().setClient("user:pass");
+		config.mkdirs(server.url("/source/plugin"));
+		Assert.assertEquals(3, server.getRequestCount());
+
+		// both the collection and its parent are known now
+		config.mkdirs(server.url("/source"));
+		config.mkdirs(server.url("/source/plugin"));
+		Assert.assertEquals(3, server.getRequestCount());
+		server.shutdown();
+	}
+
+	@Test
+	public void mkdirsRetriesFailures() throws Exception
+	{
+		MockWebServer server = new MockWebServer();
+		server.enqueue(new MockResponse().setResponseCode(500));
+		server.enqueue(new MockResponse().setResponseCode(201));
+
+		UploadConfiguration config = new UploadConfiguration().setClient("user:pass");
+		try
+		{
+			config.mkdirs(server.url("/log/plugin"));
+			Assert.fail();
+		}
+		catch (IOException e)
+		{
+			// expected
+		}
+
+		config.mkdirs(server.url("/log/plugin"));
+		Assert.assertEquals(2, server.getRequestCount());
+		server.shutdown();
+	}
+
+	@Test
+	public void mkdirsCoalescesConcurrentCalls() throws Exception
+	{
+		MockWebServer server = new MockWebServer();
+		server.enqueue(new MockResponse().setResponseCode(201).setHeadersDelay(200, TimeUnit.MILLISECONDS));
+
+		UploadConfiguration config = new UploadConfiguration().setClient("user:pass");
+		HttpUrl url = server.url("/log/plugin");
+		List<Thread> threads = new ArrayList<>();
+		List<Throwable> failures = new ArrayList<>();
+		for (int i = 0; i < 8; i++)
+		{
+			Thread t = new Thread(() ->
+			{
+				try
+				{
+					config.mkdirs(url);
+				}
+				catch (IOException | RuntimeException e)
+				{
+					synchronized (failures)
+					{
+						failures.add(e);
+					}
+				}
+			});
+			t.start();
+			threads.add(t);
+		}
+		for (Thread t : threads)
+		{
+			t.join();
+		}
+
+		Assert.assertEquals(new ArrayList<>(), failures);
+		Assert.assertEquals(1, server.getRequestCount());
+		server.shutdown();
+	}
+
+	@Test
+	public void putMkDirsAsyncCreatesParents() throws Exception
+	{
+		MockWebServer server = new MockWebServer();
+		server.enqueue(new MockResponse().setResponseCode(409));
+		server.enqueue(new MockResponse().setResponseCode(201));
+		server.enqueue(new MockResponse().setResponseCode(201));
+		server.enqueue(new MockResponse().setResponseCode(201));
+
+		UploadConfiguration config = new UploadConfiguration().setClient("user:pass");
+		config.putMkDirsAsync(server.url("/source/plugin/1.zip"), write("data")).join();
+
+		Assert.assertEquals("MKCOL", server.takeRequest().getMethod());
+		Assert.assertEquals("MKCOL", server.takeRequest().getMethod());
+		Assert.assertEquals("MKCOL", server.takeRequest().getMethod());
+		RecordedRequest put = server.takeRequest();
+		Assert.assertEquals("PUT", put.getMethod());
+		Assert.assertEquals("/source/plugin/1.zip", put.getPath());
+		server.shutdown();
+	}
+
+	private File write(String content) throws IOException
+	{
+		File file = tmp.newFile();
+		Files.asCharSink(file, StandardCharsets.UTF_8).write(content);
+		return file;
+	}
+}